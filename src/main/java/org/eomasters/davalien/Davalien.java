@@ -25,6 +25,7 @@ package org.eomasters.davalien;
 
 import java.awt.Desktop;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -33,7 +34,20 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -42,11 +56,11 @@ import org.eomasters.davalien.res.JsonHelper;
 import org.eomasters.davalien.res.Resources;
 import org.eomasters.davalien.res.testdef.ProductContent;
 import org.eomasters.davalien.res.testdef.TestDefinition;
+import org.eomasters.davalien.utils.ConcurrencyUtils;
 import org.eomasters.davalien.utils.CopyDirContentTreeVisitor;
 import org.eomasters.davalien.utils.DeleteTreeVisitor;
 import org.esa.snap.core.dataio.ProductIO;
 import org.esa.snap.core.datamodel.Product;
-import org.esa.snap.core.gpf.main.CommandLineTool;
 
 /**
  * The DAta VALIdataion ENvironment - DAVALIEN.
@@ -54,9 +68,13 @@ import org.esa.snap.core.gpf.main.CommandLineTool;
 public class Davalien {
 
   public static final Logger LOGGER = Logger.getLogger(Davalien.class.getName());
-  private static final String TESTS_DIR = "tests";
+  static final String TESTS_DIR = "tests";
   private static final String RESULTS_DIR = "results";
   private static final String PRODUCTS_DIR = "products";
+  private static final String LOGS_DIR = "logs";
+  private static final String RESULT_CACHE_FILE = "result-cache.json";
+  private static final String TEST_CATALOG_FILE = "tests-catalog.json";
+  static final String REPORT_FILE_NAME = "validation_report";
   private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
   private final Path envPath;
   private final List<String> testNames;
@@ -68,6 +86,10 @@ public class Davalien {
   private Resources resources;
   private LocalDateTime date;
   private List<TestInst> testInstants;
+  private ResultCache resultCache;
+  private int shardIndex = 0;
+  private int shardCount = 1;
+  private Path shardDurations;
 
   /**
    * Create a new validation environment.
@@ -109,6 +131,32 @@ public class Davalien {
     return tags;
   }
 
+  /**
+   * Restricts the execution to one shard of the selected tests. The tests are split into shards of roughly equal
+   * runtime if a shared durations report is given, see {@link #setShardDurations(Path)}. Otherwise, they are split by
+   * the hash of their names.
+   *
+   * @param shardIndex the zero based index of the shard to execute
+   * @param shardCount the number of shards
+   */
+  public void setShard(int shardIndex, int shardCount) {
+    if (shardCount < 1 || shardIndex < 0 || shardIndex >= shardCount) {
+      throw new IllegalArgumentException(String.format("Invalid shard %d of %d", shardIndex + 1, shardCount));
+    }
+    this.shardIndex = shardIndex;
+    this.shardCount = shardCount;
+  }
+
+  /**
+   * Sets the report which provides the test durations used to balance the shards, e.g. the merged report of a previous
+   * run. All shards must use the same report, otherwise they compute different splits.
+   *
+   * @param shardDurations the JSON report or {@code null}
+   */
+  public void setShardDurations(Path shardDurations) {
+    this.shardDurations = shardDurations;
+  }
+
   /**
    * Get the date.
    *
@@ -119,7 +167,8 @@ public class Davalien {
   }
 
   /**
-   * Get the all test definitions.
+   * Get all test definitions of the environment. They are taken from the test catalog and only contain the name, the
+   * tags and the file of the tests.
    *
    * @return the all test definitions
    */
@@ -127,6 +176,15 @@ public class Davalien {
     return allTestDefinitions;
   }
 
+  /**
+   * Get the configuration of the environment.
+   *
+   * @return the configuration
+   */
+  EnvConfig getConfig() {
+    return config;
+  }
+
   /**
    * Returns the target format for the processed data products.
    *
@@ -145,15 +203,26 @@ public class Davalien {
     try {
       config = JsonHelper.getConfig(this.envPath.resolve("config.json"));
       resources = Resources.create(envPath);
-      allTestDefinitions = resources.getTestDefinitions(envPath.resolve(TESTS_DIR));
+      Path testsDir = envPath.resolve(TESTS_DIR);
+      TestCatalog catalog = TestCatalog.load(envPath.resolve(TEST_CATALOG_FILE));
+      catalog.update(testsDir);
+      catalog.save();
+      allTestDefinitions = catalog.getTestDefinitions(testsDir);
       date = LocalDateTime.now();
       Path resultsDir = envPath.resolve(RESULTS_DIR);
       rollResults(resultsDir);
+      if (config.isIncremental()) {
+        resultCache = ResultCache.load(resultsDir.resolve(RESULT_CACHE_FILE));
+      }
       runResultsDir = resultsDir.resolve(date.format(DATE_FORMAT));
       resultProductDir = runResultsDir.resolve(PRODUCTS_DIR);
       Files.createDirectories(resultProductDir);
 
       List<TestDefinition> selectedTestDefs = filterTestDefinitions(allTestDefinitions, testNames, tags);
+      if (shardCount > 1) {
+        selectedTestDefs = ShardPlanner.selectShard(selectedTestDefs, shardDurations, shardIndex, shardCount);
+      }
+      selectedTestDefs = readTestDefinitions(selectedTestDefs);
       testInstants = new ArrayList<>();
       if (!selectedTestDefs.isEmpty()) {
         testInstants = createTests(selectedTestDefs);
@@ -171,8 +240,7 @@ public class Davalien {
   public List<TestResult> execute() {
     ArrayList<TestResult> testResults = new ArrayList<>();
     if (!testInstants.isEmpty()) {
-      runGptTests(testInstants);
-      testResults = createTestResults(testInstants);
+      testResults = runAndValidateTests(testInstants);
     }
     return testResults;
   }
@@ -194,10 +262,7 @@ public class Davalien {
       System.out.printf("Tests executed: %d (success=%d / error=%d / failure=%d)%n", testReport.getTestResults().size(),
           testReport.getNumSuccessTests(), testReport.getNumErrorTests(), testReport.getNumFailureTests());
       System.out.println("For details see the results directory: " + runResultsDir);
-      String reportFileName = "validation_report";
-      toJsonFile(testReport, runResultsDir.resolve(reportFileName + ".json"));
-      Path htmlReportFile = runResultsDir.resolve(reportFileName + ".html");
-      toHtmlFile(testReport, htmlReportFile);
+      Path htmlReportFile = writeReportFiles(testReport, runResultsDir);
       if (Desktop.isDesktopSupported() && config.isOpenReport()) {
         Desktop.getDesktop().open(htmlReportFile.toFile());
       }
@@ -224,48 +289,249 @@ public class Davalien {
     }
   }
 
-  private void toHtmlFile(TestReport testReport, Path file) throws IOException {
+  /**
+   * Writes the report as JSON and HTML file into the given directory.
+   *
+   * @param testReport the report
+   * @param dir        the target directory
+   * @return the path of the HTML report
+   * @throws IOException if an I/O error occurs
+   */
+  static Path writeReportFiles(TestReport testReport, Path dir) throws IOException {
+    toJsonFile(testReport, dir.resolve(REPORT_FILE_NAME + ".json"));
+    Path htmlReportFile = dir.resolve(REPORT_FILE_NAME + ".html");
+    toHtmlFile(testReport, htmlReportFile);
+    return htmlReportFile;
+  }
+
+  private static void toHtmlFile(TestReport testReport, Path file) throws IOException {
     String htmlString = HtmlReport.create(testReport);
     Files.writeString(file, htmlString);
   }
 
-  private void toJsonFile(TestReport testReport, Path file) throws IOException {
+  private static void toJsonFile(TestReport testReport, Path file) throws IOException {
     String jsonString = JsonHelper.toJson(testReport);
     Files.writeString(file, jsonString);
   }
 
-  private ArrayList<TestResult> createTestResults(List<TestInst> tests) {
-    ArrayList<TestResult> testResults = new ArrayList<>();
+  // The validation of a finished test runs on a separate thread while the GPT calls of the following tests are still
+  // executed. The results are collected in the order of the tests.
+  private ArrayList<TestResult> runAndValidateTests(List<TestInst> tests) {
+    Map<TestInst, String> fingerprints = new HashMap<>();
+    Map<TestInst, TestResult> cachedResults = new HashMap<>();
+    List<TestInst> testsToRun = new ArrayList<>();
     for (TestInst test : tests) {
-      String testName = test.getName();
-      TestResult result = new TestResult(testName, test.getDescription(), test.getDuration(), test.getResultPath());
-      testResults.add(result);
+      TestResult cachedResult = resultCache != null ? findCachedResult(test, fingerprints) : null;
+      if (cachedResult != null) {
+        cachedResults.put(test, cachedResult);
+      } else {
+        testsToRun.add(test);
+      }
+    }
 
-      Throwable exception = test.getException();
-      if (exception != null) {
-        result.setException(exception);
+    Map<TestInst, Future<TestResult>> validations = new ConcurrentHashMap<>();
+    ExecutorService validationExecutor = Executors.newSingleThreadExecutor(r -> {
+      Thread thread = new Thread(r, "davalien-validation");
+      thread.setDaemon(true);
+      return thread;
+    });
+    try {
+      // products created in memory are computed during validation, so this happens on the worker thread
+      runGptTests(testsToRun, test -> validations.put(test, test.getTargetProduct() != null
+          ? CompletableFuture.completedFuture(createTestResult(test))
+          : validationExecutor.submit(() -> createTestResult(test))));
+      ArrayList<TestResult> testResults = new ArrayList<>();
+      for (TestInst test : tests) {
+        TestResult result = cachedResults.get(test);
+        if (result == null) {
+          result = awaitTestResult(test, validations.get(test));
+        }
+        testResults.add(result);
+      }
+      if (resultCache != null) {
+        updateResultCache(tests, testResults, fingerprints);
+      }
+      return testResults;
+    } finally {
+      validationExecutor.shutdownNow();
+    }
+  }
+
+  private TestResult findCachedResult(TestInst test, Map<TestInst, String> fingerprints) {
+    try {
+      String fingerprint = resultCache.fingerprint(test);
+      fingerprints.put(test, fingerprint);
+      ResultCache.Entry entry = resultCache.get(test.getName(), fingerprint);
+      if (entry == null) {
+        return null;
+      }
+      Files.walkFileTree(test.getResultDir(), new DeleteTreeVisitor());
+      TestResult result = new TestResult(test.getName(), test.getDescription(), entry.getDuration(), null);
+      result.setCached(true);
+      return result;
+    } catch (IOException e) {
+      LOGGER.log(Level.WARNING, "Not able to check result cache for test: " + test.getName(), e);
+      return null;
+    }
+  }
+
+  private void updateResultCache(List<TestInst> tests, List<TestResult> testResults,
+      Map<TestInst, String> fingerprints) {
+    for (int i = 0; i < tests.size(); i++) {
+      TestInst test = tests.get(i);
+      TestResult result = testResults.get(i);
+      String fingerprint = fingerprints.get(test);
+      if (result.isCached()) {
         continue;
       }
-      ProductContent expectation = test.getTestDef().getExpectation();
-      if (expectation == null) {
-        result.setException(new RuntimeException("No expectation found for test: " + testName));
+      if (fingerprint != null && result.getStatus().equals(Status.SUCCESS)) {
+        resultCache.put(test.getName(), fingerprint, result.getDuration());
       } else {
-        try {
-          Product testProduct = ProductIO.readProduct(test.getResultPath().toFile());
-          ProductValidator.testProduct(testProduct, expectation, result);
-          if (result.getStatus().equals(Status.SUCCESS) && config.isDeleteResultAfterSuccess()) {
-            Files.walkFileTree(test.getResultDir(), new DeleteTreeVisitor());
-          } else {
-            Files.walkFileTree(test.getResultDir(),
-                new CopyDirContentTreeVisitor(test.getResultDir(), resultProductDir));
-            result.setTargetPath(resultProductDir.resolve(test.getResultPath().getFileName()));
+        resultCache.remove(test.getName());
+      }
+    }
+    try {
+      resultCache.save();
+    } catch (IOException e) {
+      LOGGER.log(Level.WARNING, "Not able to write result cache", e);
+    }
+  }
+
+  private TestResult awaitTestResult(TestInst test, Future<TestResult> validation) {
+    try {
+      if (validation != null) {
+        return validation.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      LOGGER.log(Level.SEVERE, "Unexpected error while validating test: " + test.getName(), e.getCause());
+    }
+    TestResult result = new TestResult(test.getName(), test.getDescription(), test.getDuration(),
+        test.getResultPath());
+    result.setException(new Exception("Test has not been validated: " + test.getName()));
+    return result;
+  }
+
+  private TestResult createTestResult(TestInst test) {
+    String testName = test.getName();
+    TestResult result = new TestResult(testName, test.getDescription(), test.getDuration(), test.getResultPath());
+    result.setProcessOutcome(test.getExitCode(), test.getStdoutLog(), test.getStderrLog());
+    result.setThreadDump(test.getThreadDump());
+    result.setPerformanceSettings(test.getEffectivePerformanceSettings());
+
+    Throwable exception = test.getException();
+    if (exception != null) {
+      test.disposeInMemoryProducts();
+      result.setException(exception);
+      return result;
+    }
+    ProductContent expectation = test.getTestDef().getExpectation();
+    if (expectation == null) {
+      test.disposeInMemoryProducts();
+      result.setException(new RuntimeException("No expectation found for test: " + testName));
+    } else {
+      try {
+        if (test.getTargetProduct() != null) {
+          validateInMemoryProduct(test, expectation, result);
+        } else {
+          Product testProduct = ProductValidator.readProduct(test.getResultPath(), expectation);
+          try {
+            ProductValidator.testProduct(testProduct, expectation, test.getReferenceProductPath(), result);
+          } finally {
+            // release the file handles before the product is deleted or copied
+            testProduct.dispose();
           }
-        } catch (Exception e) {
-          result.setException(new Exception("Error executing test: " + testName, e));
         }
+        if (result.getStatus().equals(Status.SUCCESS) && config.isDeleteResultAfterSuccess()) {
+          Files.walkFileTree(test.getResultDir(), new DeleteTreeVisitor());
+        } else {
+          Files.walkFileTree(test.getResultDir(),
+              new CopyDirContentTreeVisitor(test.getResultDir(), resultProductDir));
+          result.setTargetPath(resultProductDir.resolve(test.getResultPath().getFileName()));
+        }
+      } catch (Exception e) {
+        result.setException(new Exception("Error executing test: " + testName, e));
       }
     }
-    return testResults;
+    return result;
+  }
+
+  // The processing of an in-memory product is triggered by the validation, hence its time is added to the duration
+  // and it runs under the same timeout as the GPT call. The product is only written if it needs to be kept.
+  private void validateInMemoryProduct(TestInst test, ProductContent expectation, TestResult result)
+      throws Exception {
+    ExecutorService execution = Executors.newSingleThreadExecutor(r -> {
+      Thread thread = new Thread(r, "davalien-in-memory-validation");
+      thread.setDaemon(true);
+      return thread;
+    });
+    Instant start = Instant.now();
+    try {
+      Future<?> future = execution.submit(() -> {
+        try (PerformanceSettings.Applied ignored = test.getPerformanceSettings().applyToCurrentJvm()) {
+          ProductValidator.testProduct(test.getTargetProduct(), expectation, test.getReferenceProductPath(),
+              result);
+        }
+        result.setDuration(test.getDuration() + secondsSince(start));
+        if (!result.getStatus().equals(Status.SUCCESS) || !config.isDeleteResultAfterSuccess()) {
+          ProductIO.writeProduct(test.getTargetProduct(), test.getResultPath().toFile(), test.getTargetFormat(),
+              false);
+        }
+        return null;
+      });
+      awaitInMemoryValidation(test, future, result, start);
+    } finally {
+      execution.shutdownNow();
+      test.disposeInMemoryProducts();
+    }
+  }
+
+  private void awaitInMemoryValidation(TestInst test, Future<?> future, TestResult result, Instant start)
+      throws Exception {
+    int timeout = getTimeoutSeconds(test);
+    try {
+      if (timeout > 0) {
+        // the GPT call has already used a part of the timeout
+        long remainingMillis = Math.max(1, timeout * 1000L - (long) (test.getDuration() * 1000));
+        future.get(remainingMillis, TimeUnit.MILLISECONDS);
+      } else {
+        future.get();
+      }
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof Exception) {
+        throw (Exception) e.getCause();
+      }
+      throw e;
+    } catch (TimeoutException e) {
+      result.setThreadDump(ThreadDumps.ofCurrentJvm());
+      future.cancel(true);
+      result.setDuration(test.getDuration() + secondsSince(start));
+      result.setException(new TestTimeoutException(
+          String.format("Test '%s' exceeded the timeout of %d seconds during the in-memory validation and was "
+              + "cancelled", test.getName(), timeout)));
+    }
+  }
+
+  private static float secondsSince(Instant start) {
+    return (Instant.now().toEpochMilli() - start.toEpochMilli()) / 1000f;
+  }
+
+  // the catalog only knows names and tags, the complete definitions are read for the selected tests only
+  private static List<TestDefinition> readTestDefinitions(List<TestDefinition> selectedTestDefs) throws IOException {
+    try {
+      return ConcurrencyUtils.computeAll(selectedTestDefs.size(), i -> {
+        try {
+          TestDefinition testDef = JsonHelper.readTestDefinition(selectedTestDefs.get(i).getDefinitionFile());
+          JsonHelper.loadExpectation(testDef);
+          return testDef;
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
   }
 
   private List<TestInst> createTests(List<TestDefinition> selectedTestDefs) throws Exception {
@@ -282,19 +548,37 @@ public class Davalien {
     return testList;
   }
 
-  private void runGptTests(List<TestInst> activeTests) {
-    CommandLineTool commandLineTool = new CommandLineTool();
-    activeTests.forEach(test -> {
-      try {
-        Instant start = Instant.now();
-        commandLineTool.run(test.getParamList().toArray(new String[0]));
-        Instant end = Instant.now();
-        test.setDuration((end.toEpochMilli() - start.toEpochMilli()) / 1000f);
-      } catch (Throwable t) {
-        test.setException(t);
-      }
-      System.gc();
-    });
+  private void runGptTests(List<TestInst> activeTests, Consumer<TestInst> onFinished) {
+    int maxParallelTests = Math.max(1, config.getMaxParallelTests());
+    new TestScheduler(maxParallelTests, createRunnerFactory(), this::getTimeoutSeconds).runAll(activeTests,
+        onFinished);
+  }
+
+  private int getTimeoutSeconds(TestInst test) {
+    Integer timeoutSeconds = test.getTestDef().getTimeoutSeconds();
+    return timeoutSeconds != null ? timeoutSeconds : config.getDefaultTimeoutSeconds();
+  }
+
+  private Supplier<GptRunner> createRunnerFactory() {
+    Path logDir = runResultsDir.resolve(LOGS_DIR);
+    switch (config.getExecutionMode()) {
+      case FORKED:
+        return () -> new ForkedJvmRunner(getGptExecutable(), config.getJvmOptions(), logDir);
+      case IN_MEMORY:
+        return InMemoryRunner::new;
+      case WORKER_POOL:
+        return () -> new WorkerPoolRunner(getGptExecutable(), config.getJvmOptions(), logDir,
+            Math.max(1, config.getWorkerMaxTests()), config.getWorkerMaxHeapUsage());
+      case IN_PROCESS:
+      default:
+        return InProcessRunner::new;
+    }
+  }
+
+  private Path getGptExecutable() {
+    return config.getGptExecutable() != null
+        ? envPath.resolve(config.getGptExecutable())
+        : ForkedJvmRunner.getDefaultGptExecutable();
   }
 
   static List<TestDefinition> filterTestDefinitions(List<TestDefinition> allTestDefinitions, List<String> testNames,
@@ -33,7 +33,6 @@ public class DavalienException extends Exception {
    *
    * @param message the message
    */
-  @SuppressWarnings("unused")
   public DavalienException(String message) {
     super(message);
   }
@@ -24,6 +24,7 @@
 package org.eomasters.davalien;
 
 import java.nio.file.Path;
+import java.util.List;
 
 /**
  * The configuration for the environment.
@@ -33,12 +34,46 @@ import java.nio.file.Path;
 @SuppressWarnings({"FieldCanBeLocal", "FieldMayBeFinal"})
 public class EnvConfig {
 
+  /**
+   * Defines how the GPT calls of the tests are executed.
+   */
+  public enum ExecutionMode {
+    /**
+     * The GPT calls are executed inside the JVM of DAVALIEN.
+     */
+    IN_PROCESS,
+    /**
+     * Each GPT call is executed in its own child process.
+     */
+    FORKED,
+    /**
+     * The GPT calls are executed by long-living worker processes, which are recycled after some tests.
+     */
+    WORKER_POOL,
+    /**
+     * The target product of an operator call is created inside the JVM of DAVALIEN and validated without writing it
+     * to disk. It is only written if it needs to be kept. Graph calls are executed like in {@link #IN_PROCESS}.
+     */
+    IN_MEMORY
+  }
+
   private static final String DEFAULT_FORMAT = "ZNAP";
 
   private int rollingResults = 2;
   private boolean deleteResultAfterSuccess = true;
   private boolean openReport = false;
   private String defaultTargetFormat = DEFAULT_FORMAT;
+  private int maxParallelTests = 1;
+  private ExecutionMode executionMode = ExecutionMode.IN_PROCESS;
+  private String gptExecutable;
+  private String[] jvmOptions;
+  private int workerMaxTests = 20;
+  private double workerMaxHeapUsage = 0.8;
+  private boolean incremental = false;
+  private int defaultTimeoutSeconds = 0;
+  private Integer parallelism;
+  private Integer tileCacheSizeMb;
+  private Integer tileSize;
 
   /**
    * Returns how many results should be kept. After the limit is reached, the oldest results will be deleted.
@@ -77,4 +112,115 @@ public class EnvConfig {
   public String getDefaultTargetFormat() {
     return defaultTargetFormat;
   }
+
+  /**
+   * Returns how many tests are executed at the same time. A value of {@code 1} runs the tests sequentially.
+   *
+   * @return the maximum number of parallel tests
+   */
+  public int getMaxParallelTests() {
+    return maxParallelTests;
+  }
+
+  /**
+   * Returns how the GPT calls of the tests are executed.
+   *
+   * @return the execution mode
+   */
+  public ExecutionMode getExecutionMode() {
+    return executionMode;
+  }
+
+  /**
+   * Returns the GPT executable used to launch the child processes in the {@link ExecutionMode#FORKED} and
+   * {@link ExecutionMode#WORKER_POOL} mode. If not
+   * defined, the GPT executable of the SNAP installation is used.
+   *
+   * @return the GPT executable or {@code null}
+   */
+  public String getGptExecutable() {
+    return gptExecutable;
+  }
+
+  /**
+   * Returns the JVM options (e.g. {@code -Xmx8G}) used for all child processes in the {@link ExecutionMode#FORKED}
+   * and {@link ExecutionMode#WORKER_POOL} mode. The options of a test definition are appended and take precedence.
+   *
+   * @return the JVM options
+   */
+  public List<String> getJvmOptions() {
+    return jvmOptions != null ? List.of(jvmOptions) : List.of();
+  }
+
+  /**
+   * Returns after how many tests a worker process is replaced by a new one in the {@link ExecutionMode#WORKER_POOL}
+   * mode.
+   *
+   * @return the maximum number of tests per worker
+   */
+  public int getWorkerMaxTests() {
+    return workerMaxTests;
+  }
+
+  /**
+   * Returns the fraction of the maximum heap (0..1) which, when exceeded after a test, causes a worker process to be
+   * replaced by a new one in the {@link ExecutionMode#WORKER_POOL} mode.
+   *
+   * @return the maximum heap usage of a worker
+   */
+  public double getWorkerMaxHeapUsage() {
+    return workerMaxHeapUsage;
+  }
+
+  /**
+   * Returns if tests are skipped when nothing has changed since their last successful execution. Such tests are
+   * reported as cached success.
+   *
+   * @return if the incremental mode is enabled
+   */
+  public boolean isIncremental() {
+    return incremental;
+  }
+
+  /**
+   * Returns the timeout in seconds for tests which don't define their own timeout. A value of {@code 0} means that
+   * tests don't time out.
+   *
+   * @return the default timeout in seconds
+   */
+  public int getDefaultTimeoutSeconds() {
+    return defaultTimeoutSeconds;
+  }
+
+  /**
+   * Returns the number of threads used for the computation of tiles by tests which don't define it. If not defined,
+   * the setting of the executing JVM is used. In the {@link ExecutionMode#IN_PROCESS} and
+   * {@link ExecutionMode#IN_MEMORY} modes the setting is global, so tests with different settings are not executed in
+   * parallel.
+   *
+   * @return the parallelism or {@code null}
+   */
+  public Integer getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * Returns the size of the JAI tile cache in megabytes used by tests which don't define it. If not defined, the
+   * setting of the executing JVM is used.
+   *
+   * @return the tile cache size or {@code null}
+   */
+  public Integer getTileCacheSizeMb() {
+    return tileCacheSizeMb;
+  }
+
+  /**
+   * Returns the default tile size of SNAP images used by tests which don't define it. If not defined, the setting of
+   * the executing JVM is used.
+   *
+   * @return the tile size or {@code null}
+   */
+  public Integer getTileSize() {
+    return tileSize;
+  }
 }
@@ -0,0 +1,141 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.esa.snap.core.util.SystemUtils;
+
+/**
+ * Runs the GPT call of a test in a child process, so that memory problems of one test cannot affect other tests.
+ *
+ * <p>The JVM options of the environment and of the test definition are passed to the GPT launcher with the
+ * {@code -J} prefix. The standard and error output of the process are written to log files.
+ */
+class ForkedJvmRunner implements GptRunner {
+
+  private static final int NUM_STDERR_LINES_IN_MESSAGE = 20;
+
+  private final Path gptExecutable;
+  private final List<String> jvmOptions;
+  private final Path logDir;
+  private volatile Process process;
+
+  /**
+   * Creates a new runner.
+   *
+   * @param gptExecutable the GPT executable to launch
+   * @param jvmOptions    the JVM options used for all tests
+   * @param logDir        the directory where the output logs are written to
+   */
+  ForkedJvmRunner(Path gptExecutable, List<String> jvmOptions, Path logDir) {
+    this.gptExecutable = gptExecutable;
+    this.jvmOptions = jvmOptions;
+    this.logDir = logDir;
+  }
+
+  /**
+   * Returns the GPT executable of the SNAP installation DAVALIEN is running in.
+   *
+   * @return the GPT executable
+   */
+  static Path getDefaultGptExecutable() {
+    String osName = System.getProperty("os.name", "").toLowerCase();
+    String gptName = osName.startsWith("windows") ? "gpt.exe" : "gpt";
+    return SystemUtils.getApplicationHomeDir().toPath().resolve("bin").resolve(gptName);
+  }
+
+  @Override
+  public void run(TestInst test) throws Exception {
+    List<String> command = createCommand(test);
+    Files.createDirectories(logDir);
+    Path stdoutLog = logDir.resolve(test.getName() + ".out.log");
+    Path stderrLog = logDir.resolve(test.getName() + ".err.log");
+    Process process = new ProcessBuilder(command)
+        .redirectOutput(stdoutLog.toFile())
+        .redirectError(stderrLog.toFile())
+        .start();
+    this.process = process;
+    int exitCode;
+    try {
+      exitCode = process.waitFor();
+    } catch (InterruptedException e) {
+      process.destroyForcibly();
+      throw e;
+    } finally {
+      this.process = null;
+    }
+    test.setExitCode(exitCode);
+    test.setLogs(stdoutLog, stderrLog);
+    if (exitCode != 0) {
+      throw new DavalienException(
+          String.format("GPT process exited with code %d. Last lines of %s:%n%s", exitCode, stderrLog,
+              readTail(stderrLog)));
+    }
+  }
+
+  @Override
+  public String threadDump() {
+    Process current = process;
+    return current != null ? ThreadDumps.ofProcess(current) : GptRunner.super.threadDump();
+  }
+
+  @Override
+  public void cancel() {
+    Process current = process;
+    if (current != null) {
+      current.destroyForcibly();
+    }
+  }
+
+  private List<String> createCommand(TestInst test) {
+    List<String> command = new ArrayList<>();
+    command.add(gptExecutable.toString());
+    // JVM options given last take precedence, so the options of the test override the environment options
+    for (String jvmOption : jvmOptions) {
+      command.add("-J" + jvmOption);
+    }
+    for (String jvmOption : test.getTestDef().getJvmOptions()) {
+      command.add("-J" + jvmOption);
+    }
+    test.getPerformanceSettings().getSystemProperties()
+        .forEach((key, value) -> command.add("-J-D" + key + "=" + value));
+    command.addAll(test.getParamList());
+    return command;
+  }
+
+  private static String readTail(Path file) {
+    try {
+      List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+      return String.join(System.lineSeparator(),
+          lines.subList(Math.max(0, lines.size() - NUM_STDERR_LINES_IN_MESSAGE), lines.size()));
+    } catch (IOException e) {
+      return "<not able to read log: " + e.getMessage() + ">";
+    }
+  }
+}
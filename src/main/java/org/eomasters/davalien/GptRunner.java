@@ -0,0 +1,65 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien;
+
+/**
+ * Executes the GPT call of a single {@link TestInst}.
+ *
+ * <p>A runner is used by one worker thread of the {@link TestScheduler} only, so implementations do not need to be
+ * thread-safe, but different runners are used concurrently.
+ */
+interface GptRunner extends AutoCloseable {
+
+  /**
+   * Runs the GPT call of the given test.
+   *
+   * @param test the test to run
+   * @throws Exception if the GPT call failed
+   */
+  void run(TestInst test) throws Exception;
+
+  /**
+   * Creates a thread dump of the JVM executing the currently running test. The default implementation dumps the
+   * threads of the current JVM.
+   *
+   * @return the thread dump
+   */
+  default String threadDump() {
+    return ThreadDumps.ofCurrentJvm();
+  }
+
+  /**
+   * Aborts the currently running test. Called from another thread than {@link #run(TestInst)}. The default
+   * implementation does nothing and relies on the interruption of the executing thread.
+   */
+  default void cancel() {
+  }
+
+  /**
+   * Releases the resources held by this runner. The default implementation does nothing.
+   */
+  @Override
+  default void close() {
+  }
+}
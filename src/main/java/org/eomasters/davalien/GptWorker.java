@@ -0,0 +1,133 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien;
+
+import com.bc.ceres.jai.operator.ReinterpretDescriptor;
+import com.google.gson.Gson;
+import java.io.BufferedReader;
+import java.io.FileOutputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import javax.media.jai.JAI;
+import org.esa.snap.core.gpf.main.CommandLineTool;
+import org.esa.snap.core.util.SystemUtils;
+
+/**
+ * The main class of a long-living worker process used in the {@link EnvConfig.ExecutionMode#WORKER_POOL} mode.
+ *
+ * <p>The worker initialises the SNAP runtime once and then reads requests from the standard input, one JSON object
+ * per line. After each GPT call a single response line, starting with {@link #RESPONSE_PREFIX}, is written
+ * to the standard output. Everything else the GPT call prints to the standard output is redirected to the file given
+ * by the system property {@value #OUTPUT_LOG_PROPERTY}, or to the error output if the property is not set. The worker
+ * terminates when the standard input is closed.
+ */
+public class GptWorker {
+
+  static final String RESPONSE_PREFIX = "DAVALIEN-WORKER:";
+  static final String OUTPUT_LOG_PROPERTY = "davalien.worker.outputLog";
+  private static final Gson GSON = new Gson();
+
+  /**
+   * The entry point of the worker process.
+   *
+   * @param args not used
+   * @throws Exception if reading from the standard input fails
+   */
+  public static void main(String[] args) throws Exception {
+    PrintStream responseStream = System.out;
+    String outputLog = System.getProperty(OUTPUT_LOG_PROPERTY);
+    if (outputLog != null) {
+      System.setOut(new PrintStream(new FileOutputStream(outputLog), true, StandardCharsets.UTF_8));
+    } else {
+      System.setOut(System.err);
+    }
+    Locale.setDefault(Locale.ENGLISH); // Force usage of english locale
+    // need to use a class from ceres-jai in order to get the defined JAI descriptors loaded
+    SystemUtils.init3rdPartyLibs(ReinterpretDescriptor.class);
+
+    CommandLineTool commandLineTool = new CommandLineTool();
+    BufferedReader requestReader = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+    String request;
+    while ((request = requestReader.readLine()) != null) {
+      if (request.isBlank()) {
+        continue;
+      }
+      Response response = new Response();
+      try {
+        Request parsedRequest = GSON.fromJson(request, Request.class);
+        PerformanceSettings settings = new PerformanceSettings(null, null, parsedRequest.tileSize);
+        try (PerformanceSettings.Applied ignored = settings.applyToCurrentJvm()) {
+          commandLineTool.run(parsedRequest.params);
+          response.settings = PerformanceSettings.ofCurrentJvm();
+        }
+        response.success = true;
+      } catch (Throwable t) {
+        t.printStackTrace(System.err);
+        response.error = t.toString();
+      }
+      // the tile cache and heap of one test shall not influence the next test
+      JAI.getDefaultInstance().getTileCache().flush();
+      System.gc();
+      Runtime runtime = Runtime.getRuntime();
+      response.usedHeap = runtime.totalMemory() - runtime.freeMemory();
+      response.maxHeap = runtime.maxMemory();
+      responseStream.println(RESPONSE_PREFIX + GSON.toJson(response));
+      responseStream.flush();
+    }
+  }
+
+  static Response parseResponse(String line) {
+    return GSON.fromJson(line.substring(RESPONSE_PREFIX.length()), Response.class);
+  }
+
+  static String createRequest(String[] params, Integer tileSize) {
+    Request request = new Request();
+    request.params = params;
+    request.tileSize = tileSize;
+    return GSON.toJson(request);
+  }
+
+  /**
+   * The request to execute a GPT call. The parallelism and tile cache size are part of the GPT parameters.
+   */
+  static class Request {
+
+    String[] params;
+    Integer tileSize;
+  }
+
+  /**
+   * The response of the worker after a GPT call.
+   */
+  static class Response {
+
+    boolean success;
+    String error;
+    long usedHeap;
+    long maxHeap;
+    PerformanceSettings settings;
+  }
+}
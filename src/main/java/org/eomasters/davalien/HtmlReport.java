@@ -50,6 +50,7 @@ public class HtmlReport {
   private static final String ERROR_ITEM_TEMPLATE;
   private static final String NO_PROBLEM_ROW_TEMPLATE;
   private static final String DESCRIPTION_ELEM_TEMPLATE;
+  private static final String THREAD_DUMP_TEMPLATE;
 
   static {
     try {
@@ -93,6 +94,10 @@ public class HtmlReport {
         assert resource != null;
         DESCRIPTION_ELEM_TEMPLATE = new String(resource.readAllBytes(), StandardCharsets.UTF_8);
       }
+      try (InputStream resource = HtmlReport.class.getResourceAsStream("templates/ThreadDump.template")) {
+        assert resource != null;
+        THREAD_DUMP_TEMPLATE = new String(resource.readAllBytes(), StandardCharsets.UTF_8);
+      }
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
@@ -132,13 +137,14 @@ public class HtmlReport {
       variables.put("TestNumber", String.valueOf(i + 1));
       variables.put("TestName", testResult.getTestName());
       variables.put("TestStatus", String.valueOf(testResult.getStatus()));
+      variables.put("CachedInfo", testResult.isCached() ? " (cached)" : "");
       variables.put("TestTime",
           Float.isNaN(testResult.getDuration()) ? "N/A" : String.valueOf(testResult.getDuration()));
       ensureVariableValuesAreHtmlConform(variables);
       variables.put("TestDescription", createDescriptionElement(testResult.getDescription()));
       variables.put("TargetPathRow", createTargetPathRow(testResult.getTargetPath()));
       if (testResult.getException() != null) {
-        variables.put("ProblemRow", createExceptionRow(testResult.getException()));
+        variables.put("ProblemRow", createExceptionRow(testResult.getException(), testResult.getThreadDump()));
       } else if (testResult.getErrors() != null && !testResult.getErrors().isEmpty()) {
         variables.put("ProblemRow", createErrorRow(testResult.getErrors()));
       } else {
@@ -205,7 +211,7 @@ public class HtmlReport {
     return expandVariables(ERROR_ITEM_TEMPLATE, variables);
   }
 
-  private static String createExceptionRow(Throwable throwable) {
+  private static String createExceptionRow(Throwable throwable, String threadDump) {
     HashMap<String, String> variables = new HashMap<>();
     variables.put("ExceptionMessage", throwable.getMessage());
     StringWriter traceWriter = new StringWriter();
@@ -213,9 +219,20 @@ public class HtmlReport {
     variables.put("StackTrace", traceWriter.toString());
     ensureVariableValuesAreHtmlConform(variables);
     variables.put("Cause", createExceptionItem(throwable.getCause()));
+    variables.put("ThreadDump", createThreadDumpItem(threadDump));
     return expandVariables(EXCEPTION_ROW_TEMPLATE, variables);
   }
 
+  private static String createThreadDumpItem(String threadDump) {
+    if (threadDump == null) {
+      return "";
+    }
+    HashMap<String, String> variables = new HashMap<>();
+    variables.put("ThreadDump", threadDump);
+    ensureVariableValuesAreHtmlConform(variables);
+    return expandVariables(THREAD_DUMP_TEMPLATE, variables);
+  }
+
   private static String createExceptionItem(Throwable throwable) {
     if (throwable == null) {
       return "";
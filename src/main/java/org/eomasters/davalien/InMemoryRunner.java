@@ -0,0 +1,123 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien;
+
+import com.bc.ceres.binding.Property;
+import com.bc.ceres.binding.PropertyContainer;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.esa.snap.core.dataio.ProductIO;
+import org.esa.snap.core.datamodel.Product;
+import org.esa.snap.core.gpf.GPF;
+import org.esa.snap.core.gpf.OperatorSpi;
+import org.esa.snap.core.gpf.annotations.ParameterDescriptorFactory;
+import org.esa.snap.core.gpf.main.CommandLineArgs;
+
+/**
+ * Creates the target product of an operator call through the GPF API instead of writing it to disk. The product is
+ * attached to the {@link TestInst} and validated directly; it is only written if it needs to be retained.
+ *
+ * <p>Graph calls and calls using a parameter file are not supported in memory; these are executed by an
+ * {@link InProcessRunner}.
+ */
+class InMemoryRunner implements GptRunner {
+
+  private final InProcessRunner fileBasedRunner = new InProcessRunner();
+  private volatile PerformanceSettings.Applied applied;
+
+  @Override
+  public void run(TestInst test) throws Exception {
+    CommandLineArgs args = CommandLineArgs.parseArgs(test.getParamList().toArray(new String[0]));
+    OperatorSpi operatorSpi = args.getOperatorName() != null
+        ? GPF.getDefaultInstance().getOperatorSpiRegistry().getOperatorSpi(args.getOperatorName())
+        : null;
+    if (operatorSpi == null || args.getGraphFilePath() != null || args.getParameterFilePath() != null) {
+      fileBasedRunner.run(test);
+      return;
+    }
+
+    List<Product> sourceProducts = new ArrayList<>();
+    try {
+      Map<String, Product> sourceProductMap = readSourceProducts(args.getSourceFilePathMap(), sourceProducts);
+      Map<String, Object> parameters = convertParameters(operatorSpi, args.getParameterMap(), sourceProductMap);
+      Product targetProduct;
+      try (PerformanceSettings.Applied current = test.getPerformanceSettings().applyToCurrentJvm()) {
+        applied = current;
+        targetProduct = GPF.createProduct(args.getOperatorName(), parameters, sourceProductMap);
+        test.setEffectivePerformanceSettings(PerformanceSettings.ofCurrentJvm());
+      } finally {
+        applied = null;
+      }
+      test.setInMemoryProducts(targetProduct, sourceProducts);
+    } catch (Exception e) {
+      sourceProducts.forEach(Product::dispose);
+      throw e;
+    }
+  }
+
+  // the GPF call can't be stopped, so at least the performance settings are released for the following tests
+  @Override
+  public void cancel() {
+    fileBasedRunner.cancel();
+    PerformanceSettings.Applied current = applied;
+    if (current != null) {
+      current.close();
+    }
+  }
+
+  private static Map<String, Product> readSourceProducts(Map<String, String> sourceFilePathMap,
+      List<Product> sourceProducts) throws IOException {
+    Map<String, Product> sourceProductMap = new HashMap<>();
+    for (Map.Entry<String, String> entry : sourceFilePathMap.entrySet()) {
+      Product product = ProductIO.readProduct(new File(entry.getValue()));
+      if (product == null) {
+        throw new IOException("No reader found for source product: " + entry.getValue());
+      }
+      sourceProducts.add(product);
+      sourceProductMap.put(entry.getKey(), product);
+    }
+    return sourceProductMap;
+  }
+
+  // converts the textual parameter values of the command line into the types expected by the operator
+  private static Map<String, Object> convertParameters(OperatorSpi operatorSpi, Map<String, String> parameterMap,
+      Map<String, Product> sourceProductMap) throws Exception {
+    Map<String, Object> parameters = new HashMap<>();
+    PropertyContainer container = PropertyContainer.createMapBacked(parameters, operatorSpi.getOperatorClass(),
+        new ParameterDescriptorFactory(sourceProductMap));
+    for (Map.Entry<String, String> entry : parameterMap.entrySet()) {
+      Property property = container.getProperty(entry.getKey());
+      if (property == null) {
+        throw new DavalienException(String.format("Unknown parameter '%s' for operator '%s'", entry.getKey(),
+            operatorSpi.getOperatorAlias()));
+      }
+      property.setValueFromText(entry.getValue());
+    }
+    return parameters;
+  }
+}
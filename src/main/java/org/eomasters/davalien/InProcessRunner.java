@@ -0,0 +1,80 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien;
+
+import org.esa.snap.core.gpf.main.CommandLineTool;
+
+/**
+ * Runs the GPT call inside the current JVM. Each runner owns its own {@link CommandLineTool}. The performance settings
+ * of the test are applied before and the previous settings are restored after the GPT call.
+ *
+ * <p>A cancelled GPT call can't be stopped and might never return. Therefore, {@link #cancel()} releases the
+ * performance settings of the running test, otherwise tests with other settings would wait forever.
+ */
+class InProcessRunner implements GptRunner {
+
+  private final GptCall gptCall;
+  private volatile PerformanceSettings.Applied applied;
+
+  InProcessRunner() {
+    this(new CommandLineTool()::run);
+  }
+
+  InProcessRunner(GptCall gptCall) {
+    this.gptCall = gptCall;
+  }
+
+  @Override
+  public void run(TestInst test) throws Exception {
+    try (PerformanceSettings.Applied current = test.getPerformanceSettings().applyToCurrentJvm()) {
+      applied = current;
+      gptCall.run(test.getParamList().toArray(new String[0]));
+      test.setEffectivePerformanceSettings(PerformanceSettings.ofCurrentJvm());
+    } finally {
+      applied = null;
+    }
+  }
+
+  @Override
+  public void cancel() {
+    PerformanceSettings.Applied current = applied;
+    if (current != null) {
+      current.close();
+    }
+  }
+
+  /**
+   * Executes the GPT call with the given arguments.
+   */
+  interface GptCall {
+
+    /**
+     * Runs the GPT call.
+     *
+     * @param args the arguments of the GPT call
+     * @throws Exception if the GPT call failed
+     */
+    void run(String... args) throws Exception;
+  }
+}
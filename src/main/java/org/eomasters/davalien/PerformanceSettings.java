@@ -0,0 +1,275 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import javax.media.jai.JAI;
+import org.eomasters.davalien.res.testdef.TestDefinition;
+
+/**
+ * The SNAP performance settings used for a test: the parallelism of the tile scheduler, the size of the JAI tile
+ * cache and the default tile size. A value of {@code null} means that the setting of the executing JVM is used.
+ */
+public class PerformanceSettings {
+
+  /**
+   * The system property defining the default tile size of SNAP images.
+   */
+  public static final String TILE_SIZE_PROPERTY = "snap.jai.defaultTileSize";
+  private static final long MEGABYTE = 1024L * 1024L;
+  private static final Object LOCK = new Object();
+  // guarded by LOCK: the requests waiting to be admitted, in their order
+  private static final Deque<Object> WAITING = new ArrayDeque<>();
+  // guarded by LOCK: the settings applied to this JVM, the number of tests using them and the state before
+  private static PerformanceSettings appliedSettings;
+  private static int numApplied;
+  private static JvmState previousState;
+
+  private final Integer parallelism;
+  private final Integer tileCacheSizeMb;
+  private final Integer tileSize;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param parallelism     the parallelism or {@code null}
+   * @param tileCacheSizeMb the tile cache size in megabytes or {@code null}
+   * @param tileSize        the default tile size or {@code null}
+   */
+  public PerformanceSettings(Integer parallelism, Integer tileCacheSizeMb, Integer tileSize) {
+    this.parallelism = parallelism;
+    this.tileCacheSizeMb = tileCacheSizeMb;
+    this.tileSize = tileSize;
+  }
+
+  /**
+   * Get the number of threads used by the tile scheduler.
+   *
+   * @return the parallelism or {@code null}
+   */
+  public Integer getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * Get the size of the JAI tile cache in megabytes.
+   *
+   * @return the tile cache size or {@code null}
+   */
+  public Integer getTileCacheSizeMb() {
+    return tileCacheSizeMb;
+  }
+
+  /**
+   * Get the default tile size of SNAP images.
+   *
+   * @return the tile size or {@code null}
+   */
+  public Integer getTileSize() {
+    return tileSize;
+  }
+
+  /**
+   * Resolves the settings of a test. The values of the test definition take precedence over those of the
+   * environment.
+   *
+   * @param testDef the test definition
+   * @param config  the environment configuration
+   * @return the resolved settings
+   */
+  static PerformanceSettings resolve(TestDefinition testDef, EnvConfig config) {
+    return new PerformanceSettings(
+        testDef.getParallelism() != null ? testDef.getParallelism() : config.getParallelism(),
+        testDef.getTileCacheSizeMb() != null ? testDef.getTileCacheSizeMb() : config.getTileCacheSizeMb(),
+        testDef.getTileSize() != null ? testDef.getTileSize() : config.getTileSize());
+  }
+
+  /**
+   * Returns the settings currently used by this JVM.
+   *
+   * @return the current settings
+   */
+  static PerformanceSettings ofCurrentJvm() {
+    JAI jai = JAI.getDefaultInstance();
+    int tileCacheSizeMb = (int) (jai.getTileCache().getMemoryCapacity() / MEGABYTE);
+    return new PerformanceSettings(jai.getTileScheduler().getParallelism(), tileCacheSizeMb,
+        Integer.getInteger(TILE_SIZE_PROPERTY));
+  }
+
+  /**
+   * Adds the GPT options for the parallelism ({@code -q}) and the tile cache size ({@code -c}) to the parameter
+   * list, unless the GPT call already defines them.
+   *
+   * @param paramList the parameter list of a GPT call
+   */
+  void addToParamList(List<String> paramList) {
+    if (tileCacheSizeMb != null && !paramList.contains("-c")) {
+      paramList.add(1, "-c");
+      paramList.add(2, tileCacheSizeMb + "M");
+    }
+    if (parallelism != null && !paramList.contains("-q")) {
+      paramList.add(1, "-q");
+      paramList.add(2, String.valueOf(parallelism));
+    }
+  }
+
+  /**
+   * Returns the system properties which need to be set for the settings.
+   *
+   * @return the system properties
+   */
+  Map<String, String> getSystemProperties() {
+    return tileSize != null ? Map.of(TILE_SIZE_PROPERTY, String.valueOf(tileSize)) : Map.of();
+  }
+
+  /**
+   * Applies the settings to the current JVM. The previous values are restored when the returned object is closed.
+   *
+   * <p>The settings are global to the JVM. Tests executed in parallel in the same JVM can only share them if they use
+   * equal settings. Otherwise, this method waits until all tests using other settings have closed their
+   * {@link Applied} object, so that no test changes or restores the settings of another one. Requests are admitted in
+   * their order. While a request waits for other settings to be released, later requests wait too, even if they use
+   * the currently applied settings, so a waiting test can't be starved.
+   *
+   * @return restores the previous settings when closed
+   * @throws InterruptedException if interrupted while waiting for other settings to be released
+   */
+  Applied applyToCurrentJvm() throws InterruptedException {
+    Object ticket = new Object();
+    synchronized (LOCK) {
+      WAITING.addLast(ticket);
+      try {
+        while (WAITING.peekFirst() != ticket || numApplied > 0 && !equals(appliedSettings)) {
+          LOCK.wait();
+        }
+      } finally {
+        WAITING.remove(ticket);
+        // the next request might be admitted now
+        LOCK.notifyAll();
+      }
+      if (numApplied == 0) {
+        previousState = captureJvmState();
+        apply();
+        appliedSettings = this;
+      }
+      numApplied++;
+    }
+    return new Applied();
+  }
+
+  private void apply() {
+    JAI jai = JAI.getDefaultInstance();
+    if (parallelism != null) {
+      jai.getTileScheduler().setParallelism(parallelism);
+    }
+    if (tileCacheSizeMb != null) {
+      jai.getTileCache().setMemoryCapacity(tileCacheSizeMb * MEGABYTE);
+    }
+    if (tileSize != null) {
+      System.setProperty(TILE_SIZE_PROPERTY, String.valueOf(tileSize));
+    }
+  }
+
+  private static JvmState captureJvmState() {
+    JAI jai = JAI.getDefaultInstance();
+    return new JvmState(jai.getTileScheduler().getParallelism(), jai.getTileCache().getMemoryCapacity(),
+        System.getProperty(TILE_SIZE_PROPERTY));
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    PerformanceSettings that = (PerformanceSettings) o;
+    return Objects.equals(parallelism, that.parallelism) && Objects.equals(tileCacheSizeMb, that.tileCacheSizeMb)
+        && Objects.equals(tileSize, that.tileSize);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(parallelism, tileCacheSizeMb, tileSize);
+  }
+
+  /**
+   * The settings applied to the current JVM. Closing it releases the settings, the previous settings are restored
+   * when the last test using them has closed its object. It can be closed by another thread than the one which
+   * applied the settings, e.g. when a hanging test is abandoned. Closing it more than once has no effect.
+   */
+  static class Applied implements AutoCloseable {
+
+    private boolean closed;
+
+    private Applied() {
+    }
+
+    @Override
+    public void close() {
+      synchronized (LOCK) {
+        if (closed) {
+          return;
+        }
+        closed = true;
+        numApplied--;
+        if (numApplied == 0) {
+          previousState.restore();
+          previousState = null;
+          appliedSettings = null;
+          LOCK.notifyAll();
+        }
+      }
+    }
+  }
+
+  // the state of the JVM before the first settings were applied
+  private static class JvmState {
+
+    private final int parallelism;
+    private final long tileCacheCapacity;
+    private final String tileSize;
+
+    JvmState(int parallelism, long tileCacheCapacity, String tileSize) {
+      this.parallelism = parallelism;
+      this.tileCacheCapacity = tileCacheCapacity;
+      this.tileSize = tileSize;
+    }
+
+    void restore() {
+      JAI.getDefaultInstance().getTileScheduler().setParallelism(parallelism);
+      JAI.getDefaultInstance().getTileCache().setMemoryCapacity(tileCacheCapacity);
+      if (tileSize != null) {
+        System.setProperty(TILE_SIZE_PROPERTY, tileSize);
+      } else {
+        System.clearProperty(TILE_SIZE_PROPERTY);
+      }
+    }
+  }
+}
@@ -25,23 +25,52 @@ package org.eomasters.davalien;
 
 import static org.eomasters.davalien.asserts.ProductAssertions.assertThat;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.eomasters.davalien.asserts.AssertionErrors;
 import org.eomasters.davalien.asserts.ProductAssert;
+import org.eomasters.davalien.res.testdef.Coding;
+import org.eomasters.davalien.res.testdef.Metadata;
+import org.eomasters.davalien.res.testdef.MetadataTree;
 import org.eomasters.davalien.res.testdef.ProductContent;
+import org.eomasters.davalien.res.testdef.Raster;
+import org.eomasters.davalien.res.testdef.ReferenceProduct;
+import org.eomasters.davalien.res.testdef.Vector;
+import org.eomasters.davalien.utils.MetadataUtils.MetadataWrapper;
+import org.esa.snap.core.dataio.ProductIO;
+import org.esa.snap.core.dataio.ProductReader;
+import org.esa.snap.core.dataio.ProductSubsetDef;
+import org.esa.snap.core.datamodel.Mask;
 import org.esa.snap.core.datamodel.Product;
+import org.esa.snap.core.datamodel.RasterDataNode;
+import org.esa.snap.core.datamodel.VirtualBand;
 
 /**
  * Utility class for validating a {@link Product}.
  */
 class ProductValidator {
 
+  private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][\\w.]*");
+  private static final Pattern ELEMENT_INDEX = Pattern.compile("\\[\\d+]$");
+
   /**
    * Validates a {@link Product} against a {@link ProductContent}.
    *
-   * @param testProduct     the {@link Product} to validate
-   * @param expectedContent the {@link ProductContent} to validate against
-   * @param testResult      the {@link TestResult} to add errors to
+   * @param testProduct          the {@link Product} to validate
+   * @param expectedContent      the {@link ProductContent} to validate against
+   * @param referenceProductPath the path of the reference product of the content, may be {@code null}
+   * @param testResult           the {@link TestResult} to add errors to
+   * @throws IOException if the reference product can't be read
    */
-  static void testProduct(Product testProduct, ProductContent expectedContent, TestResult testResult) {
+  static void testProduct(Product testProduct, ProductContent expectedContent, Path referenceProductPath,
+      TestResult testResult) throws IOException {
     ProductAssert productAssert = assertThat(testProduct);
     runValidation(() -> productAssert.hasName(expectedContent.getName()), testResult);
     runValidation(() -> productAssert.hasProductType(expectedContent.getProductType()), testResult);
@@ -51,14 +80,190 @@ class ProductValidator {
     runValidation(() -> productAssert.hasEndTime(expectedContent.getEndTime()), testResult);
     runValidation(() -> productAssert.hasSampleCodings(expectedContent.getSampleCodings()), testResult);
     runValidation(() -> productAssert.hasGeoLocations(expectedContent.getGeoLocations()), testResult);
-    runValidation(() -> productAssert.hasRasters(expectedContent.getRasters()), testResult);
+    runValidation(() -> productAssert.hasGeoGrid(expectedContent.getGeoGrid()), testResult);
+    runValidation(() -> productAssert.hasRasters(expectedContent.getRasters(),
+        expectedContent.getStatistics()), testResult);
     runValidation(() -> productAssert.hasVectors(expectedContent.getVectors()), testResult);
     runValidation(() -> productAssert.hasMetadata(expectedContent.getMetadata()), testResult);
+    runValidation(() -> productAssert.hasMetadataTree(expectedContent.getMetadataTree()), testResult);
+    ReferenceProduct referenceProduct = expectedContent.getReferenceProduct();
+    if (referenceProduct != null) {
+      Product reference = ProductIO.readProduct(referenceProductPath.toFile());
+      if (reference == null) {
+        throw new IOException("No reader found for reference product: " + referenceProductPath);
+      }
+      try {
+        runValidation(() -> productAssert.matchesReferenceProduct(reference, referenceProduct), testResult);
+      } finally {
+        reference.dispose();
+      }
+    }
+  }
+
+  /**
+   * Reads the product to validate. If possible, only the rasters, vectors and metadata elements referenced by the
+   * expected content are read, including the rasters their valid-pixel expressions refer to. If the subset turns out
+   * to be incomplete, e.g. an expression of a read raster or the geocoding refers to a raster which is not part of it,
+   * or an expected sample coding or metadata element is missing, the whole product is read.
+   *
+   * @param productPath     the path of the product
+   * @param expectedContent the {@link ProductContent} the product is validated against
+   * @return the product
+   * @throws IOException if the product can't be read
+   */
+  static Product readProduct(Path productPath, ProductContent expectedContent) throws IOException {
+    File file = productPath.toFile();
+    ProductSubsetDef subsetDef = createSubsetDef(expectedContent);
+    if (subsetDef != null) {
+      ProductReader reader = ProductIO.getProductReaderForInput(file);
+      if (reader != null) {
+        Product product = reader.readProductNodes(file, subsetDef);
+        if (isSubsetComplete(product, expectedContent)) {
+          return product;
+        }
+        product.dispose();
+        Davalien.LOGGER.fine("Subset of product is incomplete, reading whole product: " + productPath);
+      }
+    }
+    Product product = ProductIO.readProduct(file);
+    if (product == null) {
+      throw new IOException("No reader found for product: " + productPath);
+    }
+    return product;
+  }
+
+  // returns null if the whole product is needed
+  static ProductSubsetDef createSubsetDef(ProductContent expectedContent) {
+    ReferenceProduct referenceProduct = expectedContent.getReferenceProduct();
+    if (referenceProduct != null && referenceProduct.getBands().isEmpty()) {
+      return null;
+    }
+    Set<String> metadataElementNames = getMetadataElementNames(expectedContent);
+    if (metadataElementNames == null) {
+      return null;
+    }
+    Set<String> nodeNames = new LinkedHashSet<>(metadataElementNames);
+    if (referenceProduct != null) {
+      nodeNames.addAll(referenceProduct.getBands());
+    }
+    if (expectedContent.getRasters() != null) {
+      for (Raster raster : expectedContent.getRasters()) {
+        nodeNames.add(raster.getName());
+        if (raster.getValidPixelExpression() != null) {
+          // names which are not nodes of the product are ignored by the reader
+          Matcher matcher = IDENTIFIER.matcher(raster.getValidPixelExpression());
+          while (matcher.find()) {
+            // either a name containing a dot or a flag of a band, e.g. flags.CLOUD
+            String identifier = matcher.group();
+            nodeNames.add(identifier);
+            int dotIndex = identifier.indexOf('.');
+            if (dotIndex > 0) {
+              nodeNames.add(identifier.substring(0, dotIndex));
+            }
+          }
+        }
+      }
+    }
+    if (expectedContent.getVectors() != null) {
+      for (Vector vector : expectedContent.getVectors()) {
+        nodeNames.add(vector.getName());
+      }
+    }
+    ProductSubsetDef subsetDef = new ProductSubsetDef();
+    subsetDef.addNodeNames(nodeNames.toArray(new String[0]));
+    subsetDef.setIgnoreMetadata(expectedContent.getMetadata() == null && expectedContent.getMetadataTree() == null);
+    return subsetDef;
+  }
+
+  // the names of the top-level elements containing the expected metadata, null if the whole metadata is needed
+  static Set<String> getMetadataElementNames(ProductContent expectedContent) {
+    Set<String> names = new LinkedHashSet<>();
+    if (expectedContent.getMetadata() != null) {
+      for (Metadata metadata : expectedContent.getMetadata()) {
+        String[] tokens = metadata.getPath().split("/");
+        // attributes of the root are not part of an element
+        if (tokens.length < 2 || !addElementName(names, tokens[0])) {
+          return null;
+        }
+      }
+    }
+    MetadataTree metadataTree = expectedContent.getMetadataTree();
+    if (metadataTree != null) {
+      String path = metadataTree.getPath();
+      if (path == null || path.isEmpty() || !addElementName(names, path.split("/")[0])) {
+        return null;
+      }
+    }
+    return names;
+  }
+
+  private static boolean addElementName(Set<String> names, String token) {
+    if (MetadataWrapper.isPattern(token)) {
+      return false;
+    }
+    names.add(ELEMENT_INDEX.matcher(token).replaceFirst(""));
+    return true;
+  }
+
+  static boolean isSubsetComplete(Product product, ProductContent expectedContent) {
+    if (product == null) {
+      return false;
+    }
+    for (RasterDataNode raster : product.getRasterDataNodes()) {
+      for (String expression : getExpressions(raster)) {
+        if (expression != null && !expression.isBlank() && !product.isCompatibleBandArithmeticExpression(expression)) {
+          return false;
+        }
+      }
+    }
+    if (expectedContent.getSampleCodings() != null) {
+      for (Coding coding : expectedContent.getSampleCodings()) {
+        if (!product.getFlagCodingGroup().contains(coding.getName())
+            && !product.getIndexCodingGroup().contains(coding.getName())) {
+          return false;
+        }
+      }
+    }
+    Set<String> metadataElementNames = getMetadataElementNames(expectedContent);
+    if (metadataElementNames != null) {
+      for (String name : metadataElementNames) {
+        if (product.getMetadataRoot().getElement(name) == null) {
+          return false;
+        }
+      }
+    }
+    boolean geoCodingExpected = expectedContent.getGeoLocations() != null || expectedContent.getGeoGrid() != null;
+    if (geoCodingExpected && product.getSceneGeoCoding() == null) {
+      return false;
+    }
+    if (expectedContent.getRasters() != null) {
+      for (Raster expRaster : expectedContent.getRasters()) {
+        RasterDataNode raster = product.getRasterDataNode(expRaster.getName());
+        boolean rasterGeoCodingExpected = expRaster.getGeoLocations() != null || expRaster.getGeoGrid() != null;
+        if (raster != null && rasterGeoCodingExpected && raster.getGeoCoding() == null) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private static List<String> getExpressions(RasterDataNode raster) {
+    List<String> expressions = new ArrayList<>();
+    expressions.add(raster.getValidPixelExpression());
+    if (raster instanceof VirtualBand) {
+      expressions.add(((VirtualBand) raster).getExpression());
+    } else if (raster instanceof Mask && ((Mask) raster).getImageType() instanceof Mask.BandMathsType) {
+      expressions.add(Mask.BandMathsType.getExpression((Mask) raster));
+    }
+    return expressions;
   }
 
   private static void runValidation(InnerTest test, TestResult testResult) {
     try {
       test.run();
+    } catch (AssertionErrors e) {
+      e.getErrors().forEach(testResult::addError);
     } catch (AssertionError e) {
       testResult.addError(e);
     }
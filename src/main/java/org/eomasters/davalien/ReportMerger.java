@@ -0,0 +1,88 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.eomasters.davalien.res.JsonHelper;
+
+/**
+ * Merges the reports of several shards into one report.
+ */
+class ReportMerger {
+
+  private ReportMerger() {
+  }
+
+  /**
+   * Reads the given JSON reports, merges them and writes the merged JSON and HTML report into the target directory.
+   * If a test is contained in more than one report, the result of the newest report is used.
+   *
+   * @param targetDir   the directory to write the merged report to
+   * @param reportFiles the JSON report files to merge
+   * @return the merged report
+   * @throws IOException if a report can't be read or the merged report can't be written
+   */
+  static TestReport merge(Path targetDir, List<Path> reportFiles) throws IOException {
+    if (reportFiles.isEmpty()) {
+      throw new IOException("No reports given to merge");
+    }
+    List<TestReport> reports = new ArrayList<>();
+    for (Path reportFile : reportFiles) {
+      try {
+        reports.add((TestReport) JsonHelper.fromJson(Files.readString(reportFile), TestReport.class));
+      } catch (Exception e) {
+        throw new IOException("Not able to read report: " + reportFile, e);
+      }
+    }
+    TestReport merged = merge(reports);
+    Files.createDirectories(targetDir);
+    Davalien.writeReportFiles(merged, targetDir);
+    return merged;
+  }
+
+  static TestReport merge(List<TestReport> reports) {
+    List<TestReport> oldestFirst = new ArrayList<>(reports);
+    oldestFirst.sort(Comparator.comparing(TestReport::getCreationTime));
+    Map<String, TestResult> results = new TreeMap<>();
+    int numTestsExecuted = 0;
+    for (TestReport report : oldestFirst) {
+      for (TestResult testResult : report.getTestResults()) {
+        results.put(testResult.getTestName(), testResult);
+      }
+      numTestsExecuted = Math.max(numTestsExecuted, report.getNumTestsExecuted());
+    }
+    TestReport newest = oldestFirst.get(oldestFirst.size() - 1);
+    LocalDateTime creationTime = newest.getCreationTime();
+    return new TestReport(new ArrayList<>(results.values()), newest.getEnvPath(), creationTime,
+        newest.getTestNames(), newest.getTags(), numTestsExecuted);
+  }
+}
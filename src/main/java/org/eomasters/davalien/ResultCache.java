@@ -0,0 +1,266 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.eomasters.davalien.res.JsonHelper;
+import org.esa.snap.core.gpf.GPF;
+import org.esa.snap.core.gpf.OperatorSpi;
+import org.esa.snap.core.util.SystemUtils;
+
+/**
+ * Remembers the fingerprints of the tests which succeeded in a previous run. A test whose fingerprint has not changed
+ * since then doesn't need to be executed again.
+ *
+ * <p>The fingerprint covers the GPT call, the referenced resources, the versions of SNAP and of the installed
+ * operators and the test definition including the expectation. Resource files up to 16 MB are hashed by content,
+ * larger files only by size and modification time.
+ */
+class ResultCache {
+
+  private static final long MAX_HASHED_FILE_SIZE = 16 * 1024 * 1024;
+
+  private final Path cacheFile;
+  private final Map<String, Entry> entries;
+  private final Map<Path, String> resourceDigests = new ConcurrentHashMap<>();
+  private String environmentDigest;
+
+  private ResultCache(Path cacheFile, Map<String, Entry> entries) {
+    this.cacheFile = cacheFile;
+    this.entries = new ConcurrentHashMap<>(entries);
+  }
+
+  /**
+   * Loads the cache from the given file. If the file does not exist, the cache is empty.
+   *
+   * @param cacheFile the cache file
+   * @return the result cache
+   * @throws IOException if the file can't be read
+   */
+  static ResultCache load(Path cacheFile) throws IOException {
+    Content content = null;
+    if (Files.exists(cacheFile)) {
+      content = (Content) JsonHelper.fromJson(Files.readString(cacheFile), Content.class);
+    }
+    return new ResultCache(cacheFile, content != null && content.entries != null ? content.entries : Map.of());
+  }
+
+  /**
+   * Writes the cache to its file.
+   *
+   * @throws IOException if the file can't be written
+   */
+  void save() throws IOException {
+    Content content = new Content();
+    content.entries = new TreeMap<>(entries);
+    Files.createDirectories(cacheFile.getParent());
+    Files.writeString(cacheFile, JsonHelper.toJson(content));
+  }
+
+  /**
+   * Returns the cached entry of the test if the fingerprint matches.
+   *
+   * @param testName    the name of the test
+   * @param fingerprint the current fingerprint of the test
+   * @return the entry or {@code null} if the test needs to be executed
+   */
+  Entry get(String testName, String fingerprint) {
+    Entry entry = entries.get(testName);
+    return entry != null && fingerprint.equals(entry.fingerprint) ? entry : null;
+  }
+
+  /**
+   * Stores the fingerprint of a successful test.
+   *
+   * @param testName    the name of the test
+   * @param fingerprint the fingerprint of the test
+   * @param duration    the duration of the test execution in seconds
+   */
+  void put(String testName, String fingerprint, float duration) {
+    Entry entry = new Entry();
+    entry.fingerprint = fingerprint;
+    entry.duration = duration;
+    entries.put(testName, entry);
+  }
+
+  /**
+   * Removes the test from the cache.
+   *
+   * @param testName the name of the test
+   */
+  void remove(String testName) {
+    entries.remove(testName);
+  }
+
+  /**
+   * Computes the fingerprint of the given test.
+   *
+   * @param test the test
+   * @return the fingerprint
+   * @throws IOException if the resources of the test can't be read
+   */
+  String fingerprint(TestInst test) throws IOException {
+    MessageDigest digest = createDigest();
+    update(digest, getEnvironmentDigest());
+    update(digest, String.join(" ", test.getParamListWithoutTarget()));
+    for (Path resourcePath : test.getResourcePaths()) {
+      update(digest, resourcePath.toString());
+      update(digest, getResourceDigest(resourcePath));
+    }
+    update(digest, JsonHelper.toJson(test.getTestDef()));
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  private synchronized String getEnvironmentDigest() throws IOException {
+    if (environmentDigest == null) {
+      MessageDigest digest = createDigest();
+      update(digest, String.valueOf(SystemUtils.getReleaseVersion()));
+      List<OperatorSpi> operatorSpis = GPF.getDefaultInstance().getOperatorSpiRegistry().getOperatorSpis().stream()
+                                          .sorted(Comparator.comparing(OperatorSpi::getOperatorAlias))
+                                          .collect(Collectors.toList());
+      for (OperatorSpi spi : operatorSpis) {
+        update(digest, spi.getOperatorAlias());
+        update(digest, String.valueOf(spi.getOperatorDescriptor().getVersion()));
+        update(digest, getCodeSourceState(spi.getOperatorClass()));
+      }
+      environmentDigest = HexFormat.of().formatHex(digest.digest());
+    }
+    return environmentDigest;
+  }
+
+  // The module jar of an operator changes if a new snapshot is installed without changing the version
+  private static String getCodeSourceState(Class<?> operatorClass) throws IOException {
+    CodeSource codeSource = operatorClass.getProtectionDomain().getCodeSource();
+    URL location = codeSource != null ? codeSource.getLocation() : null;
+    if (location == null || !"file".equals(location.getProtocol())) {
+      return String.valueOf(location);
+    }
+    try {
+      Path path = Paths.get(location.toURI());
+      if (Files.isRegularFile(path)) {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        return path + ":" + attributes.size() + ":" + attributes.lastModifiedTime().toMillis();
+      }
+      return path.toString();
+    } catch (URISyntaxException e) {
+      return location.toString();
+    }
+  }
+
+  private String getResourceDigest(Path resourcePath) throws IOException {
+    String resourceDigest = resourceDigests.get(resourcePath);
+    if (resourceDigest == null) {
+      resourceDigest = computeResourceDigest(resourcePath);
+      resourceDigests.put(resourcePath, resourceDigest);
+    }
+    return resourceDigest;
+  }
+
+  private static String computeResourceDigest(Path resourcePath) throws IOException {
+    MessageDigest digest = createDigest();
+    if (!Files.exists(resourcePath)) {
+      update(digest, "<missing>");
+    } else {
+      List<Path> files;
+      try (Stream<Path> walk = Files.walk(resourcePath)) {
+        files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+      }
+      for (Path file : files) {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        update(digest, resourcePath.relativize(file).toString());
+        update(digest, attributes.size() + ":" + attributes.lastModifiedTime().toMillis());
+        if (attributes.size() <= MAX_HASHED_FILE_SIZE) {
+          updateWithContent(digest, file);
+        }
+      }
+    }
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  private static void updateWithContent(MessageDigest digest, Path file) throws IOException {
+    byte[] buffer = new byte[64 * 1024];
+    try (InputStream inputStream = Files.newInputStream(file)) {
+      int numRead;
+      while ((numRead = inputStream.read(buffer)) > 0) {
+        digest.update(buffer, 0, numRead);
+      }
+    }
+  }
+
+  private static void update(MessageDigest digest, String value) {
+    digest.update(value.getBytes(StandardCharsets.UTF_8));
+    digest.update((byte) 0);
+  }
+
+  private static MessageDigest createDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // SHA-256 must be supported by every Java platform
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * A cached test result.
+   */
+  static class Entry {
+
+    private String fingerprint;
+    private float duration;
+
+    /**
+     * Get the duration in seconds of the execution which produced this entry.
+     *
+     * @return the duration
+     */
+    float getDuration() {
+      return duration;
+    }
+  }
+
+  private static class Content {
+
+    private Map<String, Entry> entries;
+  }
+}
@@ -0,0 +1,170 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.eomasters.davalien.res.JsonHelper;
+import org.eomasters.davalien.res.testdef.TestDefinition;
+
+/**
+ * Splits the selected tests into shards, so that they can be executed on several machines. Every machine computes its
+ * shard on its own, so the split must only depend on inputs which are equal on all machines.
+ *
+ * <p>If the durations of the tests are given by a shared report, e.g. the merged report of a previous run, tests are
+ * assigned to shards of roughly equal runtime with the longest processing time first rule: the longest test goes to
+ * the shard with the smallest total runtime. Tests without a known runtime are assumed to take the median runtime of
+ * the known tests. Without a shared report, the tests are assigned by the hash of their name. The local results of a
+ * machine are never used, because they differ between the machines and tests would be lost or executed twice.
+ */
+class ShardPlanner {
+
+  private ShardPlanner() {
+  }
+
+  /**
+   * Selects the tests of one shard. If a shared durations report is given, the shards are balanced by duration,
+   * otherwise the tests are assigned by the hash of their name. The order of the given tests is preserved.
+   *
+   * @param testDefinitions the tests to split
+   * @param durationsReport the report providing the durations, the same for all shards, or {@code null}
+   * @param shardIndex      the zero based index of the shard
+   * @param shardCount      the number of shards
+   * @return the tests of the shard
+   * @throws IOException if the durations report can't be read
+   */
+  static List<TestDefinition> selectShard(List<TestDefinition> testDefinitions, Path durationsReport, int shardIndex,
+      int shardCount) throws IOException {
+    if (durationsReport == null) {
+      return selectShardByName(testDefinitions, shardIndex, shardCount);
+    }
+    return selectShard(testDefinitions, readDurations(durationsReport), shardIndex, shardCount);
+  }
+
+  /**
+   * Selects the tests of one shard by the hash of the test names. The order of the given tests is preserved.
+   *
+   * @param testDefinitions the tests to split
+   * @param shardIndex      the zero based index of the shard
+   * @param shardCount      the number of shards
+   * @return the tests of the shard
+   */
+  static List<TestDefinition> selectShardByName(List<TestDefinition> testDefinitions, int shardIndex,
+      int shardCount) {
+    checkShard(shardIndex, shardCount);
+    // String.hashCode() is specified, so it is the same on all machines
+    return testDefinitions.stream()
+                          .filter(def -> Math.floorMod(def.getTestName().hashCode(), shardCount) == shardIndex)
+                          .collect(Collectors.toList());
+  }
+
+  /**
+   * Selects the tests of one shard, balanced by duration. The order of the given tests is preserved. All shards must
+   * use the same durations.
+   *
+   * @param testDefinitions the tests to split
+   * @param durations       the known durations in seconds by test name
+   * @param shardIndex      the zero based index of the shard
+   * @param shardCount      the number of shards
+   * @return the tests of the shard
+   */
+  static List<TestDefinition> selectShard(List<TestDefinition> testDefinitions, Map<String, Float> durations,
+      int shardIndex, int shardCount) {
+    checkShard(shardIndex, shardCount);
+    float defaultDuration = median(testDefinitions.stream()
+                                                  .map(def -> durations.get(def.getTestName()))
+                                                  .filter(d -> d != null && !Float.isNaN(d))
+                                                  .collect(Collectors.toList()));
+    List<TestDefinition> longestFirst = new ArrayList<>(testDefinitions);
+    longestFirst.sort(Comparator.comparing((TestDefinition def) -> getDuration(def, durations, defaultDuration))
+                                .reversed()
+                                .thenComparing(TestDefinition::getTestName));
+
+    double[] shardRuntimes = new double[shardCount];
+    Map<TestDefinition, Integer> assignment = new HashMap<>();
+    for (TestDefinition def : longestFirst) {
+      int target = 0;
+      for (int i = 1; i < shardCount; i++) {
+        if (shardRuntimes[i] < shardRuntimes[target]) {
+          target = i;
+        }
+      }
+      shardRuntimes[target] += getDuration(def, durations, defaultDuration);
+      assignment.put(def, target);
+    }
+    return testDefinitions.stream().filter(def -> assignment.get(def) == shardIndex).collect(Collectors.toList());
+  }
+
+  /**
+   * Reads the test durations from the given report.
+   *
+   * @param reportFile the JSON report
+   * @return the durations in seconds by test name
+   * @throws IOException if the report can't be read
+   */
+  static Map<String, Float> readDurations(Path reportFile) throws IOException {
+    String json = Files.readString(reportFile);
+    TestReport report;
+    try {
+      report = (TestReport) JsonHelper.fromJson(json, TestReport.class);
+    } catch (Exception e) {
+      throw new IOException("Not able to read durations from report: " + reportFile, e);
+    }
+    Map<String, Float> durations = new HashMap<>();
+    if (report != null && report.getTestResults() != null) {
+      for (TestResult result : report.getTestResults()) {
+        if (!Float.isNaN(result.getDuration())) {
+          durations.put(result.getTestName(), result.getDuration());
+        }
+      }
+    }
+    return durations;
+  }
+
+  private static void checkShard(int shardIndex, int shardCount) {
+    if (shardCount < 1 || shardIndex < 0 || shardIndex >= shardCount) {
+      throw new IllegalArgumentException(String.format("Invalid shard %d of %d", shardIndex, shardCount));
+    }
+  }
+
+  private static float getDuration(TestDefinition def, Map<String, Float> durations, float defaultDuration) {
+    Float duration = durations.get(def.getTestName());
+    return duration != null && !Float.isNaN(duration) ? duration : defaultDuration;
+  }
+
+  private static float median(List<Float> values) {
+    if (values.isEmpty()) {
+      return 1;
+    }
+    List<Float> sorted = values.stream().sorted().collect(Collectors.toList());
+    return sorted.get(sorted.size() / 2);
+  }
+}
@@ -0,0 +1,202 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.eomasters.davalien.res.JsonHelper;
+import org.eomasters.davalien.res.testdef.TestDefinition;
+import org.eomasters.davalien.utils.ConcurrencyUtils;
+
+/**
+ * A catalog of the test definition files of an environment. For each file it stores the name and the tags of the
+ * test together with the size and modification time of the file. The tests can be selected by name or tag from the
+ * catalog without opening the definition files.
+ *
+ * <p>When the catalog is updated, only the files which are new or whose size or modification time changed are read
+ * again. Entries of deleted files are removed.
+ */
+class TestCatalog {
+
+  private final Path catalogFile;
+  private final Map<String, Entry> entries;
+  private boolean modified;
+
+  private TestCatalog(Path catalogFile, Map<String, Entry> entries) {
+    this.catalogFile = catalogFile;
+    this.entries = new TreeMap<>(entries);
+  }
+
+  /**
+   * Loads the catalog from the given file. If the file does not exist or can't be parsed, the catalog is empty.
+   *
+   * @param catalogFile the catalog file
+   * @return the catalog
+   * @throws IOException if the file can't be read
+   */
+  static TestCatalog load(Path catalogFile) throws IOException {
+    Content content = null;
+    if (Files.exists(catalogFile)) {
+      try {
+        content = (Content) JsonHelper.fromJson(Files.readString(catalogFile), Content.class);
+      } catch (RuntimeException e) {
+        // the catalog is rebuilt from the definition files
+        Davalien.LOGGER.warning("Ignoring invalid test catalog: " + catalogFile);
+      }
+    }
+    return new TestCatalog(catalogFile, content != null && content.entries != null ? content.entries : Map.of());
+  }
+
+  /**
+   * Brings the catalog up to date with the test definition files in the given directory and its sub directories.
+   * Changed files are read concurrently.
+   *
+   * @param testsDir the directory of the test definitions
+   * @throws IOException if a definition file can't be read
+   */
+  void update(Path testsDir) throws IOException {
+    Map<String, BasicFileAttributes> files = new HashMap<>();
+    try (Stream<Path> walk = Files.walk(testsDir)) {
+      for (Path file : (Iterable<Path>) walk::iterator) {
+        if (file.getFileName().toString().matches("test-.*\\.json")) {
+          BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+          if (attributes.isRegularFile()) {
+            files.put(testsDir.relativize(file).toString(), attributes);
+          }
+        }
+      }
+    }
+    modified |= entries.keySet().retainAll(files.keySet());
+    List<String> changedFiles = files.entrySet().stream()
+                                     .filter(e -> !isUpToDate(entries.get(e.getKey()), e.getValue()))
+                                     .map(Map.Entry::getKey).sorted().collect(Collectors.toList());
+    List<TestDefinition> changedDefinitions;
+    try {
+      changedDefinitions = ConcurrencyUtils.computeAll(changedFiles.size(), i -> {
+        try {
+          return JsonHelper.readTestDefinition(testsDir.resolve(changedFiles.get(i)));
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    for (int i = 0; i < changedFiles.size(); i++) {
+      String file = changedFiles.get(i);
+      BasicFileAttributes attributes = files.get(file);
+      TestDefinition testDef = changedDefinitions.get(i);
+      Entry entry = new Entry();
+      entry.testName = testDef.getTestName();
+      entry.tags = testDef.getTags().toArray(new String[0]);
+      entry.size = attributes.size();
+      entry.lastModified = attributes.lastModifiedTime().toMillis();
+      entries.put(file, entry);
+      modified = true;
+    }
+    checkDuplicates();
+  }
+
+  private static boolean isUpToDate(Entry entry, BasicFileAttributes attributes) {
+    return entry != null && entry.size == attributes.size()
+        && entry.lastModified == attributes.lastModifiedTime().toMillis();
+  }
+
+  private void checkDuplicates() {
+    Map<String, String> files = new HashMap<>();
+    for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+      String other = files.put(entry.getValue().testName, entry.getKey());
+      if (other != null) {
+        throw new IllegalStateException("Duplicate test name: " + entry.getValue().testName);
+      }
+    }
+  }
+
+  /**
+   * Writes the catalog to its file if it has been changed. The catalog is written to a temporary file first, which then
+   * replaces the catalog file. So a concurrent run never reads a partially written catalog.
+   *
+   * @throws IOException if the file can't be written
+   */
+  void save() throws IOException {
+    if (modified) {
+      Content content = new Content();
+      content.entries = entries;
+      Path dir = catalogFile.toAbsolutePath().getParent();
+      Files.createDirectories(dir);
+      Path tempFile = Files.createTempFile(dir, catalogFile.getFileName() + "-", ".tmp");
+      try {
+        Files.writeString(tempFile, JsonHelper.toJson(content));
+        Files.move(tempFile, catalogFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(tempFile);
+      }
+      modified = false;
+    }
+  }
+
+  /**
+   * Returns the test definitions of the catalog, sorted by name. They only contain the name, the tags and the file of
+   * the test. The complete definition is read by {@link JsonHelper#readTestDefinition(Path)}.
+   *
+   * @param testsDir the directory of the test definitions
+   * @return the test definitions
+   */
+  List<TestDefinition> getTestDefinitions(Path testsDir) {
+    List<TestDefinition> testDefinitions = new ArrayList<>();
+    for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+      TestDefinition testDef = new TestDefinition(entry.getValue().testName, null);
+      testDef.setTags(List.of(entry.getValue().tags != null ? entry.getValue().tags : new String[0]));
+      testDef.setDefinitionFile(testsDir.resolve(entry.getKey()));
+      testDefinitions.add(testDef);
+    }
+    testDefinitions.sort(Comparator.comparing(TestDefinition::getTestName));
+    return testDefinitions;
+  }
+
+  private static class Entry {
+
+    private String testName;
+    private String[] tags;
+    private long size;
+    private long lastModified;
+  }
+
+  private static class Content {
+
+    private Map<String, Entry> entries;
+  }
+}
@@ -0,0 +1,255 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.eomasters.davalien.res.JsonHelper;
+import org.eomasters.davalien.res.testdef.DefaultContentDefinition;
+import org.eomasters.davalien.res.testdef.ProductContent;
+import org.eomasters.davalien.res.testdef.ProductContentFactory;
+import org.eomasters.davalien.res.testdef.TestDefinition;
+import org.esa.snap.core.dataio.ProductIO;
+import org.esa.snap.core.datamodel.Product;
+
+/**
+ * Creates the test definitions for many products without the GUI. Each product is read, its content is collected by
+ * {@link ProductContentFactory} and the definition is written as {@code test-<productName>.json} into the tests
+ * directory of the environment. Large arrays of the expectation are written into a binary sidecar file next to it.
+ * Existing definitions are not overwritten. Products which would get the same test name are reported and skipped.
+ *
+ * <p>Several products are processed concurrently. The number of products open at the same time is limited by the
+ * available processors and by the maximum heap size, assuming {@value #MEMORY_PER_PRODUCT_MB} MB per product. Each
+ * product is disposed as soon as its definition is written.
+ */
+class TestDefinitionCreator {
+
+  private static final long MEMORY_PER_PRODUCT_MB = 2048;
+
+  private final Path testsDir;
+  private final int parallelism;
+  private String metadataTreePath;
+
+  /**
+   * Creates a new instance which writes into the tests directory of the given environment.
+   *
+   * @param envPath the path of the environment
+   */
+  TestDefinitionCreator(Path envPath) {
+    this(envPath.resolve(Davalien.TESTS_DIR), getDefaultParallelism());
+  }
+
+  TestDefinitionCreator(Path testsDir, int parallelism) {
+    this.testsDir = testsDir;
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Sets the path of the metadata element whose whole tree is added to the created definitions. By default, no tree is
+   * added.
+   *
+   * @param metadataTreePath the path of the element, an empty path for the metadata root, or {@code null} for no
+   *                         tree
+   */
+  void setMetadataTreePath(String metadataTreePath) {
+    this.metadataTreePath = metadataTreePath;
+  }
+
+  private static int getDefaultParallelism() {
+    int byMemory = (int) (Runtime.getRuntime().maxMemory() / (MEMORY_PER_PRODUCT_MB * 1024 * 1024));
+    int byProcessors = Runtime.getRuntime().availableProcessors() / 2;
+    return Math.max(1, Math.min(byMemory, byProcessors));
+  }
+
+  /**
+   * Finds the products to create test definitions for. The location is either a directory, then all its entries
+   * which can be read as product are used, or a glob pattern like {@code /data/S2/**}{@code /*.zip}.
+   *
+   * @param location the directory or the glob pattern
+   * @return the paths of the products, sorted
+   * @throws IOException if the location can't be searched
+   */
+  static List<Path> findProducts(String location) throws IOException {
+    if (!isGlob(location)) {
+      Path dir = Paths.get(location);
+      if (!Files.isDirectory(dir)) {
+        throw new IOException("Not a directory: " + location);
+      }
+      try (Stream<Path> entries = Files.list(dir)) {
+        return entries.sorted().filter(p -> ProductIO.getProductReaderForInput(p.toFile()) != null)
+                      .collect(Collectors.toList());
+      }
+    }
+    String pattern = location.replace('\\', '/');
+    int firstGlobChar = indexOfGlobChar(pattern);
+    int baseEnd = pattern.lastIndexOf('/', firstGlobChar);
+    Path baseDir = Paths.get(baseEnd > 0 ? pattern.substring(0, baseEnd) : baseEnd == 0 ? "/" : ".");
+    PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+    Path relativeTo = baseEnd >= 0 ? null : baseDir;
+    try (Stream<Path> walk = Files.walk(baseDir)) {
+      return walk.filter(p -> matcher.matches(relativeTo != null ? relativeTo.relativize(p) : p))
+                 .sorted().collect(Collectors.toList());
+    }
+  }
+
+  private static boolean isGlob(String location) {
+    return indexOfGlobChar(location) >= 0;
+  }
+
+  private static int indexOfGlobChar(String location) {
+    for (int i = 0; i < location.length(); i++) {
+      if ("*?[{".indexOf(location.charAt(i)) >= 0) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Creates the test definitions for the given products. Progress and failures are printed to the given stream.
+   * Products whose test names collide are not processed at all, because it can't be decided which of them the
+   * definition should belong to. They are counted as failed.
+   *
+   * @param productPaths the paths of the products
+   * @param out          the stream for progress messages
+   * @return the number of products for which no definition could be created
+   * @throws IOException if the tests directory can't be created
+   */
+  int createAll(List<Path> productPaths, PrintStream out) throws IOException {
+    Files.createDirectories(testsDir);
+    AtomicInteger numCreated = new AtomicInteger();
+    AtomicInteger numSkipped = new AtomicInteger();
+    List<Path> failed = new ArrayList<>();
+    List<Path> uniquePaths = new ArrayList<>();
+    for (Map.Entry<String, List<Path>> entry : groupByTestName(productPaths).entrySet()) {
+      List<Path> paths = entry.getValue();
+      if (paths.size() > 1) {
+        out.println("Failed to create test definition for " + paths + ": Duplicate test name '" + entry.getKey() + "'");
+        failed.addAll(paths);
+      } else {
+        uniquePaths.add(paths.get(0));
+      }
+    }
+    try (ExecutorService executor = Executors.newFixedThreadPool(parallelism)) {
+      for (Path productPath : uniquePaths) {
+        executor.execute(() -> {
+          try {
+            if (create(productPath)) {
+              numCreated.incrementAndGet();
+              out.println("Created test definition for " + productPath);
+            } else {
+              numSkipped.incrementAndGet();
+              out.println("Skipped " + productPath + ", test definition already exists");
+            }
+          } catch (Exception e) {
+            Davalien.LOGGER.log(Level.SEVERE, "Failed to create test definition for " + productPath, e);
+            synchronized (failed) {
+              failed.add(productPath);
+            }
+            out.println("Failed to create test definition for " + productPath + ": " + e.getMessage());
+          }
+        });
+      }
+    }
+    out.printf("Test definitions: %d created, %d skipped, %d failed%n", numCreated.get(), numSkipped.get(),
+        failed.size());
+    return failed.size();
+  }
+
+  // groups the product paths by their test name, keeping the order of the paths
+  static Map<String, List<Path>> groupByTestName(List<Path> productPaths) {
+    Map<String, List<Path>> groups = new LinkedHashMap<>();
+    for (Path productPath : productPaths) {
+      groups.computeIfAbsent(getTestName(productPath), k -> new ArrayList<>()).add(productPath);
+    }
+    return groups;
+  }
+
+  private boolean create(Path productPath) throws IOException, DavalienException {
+    String testName = getTestName(productPath);
+    Path outputFile = testsDir.resolve("test-" + testName + ".json");
+    if (Files.exists(outputFile)) {
+      return false;
+    }
+    Product product = ProductIO.readProduct(productPath.toFile());
+    if (product == null) {
+      throw new IOException("No reader found for product: " + productPath);
+    }
+    try {
+      DefaultContentDefinition contentDefinition = new DefaultContentDefinition(product);
+      contentDefinition.setMetadataTreePath(metadataTreePath);
+      ProductContent content = ProductContentFactory.create(product, contentDefinition);
+      return write(new TestDefinition(testName, content), outputFile);
+    } finally {
+      product.dispose();
+    }
+  }
+
+  /**
+   * Writes the test definition without overwriting an existing one. The output file is claimed by creating it empty,
+   * which fails atomically if it already exists, e.g. because another process created it meanwhile. Then it is
+   * replaced by the definition, see {@link JsonHelper#writeTestDefinition(TestDefinition, Path, boolean)}.
+   *
+   * @return {@code true} if the definition was written, {@code false} if the output file already exists
+   */
+  static boolean write(TestDefinition testDefinition, Path outputFile) throws IOException {
+    try {
+      Files.createFile(outputFile);
+    } catch (FileAlreadyExistsException e) {
+      return false;
+    }
+    boolean written = false;
+    try {
+      JsonHelper.writeTestDefinition(testDefinition, outputFile, true);
+      written = true;
+    } finally {
+      if (!written) {
+        Files.deleteIfExists(outputFile);
+      }
+    }
+    return true;
+  }
+
+  static String getTestName(Path productPath) {
+    String fileName = productPath.getFileName().toString();
+    int extensionStart = fileName.lastIndexOf('.');
+    return extensionStart > 0 ? fileName.substring(0, extensionStart) : fileName;
+  }
+}
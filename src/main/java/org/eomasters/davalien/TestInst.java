@@ -30,10 +30,13 @@ import java.util.List;
 import java.util.regex.MatchResult;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import org.eomasters.davalien.res.Resource;
 import org.eomasters.davalien.res.Resources;
+import org.eomasters.davalien.res.testdef.ProductContent;
 import org.eomasters.davalien.res.testdef.TestDefinition;
 import org.esa.snap.core.dataio.ProductIOPlugInManager;
 import org.esa.snap.core.dataio.ProductReaderPlugIn;
+import org.esa.snap.core.datamodel.Product;
 
 /**
  * A Test instance created from a {@link TestDefinition} and used in the DAVAlIEN test environment.
@@ -47,6 +50,17 @@ public class TestInst {
   private Path resultDir;
   private Path resultPath;
   private List<String> paramList;
+  private String targetFormat;
+  private List<Path> resourcePaths;
+  private Path referenceProductPath;
+  private Integer exitCode;
+  private Path stdoutLog;
+  private Path stderrLog;
+  private Product targetProduct;
+  private List<Product> sourceProducts;
+  private String threadDump;
+  private PerformanceSettings performanceSettings = new PerformanceSettings(null, null, null);
+  private PerformanceSettings effectivePerformanceSettings;
 
   /**
    * Creates a new test instance.
@@ -65,20 +79,31 @@ public class TestInst {
       TestInst.davalien = davalien;
       test = new TestInst(testDef);
       test.resultDir = resultProductDir;
-      String expandedGptCall = expandVariables(testDef.getGptCall(), resources);
+      test.resourcePaths = new ArrayList<>();
+      String expandedGptCall = expandVariables(testDef.getGptCall(), resources, test.resourcePaths);
       List<String> paramList = parseCommandline(expandedGptCall);
       String format = ensureFormat(paramList);
+      test.targetFormat = format;
       Path targetPath = createTargetPath(resultProductDir, format, testDef.getTestName());
       test.resultPath = targetPath;
       addTargetProduct(paramList, targetPath);
+      test.performanceSettings = PerformanceSettings.resolve(testDef, davalien.getConfig());
+      test.performanceSettings.addToParamList(paramList);
       test.paramList = paramList;
+      ProductContent expectation = testDef.getExpectation();
+      if (expectation != null && expectation.getReferenceProduct() != null) {
+        test.referenceProductPath = resources.getResourcePath(Resource.Type.SRC.name(),
+            expectation.getReferenceProduct().getId());
+        test.resourcePaths.add(test.referenceProductPath);
+      }
     } catch (Exception e) {
       throw new DavalienException("Error creating test instance for test: " + testDef.getTestName(), e);
     }
     return test;
   }
 
-  private TestInst(TestDefinition testDef) {
+  // used directly only for testing
+  TestInst(TestDefinition testDef) {
     this.testDef = testDef;
   }
 
@@ -136,6 +161,127 @@ public class TestInst {
     return paramList;
   }
 
+  /**
+   * Get the performance settings defined for the test.
+   *
+   * @return the performance settings
+   */
+  public PerformanceSettings getPerformanceSettings() {
+    return performanceSettings;
+  }
+
+  /**
+   * Get the performance settings which were effectively used when the test was executed. If unknown, the defined
+   * settings are returned.
+   *
+   * @return the effective performance settings
+   */
+  public PerformanceSettings getEffectivePerformanceSettings() {
+    return effectivePerformanceSettings != null ? effectivePerformanceSettings : performanceSettings;
+  }
+
+  /**
+   * Set the performance settings which were effectively used when the test was executed.
+   *
+   * @param effectivePerformanceSettings the effective performance settings
+   */
+  public void setEffectivePerformanceSettings(PerformanceSettings effectivePerformanceSettings) {
+    this.effectivePerformanceSettings = effectivePerformanceSettings;
+  }
+
+  /**
+   * Get the thread dump captured when the test exceeded its timeout.
+   *
+   * @return the thread dump or {@code null}
+   */
+  public String getThreadDump() {
+    return threadDump;
+  }
+
+  /**
+   * Set the thread dump captured when the test exceeded its timeout.
+   *
+   * @param threadDump the thread dump
+   */
+  public void setThreadDump(String threadDump) {
+    this.threadDump = threadDump;
+  }
+
+  /**
+   * Get the format of the target product.
+   *
+   * @return the target format
+   */
+  public String getTargetFormat() {
+    return targetFormat;
+  }
+
+  /**
+   * Get the target product if it was created in memory and not written to the result path.
+   *
+   * @return the in-memory target product or {@code null}
+   */
+  public Product getTargetProduct() {
+    return targetProduct;
+  }
+
+  /**
+   * Set the target product created in memory together with the source products it depends on.
+   *
+   * @param targetProduct  the target product
+   * @param sourceProducts the source products
+   */
+  public void setInMemoryProducts(Product targetProduct, List<Product> sourceProducts) {
+    this.targetProduct = targetProduct;
+    this.sourceProducts = sourceProducts;
+  }
+
+  /**
+   * Disposes the in-memory target product and its source products, if any.
+   */
+  public void disposeInMemoryProducts() {
+    if (targetProduct != null) {
+      targetProduct.dispose();
+      targetProduct = null;
+    }
+    if (sourceProducts != null) {
+      sourceProducts.forEach(Product::dispose);
+      sourceProducts = null;
+    }
+  }
+
+  /**
+   * Get the paths of the resources referenced by the GPT call and the expectation.
+   *
+   * @return the resource paths
+   */
+  public List<Path> getResourcePaths() {
+    return resourcePaths != null ? resourcePaths : List.of();
+  }
+
+  /**
+   * Get the path of the reference product of the expectation.
+   *
+   * @return the path or {@code null} if the expectation has no reference product
+   */
+  public Path getReferenceProductPath() {
+    return referenceProductPath;
+  }
+
+  /**
+   * Get the parameter list without the target product parameter, which differs for every run.
+   *
+   * @return the parameter list without the target product
+   */
+  List<String> getParamListWithoutTarget() {
+    List<String> params = new ArrayList<>(paramList);
+    int targetIndex = params.indexOf("-t");
+    if (targetIndex >= 0) {
+      params.subList(targetIndex, Math.min(targetIndex + 2, params.size())).clear();
+    }
+    return params;
+  }
+
   /**
    * Get the duration of the test in seconds.
    *
@@ -173,6 +319,53 @@ public class TestInst {
     this.exception = t;
   }
 
+  /**
+   * Get the exit code of the GPT process. Only available if the test was executed in a separate process.
+   *
+   * @return the exit code or {@code null}
+   */
+  public Integer getExitCode() {
+    return exitCode;
+  }
+
+  /**
+   * Set the exit code of the GPT process.
+   *
+   * @param exitCode the exit code
+   */
+  public void setExitCode(Integer exitCode) {
+    this.exitCode = exitCode;
+  }
+
+  /**
+   * Get the file the standard output of the GPT process was written to.
+   *
+   * @return the standard output log or {@code null}
+   */
+  public Path getStdoutLog() {
+    return stdoutLog;
+  }
+
+  /**
+   * Get the file the error output of the GPT process was written to.
+   *
+   * @return the error output log or {@code null}
+   */
+  public Path getStderrLog() {
+    return stderrLog;
+  }
+
+  /**
+   * Set the files the standard and error output of the GPT process were written to.
+   *
+   * @param stdoutLog the standard output log
+   * @param stderrLog the error output log
+   */
+  public void setLogs(Path stdoutLog, Path stderrLog) {
+    this.stdoutLog = stdoutLog;
+    this.stderrLog = stderrLog;
+  }
+
   private static Path createTargetPath(Path resultProductDir, String format, String name) {
     String fileExtension = getFileExtension(format);
     return resultProductDir.resolve(name + fileExtension);
@@ -217,7 +410,7 @@ public class TestInst {
     return new ArrayList<>(List.of(split));
   }
 
-  private static String expandVariables(final String gptCall, Resources resources) {
+  private static String expandVariables(final String gptCall, Resources resources, List<Path> resourcePaths) {
     // find tokens in gptCall which are enclosed in {}
     var ref = new Object() {
       String expandedGptCall = gptCall;
@@ -225,11 +418,9 @@ public class TestInst {
     List<MatchResult> matchResults = getMatchResults(gptCall);
     for (MatchResult matchResult : matchResults) {
       String[] resTokens = getTokens(matchResult);
-      Path path = Path.of(resources.getResource(resTokens[1], resTokens[2]).getPath());
-      if (!path.isAbsolute()) {
-        path = davalien.getEnvPath().resolve(path);
-      }
-      String resourcePath = path.toAbsolutePath().toString();
+      Path path = resources.getResourcePath(resTokens[1], resTokens[2]);
+      resourcePaths.add(path);
+      String resourcePath = path.toString();
       ref.expandedGptCall = ref.expandedGptCall.replace(resTokens[0], resourcePath);
 
     }
@@ -50,11 +50,27 @@ public class TestReport {
    * @param davalien    the Davalien instance
    */
   public TestReport(List<TestResult> testResults, Davalien davalien) {
-    this.creationTime = davalien.getDate();
-    this.numTestsExecuted = davalien.getAllTestDefinitions().size();
-    this.envPath = davalien.getEnvPath();
-    this.testNames = davalien.getTestNames();
-    this.tags = davalien.getTags();
+    this(testResults, davalien.getEnvPath(), davalien.getDate(), davalien.getTestNames(), davalien.getTags(),
+        davalien.getAllTestDefinitions().size());
+  }
+
+  /**
+   * Create a new instance from the given values. Used when reports are merged.
+   *
+   * @param testResults      the test results
+   * @param envPath          the environment path
+   * @param creationTime     the creation time
+   * @param testNames        the test names used for filtering
+   * @param tags             the tags used for filtering
+   * @param numTestsExecuted the number of all tests in the environment
+   */
+  TestReport(List<TestResult> testResults, Path envPath, LocalDateTime creationTime, List<String> testNames,
+      List<String> tags, int numTestsExecuted) {
+    this.creationTime = creationTime;
+    this.numTestsExecuted = numTestsExecuted;
+    this.envPath = envPath;
+    this.testNames = testNames;
+    this.tags = tags;
     this.testResults = testResults;
     numSuccessTests = testResults.stream().filter(testResult -> testResult.getStatus().equals(Status.SUCCESS)).count();
     numErrorTests = testResults.stream().filter(testResult -> testResult.getStatus().equals(Status.ERROR)).count();
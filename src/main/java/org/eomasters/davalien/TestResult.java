@@ -54,10 +54,16 @@ public class TestResult {
   private final String testName;
   private final String description;
   private Status status = Status.SUCCESS;
-  private final float duration;
+  private float duration;
   private Path targetPath;
   private Throwable exception;
   private List<AssertionError> errors;
+  private Integer exitCode;
+  private Path stdoutLog;
+  private Path stderrLog;
+  private boolean cached;
+  private String threadDump;
+  private PerformanceSettings performanceSettings;
 
   /**
    * Create a new instance. The status is set to SUCCESS by default.
@@ -110,6 +116,15 @@ public class TestResult {
     return duration;
   }
 
+  /**
+   * Set the duration of the test execution.
+   *
+   * @param duration the duration
+   */
+  public void setDuration(float duration) {
+    this.duration = duration;
+  }
+
   /**
    * Get the target path of the test.
    *
@@ -137,6 +152,100 @@ public class TestResult {
     return errors;
   }
 
+  /**
+   * Get the exit code of the GPT process, if the test was executed in a separate process.
+   *
+   * @return the exit code or {@code null}
+   */
+  public Integer getExitCode() {
+    return exitCode;
+  }
+
+  /**
+   * Get the file containing the standard output of the GPT process, if the test was executed in a separate process.
+   *
+   * @return the standard output log or {@code null}
+   */
+  public Path getStdoutLog() {
+    return stdoutLog;
+  }
+
+  /**
+   * Get the file containing the error output of the GPT process, if the test was executed in a separate process.
+   *
+   * @return the error output log or {@code null}
+   */
+  public Path getStderrLog() {
+    return stderrLog;
+  }
+
+  /**
+   * Set the exit code and the output logs of the GPT process.
+   *
+   * @param exitCode  the exit code
+   * @param stdoutLog the standard output log
+   * @param stderrLog the error output log
+   */
+  public void setProcessOutcome(Integer exitCode, Path stdoutLog, Path stderrLog) {
+    this.exitCode = exitCode;
+    this.stdoutLog = stdoutLog;
+    this.stderrLog = stderrLog;
+  }
+
+  /**
+   * Get the performance settings which were used when the test was executed.
+   *
+   * @return the performance settings or {@code null}
+   */
+  public PerformanceSettings getPerformanceSettings() {
+    return performanceSettings;
+  }
+
+  /**
+   * Set the performance settings which were used when the test was executed.
+   *
+   * @param performanceSettings the performance settings
+   */
+  public void setPerformanceSettings(PerformanceSettings performanceSettings) {
+    this.performanceSettings = performanceSettings;
+  }
+
+  /**
+   * Get the thread dump captured when the test exceeded its timeout, if any.
+   *
+   * @return the thread dump or {@code null}
+   */
+  public String getThreadDump() {
+    return threadDump;
+  }
+
+  /**
+   * Set the thread dump captured when the test exceeded its timeout.
+   *
+   * @param threadDump the thread dump
+   */
+  public void setThreadDump(String threadDump) {
+    this.threadDump = threadDump;
+  }
+
+  /**
+   * Returns if the test was not executed because it succeeded in a previous run and nothing has changed since then.
+   *
+   * @return if the result is taken from the result cache
+   */
+  public boolean isCached() {
+    return cached;
+  }
+
+  /**
+   * Set if the result is taken from the result cache.
+   *
+   * @param cached if the result is cached
+   */
+  public void setCached(boolean cached) {
+    this.cached = cached;
+  }
+
   /**
    * Set the target path of the test.
    *
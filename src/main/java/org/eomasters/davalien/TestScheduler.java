@@ -0,0 +1,228 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.logging.Level;
+
+/**
+ * Runs the GPT calls of a list of tests on a bounded pool of worker threads.
+ *
+ * <p>Each worker thread creates its own {@link GptRunner} when it executes its first test and keeps it for all
+ * further tests. The outcome of a test (duration or exception) is stored at the {@link TestInst} itself, hence the
+ * order of the given list is not affected by the order in which the tests finish.
+ *
+ * <p>The GPT call itself is executed on a separate execution thread, while the worker thread acts as watchdog. If a
+ * test exceeds its timeout, a thread dump is captured, the runner is cancelled and replaced together with its
+ * execution thread, and the worker continues with the next test.
+ */
+class TestScheduler {
+
+  private final int maxParallelTests;
+  private final Supplier<GptRunner> runnerFactory;
+  private final ToIntFunction<TestInst> timeoutSeconds;
+
+  /**
+   * Creates a new scheduler without timeouts.
+   *
+   * @param maxParallelTests the maximum number of tests executed at the same time
+   * @param runnerFactory    creates a runner for each worker thread
+   */
+  TestScheduler(int maxParallelTests, Supplier<GptRunner> runnerFactory) {
+    this(maxParallelTests, runnerFactory, test -> 0);
+  }
+
+  /**
+   * Creates a new scheduler.
+   *
+   * @param maxParallelTests the maximum number of tests executed at the same time
+   * @param runnerFactory    creates a runner for each worker thread
+   * @param timeoutSeconds   provides the timeout of a test in seconds, a value less or equal to zero means no timeout
+   */
+  TestScheduler(int maxParallelTests, Supplier<GptRunner> runnerFactory, ToIntFunction<TestInst> timeoutSeconds) {
+    if (maxParallelTests < 1) {
+      throw new IllegalArgumentException("maxParallelTests must be greater than zero but is " + maxParallelTests);
+    }
+    this.maxParallelTests = maxParallelTests;
+    this.runnerFactory = runnerFactory;
+    this.timeoutSeconds = timeoutSeconds;
+  }
+
+  /**
+   * Runs all given tests and returns when all of them have finished.
+   *
+   * @param tests the tests to run
+   */
+  void runAll(List<TestInst> tests) {
+    runAll(tests, test -> {
+    });
+  }
+
+  /**
+   * Runs all given tests and returns when all of them have finished. The given callback is invoked by the worker
+   * thread as soon as a test has finished, so it should hand over longer work to another thread.
+   *
+   * @param tests      the tests to run
+   * @param onFinished called for each test after it has finished
+   */
+  void runAll(List<TestInst> tests, Consumer<TestInst> onFinished) {
+    if (tests.isEmpty()) {
+      return;
+    }
+    int numWorkers = Math.min(maxParallelTests, tests.size());
+    List<Worker> workers = Collections.synchronizedList(new ArrayList<>());
+    ThreadLocal<Worker> threadWorker = ThreadLocal.withInitial(() -> {
+      Worker worker = new Worker();
+      workers.add(worker);
+      return worker;
+    });
+
+    ExecutorService executor = Executors.newFixedThreadPool(numWorkers, new DaemonThreadFactory("davalien-worker"));
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (TestInst test : tests) {
+        futures.add(executor.submit(() -> {
+          threadWorker.get().runTest(test, numWorkers == 1);
+          onFinished.accept(test);
+        }));
+      }
+      for (Future<?> future : futures) {
+        awaitQuietly(future);
+      }
+    } finally {
+      executor.shutdownNow();
+      workers.forEach(Worker::close);
+    }
+  }
+
+  private static void awaitQuietly(Future<?> future) {
+    try {
+      future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      Davalien.LOGGER.log(Level.SEVERE, "Unexpected error while running a test", e.getCause());
+    }
+  }
+
+  private static void closeQuietly(GptRunner runner) {
+    try {
+      runner.close();
+    } catch (Exception e) {
+      Davalien.LOGGER.log(Level.WARNING, "Not able to close GPT runner", e);
+    }
+  }
+
+  // The state of one worker thread. Runner and execution thread are replaced after a timeout.
+  private class Worker {
+
+    private GptRunner runner;
+    private ExecutorService execution;
+
+    void runTest(TestInst test, boolean sequential) {
+      if (runner == null) {
+        runner = runnerFactory.get();
+        execution = Executors.newSingleThreadExecutor(new DaemonThreadFactory("davalien-execution"));
+      }
+      GptRunner currentRunner = runner;
+      Instant start = Instant.now();
+      Future<?> future = execution.submit(() -> {
+        currentRunner.run(test);
+        return null;
+      });
+      int timeout = timeoutSeconds.applyAsInt(test);
+      try {
+        if (timeout > 0) {
+          future.get(timeout, TimeUnit.SECONDS);
+        } else {
+          future.get();
+        }
+        test.setDuration(secondsSince(start));
+      } catch (ExecutionException e) {
+        test.setException(e.getCause());
+      } catch (TimeoutException e) {
+        test.setThreadDump(currentRunner.threadDump());
+        currentRunner.cancel();
+        future.cancel(true);
+        test.setDuration(secondsSince(start));
+        test.setException(new TestTimeoutException(
+            String.format("Test '%s' exceeded the timeout of %d seconds and was cancelled", test.getName(), timeout)));
+        // the runner and its thread might still be busy with the cancelled test, so they are not used anymore
+        close();
+      } catch (InterruptedException e) {
+        future.cancel(true);
+        test.setException(e);
+        Thread.currentThread().interrupt();
+      }
+      if (sequential) {
+        // Only worth it if no other test is running; otherwise it would stall the concurrent tests.
+        System.gc();
+      }
+    }
+
+    void close() {
+      if (runner != null) {
+        closeQuietly(runner);
+        execution.shutdownNow();
+        runner = null;
+        execution = null;
+      }
+    }
+
+    private float secondsSince(Instant start) {
+      return (Instant.now().toEpochMilli() - start.toEpochMilli()) / 1000f;
+    }
+  }
+
+  private static class DaemonThreadFactory implements ThreadFactory {
+
+    private final String namePrefix;
+    private final AtomicInteger counter = new AtomicInteger();
+
+    DaemonThreadFactory(String namePrefix) {
+      this.namePrefix = namePrefix;
+    }
+
+    @Override
+    public Thread newThread(Runnable r) {
+      Thread thread = new Thread(r, namePrefix + "-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
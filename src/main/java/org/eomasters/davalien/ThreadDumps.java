@@ -0,0 +1,116 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Creates thread dumps of the current JVM or of a child process.
+ */
+class ThreadDumps {
+
+  private static final long JCMD_TIMEOUT_SECONDS = 30;
+
+  private ThreadDumps() {
+  }
+
+  /**
+   * Creates a thread dump of the current JVM including the complete stack traces.
+   *
+   * @return the thread dump
+   */
+  static String ofCurrentJvm() {
+    StringBuilder sb = new StringBuilder();
+    for (ThreadInfo info : ManagementFactory.getThreadMXBean().dumpAllThreads(true, true)) {
+      sb.append(String.format("\"%s\" #%d %s", info.getThreadName(), info.getThreadId(), info.getThreadState()));
+      if (info.getLockName() != null) {
+        sb.append(" on ").append(info.getLockName());
+      }
+      if (info.getLockOwnerName() != null) {
+        sb.append(" owned by \"").append(info.getLockOwnerName()).append('"');
+      }
+      sb.append(System.lineSeparator());
+      for (StackTraceElement element : info.getStackTrace()) {
+        sb.append("\tat ").append(element).append(System.lineSeparator());
+      }
+      sb.append(System.lineSeparator());
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Creates a thread dump of the given process with {@code jcmd}. If {@code jcmd} is not available or fails, a
+   * message is returned instead.
+   *
+   * @param process the process
+   * @return the thread dump
+   */
+  static String ofProcess(Process process) {
+    String osName = System.getProperty("os.name", "").toLowerCase();
+    Path jcmd = Paths.get(System.getProperty("java.home"), "bin", osName.startsWith("windows") ? "jcmd.exe" : "jcmd");
+    if (!Files.isExecutable(jcmd)) {
+      return "No thread dump available, jcmd not found: " + jcmd;
+    }
+    Path output = null;
+    try {
+      // the output goes to a file, reading a pipe would block without timeout if jcmd hangs
+      output = Files.createTempFile("davalien-thread-dump", ".txt");
+      Process jcmdProcess = new ProcessBuilder(jcmd.toString(), String.valueOf(process.pid()), "Thread.print")
+          .redirectErrorStream(true)
+          .redirectOutput(output.toFile())
+          .start();
+      if (!jcmdProcess.waitFor(JCMD_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        jcmdProcess.destroyForcibly();
+        return String.format("No thread dump available, jcmd did not finish within %d seconds. Partial output:%n%s",
+            JCMD_TIMEOUT_SECONDS, Files.readString(output, StandardCharsets.UTF_8));
+      }
+      return Files.readString(output, StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      return "No thread dump available: " + e.getMessage();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return "No thread dump available: interrupted";
+    } finally {
+      deleteQuietly(output);
+    }
+  }
+
+  private static void deleteQuietly(Path file) {
+    if (file != null) {
+      try {
+        Files.deleteIfExists(file);
+      } catch (IOException e) {
+        Davalien.LOGGER.log(Level.FINE, "Not able to delete temporary file: " + file, e);
+      }
+    }
+  }
+}
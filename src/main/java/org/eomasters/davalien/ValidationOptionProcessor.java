@@ -25,10 +25,14 @@ package org.eomasters.davalien;
 
 import com.bc.ceres.jai.operator.ReinterpretDescriptor;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 import org.esa.snap.core.util.SystemUtils;
 import org.netbeans.api.sendopts.CommandException;
 import org.netbeans.spi.sendopts.Env;
@@ -44,21 +48,46 @@ import org.openide.util.NbBundle;
  *
  * <p>Example: <code>snap --validate C:\test\envPath</code>
  *
+ * <p>With {@code --shard=<index>/<count>} only a part of the tests is executed, e.g. on one of several machines. The
+ * shards are balanced by the durations of {@code --shard-durations=<report.json>}, which must be the same report on
+ * all machines. The reports of the shards can be combined with
+ * {@code snap --merge-reports <targetDir> <report.json>...}.
+ *
+ * <p>With {@code snap --davalien-create <dir|glob> --env <envPath>} test definitions are created for all products in
+ * the directory or matching the glob pattern.
+ *
  * <p>To prevent the GUI and splash screen from showing, add also {@code --nogui} {@code --nosplash} <br>
  */
 @org.openide.util.lookup.ServiceProvider(service = OptionProcessor.class)
 @NbBundle.Messages({
-    "DSC_Validate=Start the Data Validation Environment: snap --validate <envPath> [-N=<TestNameList>] [-T=<TagList>]."
+    "DSC_Validate=Start the Data Validation Environment: snap --validate <envPath> [-N=<TestNameList>] [-T=<TagList>]"
+        + " [--shard=<index>/<count> [--shard-durations=<report.json>]]. "
         + "Add also --nogui --nosplash to prevent GUI and splash screen from showing.",
     "DSC_TestNames=Optional comma separated list of test names to execute. If not provided all tests will be executed.",
     "DSC_TagNames=Optional comma separated list of tags associated with Tests to be executed. "
-        + "If not provided all tests will be executed."})
+        + "If not provided all tests will be executed.",
+    "DSC_Shard=Optional shard of the selected tests to execute, given as <index>/<count>, e.g. --shard=2/4. "
+        + "Without --shard-durations the tests are split by the hash of their names.",
+    "DSC_ShardDurations=Optional JSON report, e.g. the merged report of a previous run, providing the test durations "
+        + "used to split the tests into shards of similar runtime. It must be the same report for all shards.",
+    "DSC_MergeReports=Merge the JSON reports of several shards: snap --merge-reports <targetDir> <report.json>...",
+    "DSC_Create=Create test definitions for many products: snap --davalien-create <dir|glob> --env <envPath>"
+        + " [--metadata-tree=<path>]",
+    "DSC_Env=The environment into whose tests directory the created test definitions are written.",
+    "DSC_MetadataTree=Optional path of the metadata element whose whole tree is added to the created test definitions, "
+        + "e.g. --metadata-tree=Global_Attributes. An empty path adds the whole metadata."})
 public class ValidationOptionProcessor extends OptionProcessor {
 
   private static final String PROP_PLUGIN_MANAGER_CHECK_INTERVAL = "plugin.manager.check.interval";
   private static final Option gptTestsOpt;
   private static final Option testNamesOpt;
   private static final Option tagNamesOpt;
+  private static final Option shardOpt;
+  private static final Option shardDurationsOpt;
+  private static final Option mergeReportsOpt;
+  private static final Option createOpt;
+  private static final Option envOpt;
+  private static final Option metadataTreeOpt;
   private static final Set<Option> optionSet;
 
   static {
@@ -66,7 +95,19 @@ public class ValidationOptionProcessor extends OptionProcessor {
     gptTestsOpt = Option.shortDescription(Option.requiredArgument(Option.NO_SHORT_NAME, "validate"), b, "DSC_Validate");
     testNamesOpt = Option.shortDescription(Option.requiredArgument('N', null), b, "DSC_TestNames");
     tagNamesOpt = Option.shortDescription(Option.requiredArgument('T', null), b, "DSC_TagNames");
-    optionSet = Set.of(OptionGroups.allOf(gptTestsOpt), OptionGroups.anyOf(testNamesOpt, tagNamesOpt));
+    shardOpt = Option.shortDescription(Option.requiredArgument(Option.NO_SHORT_NAME, "shard"), b, "DSC_Shard");
+    shardDurationsOpt = Option.shortDescription(Option.requiredArgument(Option.NO_SHORT_NAME, "shard-durations"), b,
+        "DSC_ShardDurations");
+    mergeReportsOpt = Option.shortDescription(Option.additionalArguments(Option.NO_SHORT_NAME, "merge-reports"), b,
+        "DSC_MergeReports");
+    createOpt = Option.shortDescription(Option.requiredArgument(Option.NO_SHORT_NAME, "davalien-create"), b,
+        "DSC_Create");
+    envOpt = Option.shortDescription(Option.requiredArgument(Option.NO_SHORT_NAME, "env"), b, "DSC_Env");
+    metadataTreeOpt = Option.shortDescription(Option.requiredArgument(Option.NO_SHORT_NAME, "metadata-tree"), b,
+        "DSC_MetadataTree");
+    optionSet = Set.of(OptionGroups.allOf(gptTestsOpt), OptionGroups.anyOf(testNamesOpt, tagNamesOpt, shardOpt,
+        shardDurationsOpt),
+        mergeReportsOpt, OptionGroups.allOf(createOpt, envOpt), metadataTreeOpt);
   }
 
   @Override
@@ -77,6 +118,19 @@ public class ValidationOptionProcessor extends OptionProcessor {
   @Override
   protected void process(Env env, Map<Option, String[]> optionValues) throws CommandException {
 
+    if (optionValues.containsKey(mergeReportsOpt)) {
+      doMergeReports(env, optionValues.get(mergeReportsOpt));
+      System.exit(0);
+    }
+    if (optionValues.containsKey(createOpt)) {
+      Locale.setDefault(Locale.ENGLISH); // Force usage of english locale
+      SystemUtils.init3rdPartyLibs(ReinterpretDescriptor.class);
+      String metadataTreePath = optionValues.containsKey(metadataTreeOpt)
+          ? getArgument(optionValues, metadataTreeOpt) : null;
+      int numFailed = doCreate(env, getArgument(optionValues, createOpt), getArgument(optionValues, envOpt),
+          metadataTreePath);
+      System.exit(numFailed > 0 ? 1 : 0);
+    }
     if (optionValues.containsKey(gptTestsOpt)) {
       String actualUpdateInterval = System.getProperty(PROP_PLUGIN_MANAGER_CHECK_INTERVAL);
       try {
@@ -89,6 +143,13 @@ public class ValidationOptionProcessor extends OptionProcessor {
         String[] testNames = getTestNames(optionValues);
         String[] tags = getTags(optionValues);
         Davalien davalien = new Davalien(envPath, testNames, tags);
+        if (optionValues.containsKey(shardOpt)) {
+          int[] shard = parseShard(getArgument(optionValues, shardOpt));
+          davalien.setShard(shard[0], shard[1]);
+          if (optionValues.containsKey(shardDurationsOpt)) {
+            davalien.setShardDurations(Paths.get(getArgument(optionValues, shardDurationsOpt)));
+          }
+        }
 
         doInit(env, davalien);
         List<TestResult> testResults = doExecute(davalien);
@@ -108,6 +169,63 @@ public class ValidationOptionProcessor extends OptionProcessor {
     }
   }
 
+  private static void doMergeReports(Env env, String[] args) throws CommandException {
+    if (args.length < 2) {
+      throw new CommandException(80001,
+          "Missing arguments for option --merge-reports. Expected: <targetDir> <report.json>...");
+    }
+    try {
+      Path targetDir = Paths.get(args[0]);
+      List<Path> reportFiles = Arrays.stream(args, 1, args.length).map(Paths::get).collect(Collectors.toList());
+      TestReport report = ReportMerger.merge(targetDir, reportFiles);
+      env.getOutputStream().printf("Merged %d reports: %d tests (success=%d / error=%d / failure=%d)%n",
+          reportFiles.size(), report.getTestResults().size(), report.getNumSuccessTests(),
+          report.getNumErrorTests(), report.getNumFailureTests());
+      env.getOutputStream().println("Merged report written to: " + targetDir);
+    } catch (IOException e) {
+      CommandException exception = new CommandException(80040, "Error while merging validation reports.");
+      exception.initCause(e);
+      e.printStackTrace(env.getErrorStream());
+      throw exception;
+    }
+  }
+
+  private static int doCreate(Env env, String location, String envPath, String metadataTreePath)
+      throws CommandException {
+    try {
+      List<Path> productPaths = TestDefinitionCreator.findProducts(location);
+      if (productPaths.isEmpty()) {
+        throw new CommandException(80003, "No products found at " + location);
+      }
+      env.getOutputStream().printf("Creating test definitions for %d products%n", productPaths.size());
+      TestDefinitionCreator creator = new TestDefinitionCreator(Paths.get(envPath));
+      creator.setMetadataTreePath(metadataTreePath);
+      return creator.createAll(productPaths, env.getOutputStream());
+    } catch (IOException e) {
+      CommandException exception = new CommandException(80050, "Error while creating test definitions.");
+      exception.initCause(e);
+      e.printStackTrace(env.getErrorStream());
+      throw exception;
+    }
+  }
+
+  // converts the one based <index>/<count> notation into the zero based index and the count
+  static int[] parseShard(String shardString) throws CommandException {
+    String[] split = shardString.replace("=", "").split("/");
+    try {
+      if (split.length == 2) {
+        int index = Integer.parseInt(split[0].trim());
+        int count = Integer.parseInt(split[1].trim());
+        if (count >= 1 && index >= 1 && index <= count) {
+          return new int[]{index - 1, count};
+        }
+      }
+    } catch (NumberFormatException e) {
+      // handled below
+    }
+    throw new CommandException(80002, "Invalid shard '" + shardString + "'. Expected <index>/<count>, e.g. 2/4");
+  }
+
   private static void doReport(Env env, Davalien davalien, List<TestResult> testResults) throws CommandException {
     try {
       davalien.createReport(testResults);
@@ -0,0 +1,222 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+/**
+ * Runs the GPT calls in a long-living {@link GptWorker} process. Each runner owns one worker, so the scheduler has one
+ * worker process per worker thread.
+ *
+ * <p>The worker process is recycled after it has executed a configured number of tests or if the heap usage after a
+ * test exceeds a configured fraction of the maximum heap. Tests which define their own JVM options can't be executed
+ * by a shared worker, these are delegated to a {@link ForkedJvmRunner}.
+ */
+class WorkerPoolRunner implements GptRunner {
+
+  private static final String WORKER_MAIN_CLASS_PROPERTY = "snap.mainClass";
+  private static final AtomicInteger WORKER_COUNTER = new AtomicInteger();
+  private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+  private final Path gptExecutable;
+  private final List<String> jvmOptions;
+  private final Path logDir;
+  private final int maxTestsPerWorker;
+  private final double maxHeapUsage;
+  private final ForkedJvmRunner forkedRunner;
+  private volatile Worker worker;
+  private volatile boolean runningForked;
+
+  /**
+   * Creates a new runner.
+   *
+   * @param gptExecutable     the GPT executable used to launch the worker
+   * @param jvmOptions        the JVM options of the worker
+   * @param logDir            the directory where the output logs are written to
+   * @param maxTestsPerWorker the number of tests after which the worker is recycled
+   * @param maxHeapUsage      the fraction of the maximum heap which, when exceeded, causes the worker to be recycled
+   */
+  WorkerPoolRunner(Path gptExecutable, List<String> jvmOptions, Path logDir, int maxTestsPerWorker,
+      double maxHeapUsage) {
+    this.gptExecutable = gptExecutable;
+    this.jvmOptions = jvmOptions;
+    this.logDir = logDir;
+    this.maxTestsPerWorker = maxTestsPerWorker;
+    this.maxHeapUsage = maxHeapUsage;
+    this.forkedRunner = new ForkedJvmRunner(gptExecutable, jvmOptions, logDir);
+  }
+
+  @Override
+  public void run(TestInst test) throws Exception {
+    if (!test.getTestDef().getJvmOptions().isEmpty()) {
+      runningForked = true;
+      try {
+        forkedRunner.run(test);
+      } finally {
+        runningForked = false;
+      }
+      return;
+    }
+    if (worker == null) {
+      worker = startWorker();
+    }
+    Worker currentWorker = worker;
+    test.setLogs(currentWorker.stdoutLog, currentWorker.stderrLog);
+    GptWorker.Response response;
+    try {
+      response = currentWorker.execute(test.getParamList(), test.getPerformanceSettings().getTileSize());
+    } catch (IOException | InterruptedException e) {
+      worker = null;
+      currentWorker.destroy();
+      throw e;
+    }
+    boolean heapExceeded = response.maxHeap > 0 && (double) response.usedHeap / response.maxHeap > maxHeapUsage;
+    if (heapExceeded || currentWorker.numTests >= maxTestsPerWorker) {
+      worker = null;
+      currentWorker.shutdown();
+    }
+    if (response.settings != null) {
+      test.setEffectivePerformanceSettings(response.settings);
+    }
+    if (!response.success) {
+      throw new DavalienException(
+          String.format("GPT call failed in worker process: %s. For details see %s", response.error,
+              currentWorker.stderrLog));
+    }
+  }
+
+  @Override
+  public String threadDump() {
+    if (runningForked) {
+      return forkedRunner.threadDump();
+    }
+    Worker current = worker;
+    return current != null ? ThreadDumps.ofProcess(current.process) : GptRunner.super.threadDump();
+  }
+
+  @Override
+  public void cancel() {
+    if (runningForked) {
+      forkedRunner.cancel();
+    }
+    Worker current = worker;
+    if (current != null) {
+      // the worker can't be used anymore, reading its response fails and the worker is discarded
+      current.destroy();
+    }
+  }
+
+  @Override
+  public void close() {
+    if (worker != null) {
+      worker.shutdown();
+      worker = null;
+    }
+  }
+
+  private Worker startWorker() throws IOException {
+    Files.createDirectories(logDir);
+    String logName = "worker-" + WORKER_COUNTER.incrementAndGet();
+    Path stdoutLog = logDir.resolve(logName + ".out.log");
+    Path stderrLog = logDir.resolve(logName + ".err.log");
+    List<String> command = new ArrayList<>();
+    command.add(gptExecutable.toString());
+    for (String jvmOption : jvmOptions) {
+      command.add("-J" + jvmOption);
+    }
+    // the SNAP launcher starts the given main class instead of GPT
+    command.add("-J-D" + WORKER_MAIN_CLASS_PROPERTY + "=" + GptWorker.class.getName());
+    // the standard output of the process is used for the responses, the worker writes the GPT output to a file
+    command.add("-J-D" + GptWorker.OUTPUT_LOG_PROPERTY + "=" + stdoutLog.toAbsolutePath());
+    Process process = new ProcessBuilder(command).redirectError(stderrLog.toFile()).start();
+    return new Worker(process, stdoutLog, stderrLog);
+  }
+
+  private static class Worker {
+
+    private final Process process;
+    private final Path stdoutLog;
+    private final Path stderrLog;
+    private final Writer requestWriter;
+    private final BufferedReader responseReader;
+    private int numTests;
+
+    Worker(Process process, Path stdoutLog, Path stderrLog) {
+      this.process = process;
+      this.stdoutLog = stdoutLog;
+      this.stderrLog = stderrLog;
+      requestWriter = new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8);
+      responseReader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    GptWorker.Response execute(List<String> params, Integer tileSize) throws IOException, InterruptedException {
+      numTests++;
+      requestWriter.write(GptWorker.createRequest(params.toArray(new String[0]), tileSize));
+      requestWriter.write('\n');
+      requestWriter.flush();
+      String line;
+      while ((line = responseReader.readLine()) != null) {
+        if (line.startsWith(GptWorker.RESPONSE_PREFIX)) {
+          return GptWorker.parseResponse(line);
+        }
+      }
+      int exitCode = process.waitFor();
+      throw new IOException(
+          String.format("Worker process terminated unexpectedly with exit code %d. For details see %s", exitCode,
+              stderrLog));
+    }
+
+    void shutdown() {
+      try {
+        // closing the input makes the worker terminate
+        requestWriter.close();
+        if (!process.waitFor(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+          destroy();
+        }
+      } catch (IOException e) {
+        Davalien.LOGGER.log(Level.WARNING, "Not able to shut down worker process", e);
+        destroy();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        destroy();
+      }
+    }
+
+    void destroy() {
+      process.destroyForcibly();
+    }
+  }
+}
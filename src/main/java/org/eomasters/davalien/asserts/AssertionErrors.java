@@ -0,0 +1,59 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien.asserts;
+
+import java.io.Serial;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * An {@link AssertionError} which combines the errors of several independent checks, e.g. of the rasters which are
+ * validated concurrently. The errors are kept in the order of the checks.
+ */
+public class AssertionErrors extends AssertionError {
+
+  @Serial
+  private static final long serialVersionUID = 1L;
+
+  private final transient List<AssertionError> errors;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param errors the errors, in the order of the checks
+   */
+  public AssertionErrors(List<AssertionError> errors) {
+    super(errors.stream().map(Throwable::getMessage).collect(Collectors.joining(System.lineSeparator())));
+    this.errors = List.copyOf(errors);
+  }
+
+  /**
+   * Get the combined errors.
+   *
+   * @return the errors
+   */
+  public List<AssertionError> getErrors() {
+    return errors;
+  }
+}
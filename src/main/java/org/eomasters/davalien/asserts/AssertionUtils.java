@@ -23,6 +23,10 @@
 
 package org.eomasters.davalien.asserts;
 
+import org.eomasters.davalien.res.testdef.GeoGrid;
+import org.eomasters.davalien.utils.GeoGridEvaluation;
+import org.esa.snap.core.datamodel.GeoCoding;
+
 class AssertionUtils {
 
   private AssertionUtils() {
@@ -43,4 +47,43 @@ class AssertionUtils {
     }
     return Math.abs(exp - act) < eps;
   }
+
+  /**
+   * Evaluates the geocoding on the grid of the given expectation.
+   *
+   * @param geoCoding the geocoding
+   * @param geoGrid   the expected grid
+   * @param width     the width of the raster
+   * @param height    the height of the raster
+   * @return a description of the failure or {@code null} if the geocoding matches the expectation
+   */
+  static String checkGeoGrid(GeoCoding geoCoding, GeoGrid geoGrid, int width, int height) {
+    double[] lats = geoGrid.getLats();
+    double[] lons = geoGrid.getLons();
+    if (lats == null || lons == null || lats.length != lons.length) {
+      return String.format("Invalid geo grid, the number of latitudes [%d] and longitudes [%d] differs",
+          lats != null ? lats.length : 0, lons != null ? lons.length : 0);
+    }
+    int step = geoGrid.getStep();
+    int numX = GeoGridEvaluation.getNumPoints(width, step);
+    int numPoints = numX * GeoGridEvaluation.getNumPoints(height, step);
+    if (numPoints != lats.length) {
+      return String.format("Expected [%d] grid points with step [%d] but the raster has [%d]", lats.length, step,
+          numPoints);
+    }
+    Double invEps = geoGrid.getInvEps();
+    GeoGridEvaluation evaluation = GeoGridEvaluation.evaluate(geoCoding, width, step, lats, lons, invEps != null);
+    boolean fwdFailed = evaluation.getMaxFwdError() > geoGrid.getFwdEps();
+    boolean invFailed = invEps != null && evaluation.getMaxInvError() > invEps;
+    if (!fwdFailed && !invFailed) {
+      return null;
+    }
+    int fwdIndex = Math.max(evaluation.getMaxFwdIndex(), 0);
+    int invIndex = Math.max(evaluation.getMaxInvIndex(), 0);
+    return String.format("Max forward error [%e] at pixel position [%.1f,%.1f], mean forward error [%e], "
+            + "with fwdEps %e; max inverse error [%e] at pixel position [%.1f,%.1f], with invEps %s",
+        evaluation.getMaxFwdError(), fwdIndex % numX * step + 0.5, fwdIndex / numX * step + 0.5,
+        evaluation.getMeanFwdError(), geoGrid.getFwdEps(), evaluation.getMaxInvError(),
+        invIndex % numX * step + 0.5, invIndex / numX * step + 0.5, invEps);
+  }
 }
@@ -23,9 +23,16 @@
 
 package org.eomasters.davalien.asserts;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import org.assertj.core.api.AbstractAssert;
 import org.assertj.core.api.Assert;
 import org.eomasters.davalien.res.testdef.Metadata;
+import org.eomasters.davalien.res.testdef.MetadataNode;
+import org.eomasters.davalien.res.testdef.MetadataTree;
 import org.eomasters.davalien.utils.MetadataUtils;
 import org.eomasters.davalien.utils.MetadataUtils.MetadataWrapper;
 import org.esa.snap.core.datamodel.MetadataAttribute;
@@ -36,6 +43,8 @@ import org.esa.snap.core.datamodel.MetadataElement;
  */
 public class MetadataAssert extends AbstractAssert<MetadataAssert, MetadataElement> {
 
+  private static final int MAX_DIFFERENCES = 20;
+
   private final MetadataWrapper wrap;
 
   /**
@@ -50,7 +59,8 @@ public class MetadataAssert extends AbstractAssert<MetadataAssert, MetadataEleme
   }
 
   /**
-   * Checks if the {@link MetadataElement} has the given value.
+   * Checks if the {@link MetadataElement} has the given value. If the path of the metadata contains wildcards, at
+   * least one attribute must match and all matching attributes must have the value.
    *
    * @param metadata the {@link Metadata metadata}
    * @param indexOfExpected the index of the expected metadata element
@@ -60,17 +70,120 @@ public class MetadataAssert extends AbstractAssert<MetadataAssert, MetadataEleme
       String path = metadata.getPath();
       String expValue = metadata.getValue();
 
-      MetadataAttribute metadataAttribute = wrap.getElement(path);
+      Map<String, MetadataAttribute> metadataAttributes = wrap.findAttributes(path);
 
-      if (metadataAttribute == null) {
+      if (metadataAttributes.isEmpty()) {
         failWithMessage("Metadata[%d]: No attribute for path [%s] found", indexOfExpected, path);
-      } else {
-        String actValue = metadataAttribute.getData().getElemString();
+      }
+      for (Map.Entry<String, MetadataAttribute> entry : metadataAttributes.entrySet()) {
+        String actValue = entry.getValue().getData().getElemString();
         if (!expValue.equals(actValue)) {
           failWithMessage("Metadata[%d]: Value of metadata attribute [%s] should be [%s] but was [%s]]",
-              indexOfExpected, path, expValue, actValue);
+              indexOfExpected, entry.getKey(), expValue, actValue);
         }
       }
     }
   }
+
+  /**
+   * Checks if the metadata tree, or the subtree at the path of the expectation, has the expected hashes. The actual
+   * tree is hashed once bottom-up. Only subtrees whose hashes differ are compared further, so the reported
+   * differences point to the elements which changed.
+   *
+   * @param expected the expected {@link MetadataTree metadata tree}
+   * @return the current {@link MetadataAssert}
+   */
+  public MetadataAssert hasTree(MetadataTree expected) {
+    if (expected != null) {
+      String path = expected.getPath() != null ? expected.getPath() : "";
+      MetadataElement element = wrap.findElement(path);
+      if (element == null) {
+        failWithMessage("Metadata tree: No element for path [%s] found", path);
+      }
+      MetadataNode actualNode = MetadataNode.create(element, expected.getExcludes());
+      List<String> differences = new ArrayList<>();
+      collectDifferences(expected.getRoot(), actualNode, path, differences);
+      if (!differences.isEmpty()) {
+        failWithMessage("Metadata tree [%s]: Differences found%n  %s", path, String.join("\n  ", differences));
+      }
+    }
+    return this;
+  }
+
+  private static void collectDifferences(MetadataNode expected, MetadataNode actual, String path,
+      List<String> differences) {
+    if (expected.getHash().equals(actual.getHash()) || differences.size() >= MAX_DIFFERENCES) {
+      return;
+    }
+    int numDifferences = differences.size();
+    if (!expected.getName().equals(actual.getName())) {
+      differences.add(String.format("[%s]: Name should be [%s] but was [%s]", path, expected.getName(),
+          actual.getName()));
+    }
+    if (!expected.getAttributesHash().equals(actual.getAttributesHash())) {
+      collectAttributeDifferences(expected.getAttributeHashes(), actual.getAttributeHashes(), path, differences);
+    }
+    Map<String, MetadataNode> expElements = byToken(expected.getElements());
+    Map<String, MetadataNode> actElements = byToken(actual.getElements());
+    for (Map.Entry<String, MetadataNode> entry : expElements.entrySet()) {
+      String elementPath = getPath(path, entry.getKey());
+      MetadataNode actElement = actElements.get(entry.getKey());
+      if (actElement == null) {
+        differences.add(String.format("[%s]: Element is missing", elementPath));
+      } else {
+        collectDifferences(entry.getValue(), actElement, elementPath, differences);
+      }
+    }
+    for (String token : actElements.keySet()) {
+      if (!expElements.containsKey(token)) {
+        differences.add(String.format("[%s]: Element is not expected", getPath(path, token)));
+      }
+    }
+    if (differences.size() == numDifferences) {
+      differences.add(String.format("[%s]: Order of elements differs", path));
+    }
+    if (differences.size() > MAX_DIFFERENCES) {
+      differences.subList(MAX_DIFFERENCES, differences.size()).clear();
+      differences.add("...");
+    }
+  }
+
+  private static void collectAttributeDifferences(Map<String, String> expected, Map<String, String> actual,
+      String path, List<String> differences) {
+    int numDifferences = differences.size();
+    for (Map.Entry<String, String> entry : expected.entrySet()) {
+      String actHash = actual.get(entry.getKey());
+      if (actHash == null) {
+        differences.add(String.format("[%s]: Attribute is missing", getPath(path, entry.getKey())));
+      } else if (!actHash.equals(entry.getValue())) {
+        differences.add(String.format("[%s]: Attribute differs", getPath(path, entry.getKey())));
+      }
+    }
+    for (String name : actual.keySet()) {
+      if (!expected.containsKey(name)) {
+        differences.add(String.format("[%s]: Attribute is not expected", getPath(path, name)));
+      }
+    }
+    if (differences.size() == numDifferences) {
+      differences.add(String.format("[%s]: Order of attributes differs", path));
+    }
+  }
+
+  private static String getPath(String parentPath, String name) {
+    return parentPath.isEmpty() ? name : parentPath + "/" + name;
+  }
+
+  // the same naming of elements as in the paths of the metadata expectations
+  private static Map<String, MetadataNode> byToken(MetadataNode[] elements) {
+    Map<String, Integer> nameCounts = new HashMap<>();
+    for (MetadataNode element : elements) {
+      nameCounts.merge(element.getName(), 1, Integer::sum);
+    }
+    Map<String, MetadataNode> byToken = new LinkedHashMap<>();
+    for (int i = 0; i < elements.length; i++) {
+      String name = elements[i].getName();
+      byToken.put(nameCounts.get(name) > 1 ? name + "[" + i + "]" : name, elements[i]);
+    }
+    return byToken;
+  }
 }
@@ -26,7 +26,9 @@ package org.eomasters.davalien.asserts;
 import static org.eomasters.davalien.asserts.ProductAssertions.assertThat;
 
 import java.awt.Dimension;
+import java.awt.Rectangle;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -36,11 +38,21 @@ import org.assertj.core.api.AbstractAssert;
 import org.assertj.core.api.Assert;
 import org.eomasters.davalien.res.testdef.Coding;
 import org.eomasters.davalien.res.testdef.Coding.Sample;
+import org.eomasters.davalien.res.testdef.GeoGrid;
 import org.eomasters.davalien.res.testdef.GeoLocation;
 import org.eomasters.davalien.res.testdef.Metadata;
+import org.eomasters.davalien.res.testdef.MetadataTree;
 import org.eomasters.davalien.res.testdef.Pixel;
 import org.eomasters.davalien.res.testdef.Raster;
+import org.eomasters.davalien.res.testdef.ReferenceProduct;
+import org.eomasters.davalien.res.testdef.StatisticsMode;
+import org.eomasters.davalien.res.testdef.StatisticsSettings;
 import org.eomasters.davalien.res.testdef.Vector;
+import org.eomasters.davalien.utils.BandStatistics;
+import org.eomasters.davalien.utils.ConcurrencyUtils;
+import org.eomasters.davalien.utils.MultiBandStatistics;
+import org.eomasters.davalien.utils.RasterComparison;
+import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.FlagCoding;
 import org.esa.snap.core.datamodel.GeoCoding;
 import org.esa.snap.core.datamodel.GeoPos;
@@ -214,6 +226,27 @@ public class ProductAssert extends AbstractAssert<ProductAssert, Product> {
     return this;
   }
 
+  /**
+   * Checks if the scene geocoding of the actual product matches the given grid of geolocations.
+   *
+   * @param geoGrid the expected grid of geolocations
+   * @return the current {@link ProductAssert}
+   */
+  public ProductAssert hasGeoGrid(GeoGrid geoGrid) {
+    if (geoGrid != null) {
+      GeoCoding sceneGeoCoding = actual.getSceneGeoCoding();
+      if (sceneGeoCoding == null) {
+        failWithMessage("GeoGrid: No scene geocoding found");
+      }
+      String failure = AssertionUtils.checkGeoGrid(sceneGeoCoding, geoGrid, actual.getSceneRasterWidth(),
+          actual.getSceneRasterHeight());
+      if (failure != null) {
+        failWithMessage("Product GeoGrid: %s", failure);
+      }
+    }
+    return this;
+  }
+
   /**
    * Checks if the actual {@link Product} has the given geolocations.
    *
@@ -260,12 +293,27 @@ public class ProductAssert extends AbstractAssert<ProductAssert, Product> {
   }
 
   /**
-   * Checks if the actual {@link Product} has the given rasters.
+   * Checks if the actual {@link Product} has the given rasters. The rasters are validated concurrently. If the
+   * validation of more than one raster fails, an {@link AssertionErrors} is thrown which contains the errors in the
+   * order of the expected rasters.
    *
    * @param expRasters the expected rasters
    * @return the current {@link ProductAssert}
    */
   public ProductAssert hasRasters(Raster[] expRasters) {
+    return hasRasters(expRasters, null);
+  }
+
+  /**
+   * Checks if the actual {@link Product} has the given rasters. The statistics of rasters which don't define their own
+   * {@link StatisticsSettings} are computed and compared according to the given default settings.
+   *
+   * @param expRasters         the expected rasters
+   * @param statisticsSettings the default statistics settings, may be {@code null}
+   * @return the current {@link ProductAssert}
+   * @see #hasRasters(Raster[])
+   */
+  public ProductAssert hasRasters(Raster[] expRasters, StatisticsSettings statisticsSettings) {
     if (expRasters == null) {
       return this;
     }
@@ -274,31 +322,132 @@ public class ProductAssert extends AbstractAssert<ProductAssert, Product> {
           expRasters.length, actual.getRasterDataNodes().size());
     }
 
-    for (int i = 0; i < expRasters.length; i++) {
-      Raster expRaster = expRasters[i];
-      RasterDataNode actRaster = actual.getRasterDataNode(expRaster.getName());
-      if (actRaster == null) {
-        failWithMessage("Raster[%d]: No raster found with name [%s] ", i, expRaster.getName());
+    StatisticsSettings defaultSettings = statisticsSettings != null ? statisticsSettings
+        : new StatisticsSettings(StatisticsMode.ACCURATE);
+    Map<RasterDataNode, BandStatistics> statistics = computeStatistics(expRasters, defaultSettings);
+    List<AssertionError> errors = ConcurrencyUtils.computeAll(expRasters.length, i -> {
+      try {
+        hasRaster(expRasters[i], i, statistics, getSettings(expRasters[i], defaultSettings));
+        return null;
+      } catch (AssertionError e) {
+        return e;
       }
-      Pixel[] pixels = expRaster.getPixels();
-      GeoLocation[] geoLocations = expRaster.getGeoLocations();
-      assertThat(actRaster).hasName(expRaster.getName(), i)
-                           .hasDescription(expRaster.getDescription())
-                           .hasSize(expRaster.getSize())
-                           .hasDataType(expRaster.getDataType())
-                           .hasNoDataValue(expRaster.getNoDataValue())
-                           .noDataValueIsUsed(expRaster.isNoDataValueUsed())
-                           .hasValidPixelExpression(expRaster.getValidPixelExpression())
-                           .rasterIsOfType(expRaster.getRasterType(), i)
-                           .rasterHasMinimmum(expRaster.getMinimum())
-                           .rasterHasMaximum(expRaster.getMaximum())
-                           .rasterHasHistogram(expRaster.getHistogramBins())
-                           .hasPixels(pixels)
-                           .hasGeoLocations(geoLocations, i);
+    }).stream().filter(Objects::nonNull).collect(Collectors.toList());
+    throwIfFailed(errors);
+    return this;
+  }
+
+  /**
+   * Checks if the rasters of the actual {@link Product} are equal to the rasters of the given reference product. Every
+   * pixel is compared; for each band with differing pixels the number and the bounding box of these pixels, the maximum
+   * absolute error and the RMSE are reported.
+   *
+   * @param reference   the reference product
+   * @param expectation the definition of the comparison
+   * @return the current {@link ProductAssert}
+   */
+  public ProductAssert matchesReferenceProduct(Product reference, ReferenceProduct expectation) {
+    List<String> bandNames = expectation.getBands();
+    if (bandNames.isEmpty()) {
+      bandNames = Arrays.stream(reference.getBands()).map(Band::getName).collect(Collectors.toList());
     }
+    List<AssertionError> errors = new ArrayList<>();
+    for (String bandName : bandNames) {
+      try {
+        matchesReferenceBand(reference, bandName, expectation.getEps());
+      } catch (AssertionError e) {
+        errors.add(e);
+      }
+    }
+    throwIfFailed(errors);
     return this;
   }
 
+  private void matchesReferenceBand(Product reference, String bandName, double eps) {
+    Band refBand = reference.getBand(bandName);
+    if (refBand == null) {
+      failWithMessage("Reference product: No band found with name [%s]", bandName);
+      return;
+    }
+    RasterDataNode actRaster = actual.getRasterDataNode(bandName);
+    if (actRaster == null) {
+      failWithMessage("Raster[%s]: No raster found with this name in the product", bandName);
+      return;
+    }
+    if (!refBand.getRasterSize().equals(actRaster.getRasterSize())) {
+      failWithMessage("Raster[%s]: Size should be [%d,%d] as in the reference product but was [%d,%d]",
+          bandName, refBand.getRasterWidth(), refBand.getRasterHeight(), actRaster.getRasterWidth(),
+          actRaster.getRasterHeight());
+    }
+    RasterComparison comparison = RasterComparison.compare(actRaster, refBand, eps);
+    if (comparison.getDifferingCount() > 0) {
+      Rectangle bounds = comparison.getDifferenceBounds();
+      failWithMessage("Raster[%s]: [%d] of [%d] pixels differ from the reference product with eps %e, "
+              + "within [x=%d,y=%d,w=%d,h=%d]; max abs error [%.8f], RMSE [%.8f]",
+          bandName, comparison.getDifferingCount(), comparison.getComparedCount(), eps,
+          bounds.x, bounds.y, bounds.width, bounds.height, comparison.getMaxAbsError(), comparison.getRmse());
+    }
+  }
+
+  private static void throwIfFailed(List<AssertionError> errors) {
+    if (errors.size() == 1) {
+      throw errors.get(0);
+    } else if (!errors.isEmpty()) {
+      throw new AssertionErrors(errors);
+    }
+  }
+
+  // the statistics of all rasters are computed together, reading each tile only once per pass
+  private Map<RasterDataNode, BandStatistics> computeStatistics(Raster[] expRasters,
+      StatisticsSettings defaultSettings) {
+    List<RasterDataNode> rasters = new ArrayList<>();
+    List<Integer> levels = new ArrayList<>();
+    for (Raster expRaster : expRasters) {
+      RasterDataNode actRaster = actual.getRasterDataNode(expRaster.getName());
+      if (actRaster != null && (expRaster.getMinimum() != null || expRaster.getMaximum() != null
+          || expRaster.getHistogramBins() != null)) {
+        try {
+          levels.add(getSettings(expRaster, defaultSettings).getEffectiveLevel(actRaster));
+          rasters.add(actRaster);
+        } catch (IllegalArgumentException e) {
+          // the level is not available, this is reported by the check of the raster
+        }
+      }
+    }
+    return rasters.isEmpty() ? Map.of() : MultiBandStatistics.compute(rasters, levels);
+  }
+
+  private static StatisticsSettings getSettings(Raster expRaster, StatisticsSettings defaultSettings) {
+    return expRaster.getStatistics() != null ? expRaster.getStatistics() : defaultSettings;
+  }
+
+  private void hasRaster(Raster expRaster, int index, Map<RasterDataNode, BandStatistics> statistics,
+      StatisticsSettings statisticsSettings) {
+    RasterDataNode actRaster = actual.getRasterDataNode(expRaster.getName());
+    if (actRaster == null) {
+      failWithMessage("Raster[%d]: No raster found with name [%s] ", index, expRaster.getName());
+    }
+    Pixel[] pixels = expRaster.getPixels();
+    GeoLocation[] geoLocations = expRaster.getGeoLocations();
+    assertThat(actRaster).withStatistics(statistics.get(actRaster))
+                         .withStatisticsSettings(statisticsSettings)
+                         .hasName(expRaster.getName(), index)
+                         .hasDescription(expRaster.getDescription())
+                         .hasSize(expRaster.getSize())
+                         .hasDataType(expRaster.getDataType())
+                         .hasNoDataValue(expRaster.getNoDataValue())
+                         .noDataValueIsUsed(expRaster.isNoDataValueUsed())
+                         .hasValidPixelExpression(expRaster.getValidPixelExpression())
+                         .rasterIsOfType(expRaster.getRasterType(), index)
+                         .rasterHasMinimmum(expRaster.getMinimum())
+                         .rasterHasMaximum(expRaster.getMaximum())
+                         .rasterHasHistogram(expRaster.getHistogramBins())
+                         .hasPixels(pixels)
+                         .hasTileHashes(expRaster.getTileHashes())
+                         .hasGeoLocations(geoLocations, index)
+                         .hasGeoGrid(expRaster.getGeoGrid());
+  }
+
   /**
    * Checks if the actual {@link Product} has the given metadata.
    *
@@ -307,14 +456,29 @@ public class ProductAssert extends AbstractAssert<ProductAssert, Product> {
    */
   public ProductAssert hasMetadata(Metadata[] metadata) {
     if (metadata != null) {
+      // one assert for all metadata, so the metadata tree is only indexed once
+      MetadataAssert metadataAssert = assertThat(actual.getMetadataRoot());
       for (int i = 0; i < metadata.length; i++) {
         Metadata elem = metadata[i];
-        assertThat(actual.getMetadataRoot()).has(elem, i);
+        metadataAssert.has(elem, i);
       }
     }
     return this;
   }
 
+  /**
+   * Checks if the metadata tree of the actual {@link Product} matches the given hashes.
+   *
+   * @param metadataTree the expected metadata tree
+   * @return the current {@link ProductAssert}
+   */
+  public ProductAssert hasMetadataTree(MetadataTree metadataTree) {
+    if (metadataTree != null) {
+      assertThat(actual.getMetadataRoot()).hasTree(metadataTree);
+    }
+    return this;
+  }
+
   /**
    * Checks if the actual {@link Product} has the given vectors.
    *
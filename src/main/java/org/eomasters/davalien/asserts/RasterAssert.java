@@ -25,21 +25,33 @@ package org.eomasters.davalien.asserts;
 
 import static org.eomasters.davalien.asserts.AssertionUtils.fuzzyEquals;
 
-import com.bc.ceres.core.ProgressMonitor;
 import java.awt.Dimension;
-import java.io.IOException;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.media.jai.PlanarImage;
 import org.assertj.core.api.AbstractAssert;
 import org.assertj.core.api.Assert;
 import org.eomasters.davalien.res.testdef.DataType;
+import org.eomasters.davalien.res.testdef.GeoGrid;
 import org.eomasters.davalien.res.testdef.GeoLocation;
 import org.eomasters.davalien.res.testdef.Pixel;
 import org.eomasters.davalien.res.testdef.RasterType;
+import org.eomasters.davalien.res.testdef.StatisticsMode;
+import org.eomasters.davalien.res.testdef.StatisticsSettings;
+import org.eomasters.davalien.res.testdef.TileHashes;
+import org.eomasters.davalien.utils.BandStatistics;
+import org.eomasters.davalien.utils.ConcurrencyUtils;
+import org.eomasters.davalien.utils.MultiBandStatistics;
+import org.eomasters.davalien.utils.TileHasher;
 import org.esa.snap.core.datamodel.GeoCoding;
 import org.esa.snap.core.datamodel.GeoPos;
 import org.esa.snap.core.datamodel.PixelPos;
 import org.esa.snap.core.datamodel.RasterDataNode;
-import org.esa.snap.core.datamodel.Stx;
 
 /**
  * {@link Assert} implementation for a {@link RasterDataNode}.
@@ -47,6 +59,9 @@ import org.esa.snap.core.datamodel.Stx;
 @SuppressWarnings("UnusedReturnValue")
 public class RasterAssert extends AbstractAssert<RasterAssert, RasterDataNode> {
 
+  private BandStatistics statistics;
+  private StatisticsSettings statisticsSettings = new StatisticsSettings(StatisticsMode.ACCURATE);
+
   /**
    * Creates an assert for the given {@link RasterDataNode }.
    *
@@ -57,6 +72,32 @@ public class RasterAssert extends AbstractAssert<RasterAssert, RasterDataNode> {
     isNotNull();
   }
 
+  /**
+   * Sets precomputed statistics of the actual RasterDataNode, e.g. computed by {@link MultiBandStatistics} together
+   * with other rasters. If not set, the accurate statistics are computed by the raster itself when needed.
+   *
+   * @param statistics the statistics, may be {@code null}
+   * @return the current {@link RasterAssert}
+   */
+  public RasterAssert withStatistics(BandStatistics statistics) {
+    this.statistics = statistics;
+    return this;
+  }
+
+  /**
+   * Sets how the statistics of the actual RasterDataNode are computed and compared. By default, the statistics are
+   * computed accurately and need to be equal to the expectation.
+   *
+   * @param statisticsSettings the settings, {@code null} for the default
+   * @return the current {@link RasterAssert}
+   */
+  public RasterAssert withStatisticsSettings(StatisticsSettings statisticsSettings) {
+    if (statisticsSettings != null) {
+      this.statisticsSettings = statisticsSettings;
+    }
+    return this;
+  }
+
   /**
    * Checks if the actual RasterDataNode has the given name.
    *
@@ -175,29 +216,108 @@ public class RasterAssert extends AbstractAssert<RasterAssert, RasterDataNode> {
   }
 
   /**
-   * Checks if the actual RasterDataNode has the given pixels.
+   * Checks if the actual RasterDataNode has the given pixels. The pixels are grouped by the tiles of the geophysical
+   * image and the data of each tile is read only once. If several pixels don't match, the one with the lowest index is
+   * reported.
    *
    * @param pixels the expected pixels of the RasterDataNode
    * @return the current {@link RasterAssert}
    */
   public RasterAssert hasPixels(Pixel[] pixels) {
+    if (pixels == null || pixels.length == 0) {
+      return this;
+    }
+    PlanarImage image = actual.getGeophysicalImage();
+    Rectangle bounds = image.getBounds();
+    Map<Point, List<Integer>> pixelsByTile = new LinkedHashMap<>();
+    int firstOutside = Integer.MAX_VALUE;
     for (int i = 0; i < pixels.length; i++) {
+      PixelPos location = pixels[i].getPosition();
+      int x = (int) location.getX();
+      int y = (int) location.getY();
+      if (bounds.contains(x, y)) {
+        pixelsByTile.computeIfAbsent(new Point(image.XToTileX(x), image.YToTileY(y)), p -> new ArrayList<>()).add(i);
+      } else if (firstOutside == Integer.MAX_VALUE) {
+        firstOutside = i;
+      }
+    }
+
+    List<List<Integer>> tileGroups = new ArrayList<>(pixelsByTile.values());
+    int firstMismatch = ConcurrencyUtils.computeAll(tileGroups.size(),
+                                            t -> findFirstMismatch(image, pixels, tileGroups.get(t)))
+                                        .stream().mapToInt(Integer::intValue).filter(index -> index >= 0)
+                                        .min().orElse(Integer.MAX_VALUE);
+    if (firstOutside < firstMismatch) {
+      PixelPos location = pixels[firstOutside].getPosition();
+      failWithMessage("Raster[%s] - Pixel[%d]: Pixel position [%.8f,%.8f] is outside of the raster",
+          actual.getName(), firstOutside, location.getX(), location.getY());
+    } else if (firstMismatch != Integer.MAX_VALUE) {
+      int i = firstMismatch;
       Pixel pixel = pixels[i];
       PixelPos location = pixel.getPosition();
-      try {
-        double[] actPixelValue = actual.readPixels((int) location.getX(), (int) location.getY(), 1, 1, new double[1]);
-        if (!fuzzyEquals(actPixelValue[0], pixel.getValue(), pixel.getEps())) {
-          failWithMessage(
-              "Raster[%s] - Pixel[%d]: For pixel position [%.8f,%.8f] expected value [%.8f] but was [%.8f], "
-                  + "with eps %e",
-              actual.getName(), i, location.getX(), location.getY(), pixel.getValue(), actPixelValue[0],
-              pixel.getEps());
-        }
-      } catch (IOException e) {
-        throw new RuntimeException(
-            String.format("Raster[%S] - Pixel[%d]: Failed to read pixel value", actual.getName(), i), e);
+      failWithMessage(
+          "Raster[%s] - Pixel[%d]: For pixel position [%.8f,%.8f] expected value [%.8f] but was [%.8f], "
+              + "with eps %e",
+          actual.getName(), i, location.getX(), location.getY(), pixel.getValue(),
+          readPixel(image, (int) location.getX(), (int) location.getY()), pixel.getEps());
+    }
+    return this;
+  }
+
+  // returns the lowest index of the pixels in the group which don't match, or -1
+  private static int findFirstMismatch(PlanarImage image, Pixel[] pixels, List<Integer> group) {
+    Rectangle region = null;
+    for (int i : group) {
+      PixelPos location = pixels[i].getPosition();
+      Rectangle pixelRect = new Rectangle((int) location.getX(), (int) location.getY(), 1, 1);
+      region = region == null ? pixelRect : region.union(pixelRect);
+    }
+    java.awt.image.Raster data = image.getData(region);
+    for (int i : group) {
+      Pixel pixel = pixels[i];
+      PixelPos location = pixel.getPosition();
+      double actValue = data.getSampleDouble((int) location.getX(), (int) location.getY(), 0);
+      if (!fuzzyEquals(actValue, pixel.getValue(), pixel.getEps())) {
+        return i;
       }
+    }
+    return -1;
+  }
+
+  private static double readPixel(PlanarImage image, int x, int y) {
+    return image.getData(new Rectangle(x, y, 1, 1)).getSampleDouble(x, y, 0);
+  }
 
+  /**
+   * Checks if the raw data of the actual RasterDataNode has the given tile hashes. The tiles are hashed concurrently.
+   * All differing tiles are reported with their tile coordinates.
+   *
+   * @param tileHashes the expected tile hashes of the RasterDataNode
+   * @return the current {@link RasterAssert}
+   */
+  public RasterAssert hasTileHashes(TileHashes tileHashes) {
+    if (tileHashes == null) {
+      return this;
+    }
+    int tileWidth = tileHashes.getTileWidth();
+    int tileHeight = tileHashes.getTileHeight();
+    List<String> actualHashes = TileHasher.computeHashes(actual, tileWidth, tileHeight);
+    String[] expectedHashes = tileHashes.getHashes();
+    if (actualHashes.size() != expectedHashes.length) {
+      failWithMessage("Raster[%s]: Number of tile hashes should be [%d] but was [%d] for tile size [%d,%d]",
+          actual.getName(), expectedHashes.length, actualHashes.size(), tileWidth, tileHeight);
+    }
+    int numXTiles = TileHasher.getNumTiles(actual.getRasterWidth(), tileWidth);
+    List<String> differingTiles = new ArrayList<>();
+    for (int i = 0; i < expectedHashes.length; i++) {
+      if (!expectedHashes[i].equalsIgnoreCase(actualHashes.get(i))) {
+        differingTiles.add(String.format("[%d,%d]", i % numXTiles, i / numXTiles));
+      }
+    }
+    if (!differingTiles.isEmpty()) {
+      failWithMessage("Raster[%s]: Data of [%d] of [%d] tiles differs, tile size [%d,%d], tiles %s",
+          actual.getName(), differingTiles.size(), expectedHashes.length, tileWidth, tileHeight,
+          String.join(", ", differingTiles));
     }
     return this;
   }
@@ -247,6 +367,27 @@ public class RasterAssert extends AbstractAssert<RasterAssert, RasterDataNode> {
     return this;
   }
 
+  /**
+   * Checks if the geocoding of the actual RasterDataNode matches the given grid of geolocations.
+   *
+   * @param geoGrid the expected grid of geolocations
+   * @return the current {@link RasterAssert}
+   */
+  public RasterAssert hasGeoGrid(GeoGrid geoGrid) {
+    if (geoGrid != null) {
+      GeoCoding geoCoding = actual.getGeoCoding();
+      if (geoCoding == null) {
+        failWithMessage("Raster[%s] - GeoGrid: No geocoding found", actual.getName());
+      }
+      String failure = AssertionUtils.checkGeoGrid(geoCoding, geoGrid, actual.getRasterWidth(),
+          actual.getRasterHeight());
+      if (failure != null) {
+        failWithMessage("Raster[%s] - GeoGrid: %s", actual.getName(), failure);
+      }
+    }
+    return this;
+  }
+
   /**
    * Checks if the actual RasterDataNode has the given minimum value.
    *
@@ -255,10 +396,11 @@ public class RasterAssert extends AbstractAssert<RasterAssert, RasterDataNode> {
    */
   public RasterAssert rasterHasMinimmum(Double minimum) {
     if (minimum != null) {
-      Stx stx = actual.getStx(true, ProgressMonitor.NULL);
-      if (!fuzzyEquals(stx.getMinimum(), minimum, 1e-8)) {
-        failWithMessage("Raster[%s]: Minimum should be [%.8f] but was [%.8f]",
-            actual.getName(), minimum, stx.getMinimum());
+      BandStatistics stats = getStatistics();
+      double eps = statisticsSettings.getMinMaxEps();
+      if (!fuzzyEquals(stats.getMinimum(), minimum, eps)) {
+        failWithMessage("Raster[%s]: Minimum should be [%.8f] but was [%.8f], with eps %e",
+            actual.getName(), minimum, stats.getMinimum(), eps);
       }
     }
     return this;
@@ -272,10 +414,11 @@ public class RasterAssert extends AbstractAssert<RasterAssert, RasterDataNode> {
    */
   public RasterAssert rasterHasMaximum(Double maximum) {
     if (maximum != null) {
-      Stx stx = actual.getStx(true, ProgressMonitor.NULL);
-      if (!fuzzyEquals(stx.getMaximum(), maximum, 1e-8)) {
-        failWithMessage("Raster[%s]: Maximum should be [%.8f] but was [%.8f]",
-            actual.getName(), maximum, stx.getMaximum());
+      BandStatistics stats = getStatistics();
+      double eps = statisticsSettings.getMinMaxEps();
+      if (!fuzzyEquals(stats.getMaximum(), maximum, eps)) {
+        failWithMessage("Raster[%s]: Maximum should be [%.8f] but was [%.8f], with eps %e",
+            actual.getName(), maximum, stats.getMaximum(), eps);
       }
     }
     return this;
@@ -289,14 +432,35 @@ public class RasterAssert extends AbstractAssert<RasterAssert, RasterDataNode> {
    */
   public RasterAssert rasterHasHistogram(int[] expectedBins) {
     if (expectedBins != null) {
-      Stx stx = actual.getStx(true, ProgressMonitor.NULL);
-      int[] actualBins = stx.getHistogram().getBins(0);
-      if (!Arrays.equals(expectedBins, actualBins)) {
-        failWithMessage("Raster[%s]: Histogram bins are not equal. Expected: %s, actual: %s",
-            actual.getName(), Arrays.toString(expectedBins), Arrays.toString(actualBins));
+      int[] actualBins = getStatistics().getHistogramBins();
+      double eps = statisticsSettings.getHistogramEps();
+      if (eps <= 0) {
+        if (!Arrays.equals(expectedBins, actualBins)) {
+          failWithMessage("Raster[%s]: Histogram bins are not equal. Expected: %s, actual: %s",
+              actual.getName(), Arrays.toString(expectedBins), Arrays.toString(actualBins));
+        }
+      } else {
+        double distance = StatisticsSettings.histogramDistance(expectedBins, actualBins);
+        if (distance > eps) {
+          failWithMessage("Raster[%s]: Histogram bins differ by [%.8f], with eps %e. Expected: %s, actual: %s",
+              actual.getName(), distance, eps, Arrays.toString(expectedBins), Arrays.toString(actualBins));
+        }
       }
     }
     return this;
   }
 
+  private BandStatistics getStatistics() {
+    if (statistics == null) {
+      int level = 0;
+      try {
+        level = statisticsSettings.getEffectiveLevel(actual);
+      } catch (IllegalArgumentException e) {
+        failWithMessage("Raster[%s]: %s", actual.getName(), e.getMessage());
+      }
+      statistics = MultiBandStatistics.computeSingle(actual, level);
+    }
+    return statistics;
+  }
+
 }
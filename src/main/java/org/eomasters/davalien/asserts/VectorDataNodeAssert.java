@@ -24,12 +24,18 @@
 package org.eomasters.davalien.asserts;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
 import org.assertj.core.api.AbstractAssert;
 import org.assertj.core.api.Assert;
+import org.eomasters.davalien.res.testdef.FeatureAttribute;
 import org.eomasters.davalien.res.testdef.Vector;
+import org.eomasters.davalien.res.testdef.VectorFeatures;
+import org.eomasters.davalien.utils.FeatureStatistics;
 import org.esa.snap.core.datamodel.Product;
 import org.esa.snap.core.datamodel.ProductNodeGroup;
 import org.esa.snap.core.datamodel.VectorDataNode;
+import org.geotools.data.simple.SimpleFeatureIterator;
 
 /**
  * {@link Assert} implementation for a {@link VectorDataNode}.
@@ -71,6 +77,9 @@ public class VectorDataNodeAssert extends AbstractAssert<VectorDataNodeAssert, P
           failWithMessage("Vector[%d]: Number of features of vector [%s] should be [%d] but was [%d]",
               indexOfExpected, name, vector.getNumFeatures(), vectorNode.getFeatureCollection().size());
         }
+        if (vector.getFeatures() != null) {
+          hasFeatures(vector.getFeatures(), vectorNode, indexOfExpected);
+        }
       } catch (IOException e) {
         String msg = String.format(
             "Vector[%d]: Not able to retrieve features from vector node [%s] which shall have [%d] features(s)",
@@ -80,4 +89,56 @@ public class VectorDataNodeAssert extends AbstractAssert<VectorDataNodeAssert, P
     }
     return this;
   }
+
+  private void hasFeatures(VectorFeatures expected, VectorDataNode vectorNode, int indexOfExpected) {
+    String name = vectorNode.getName();
+    FeatureStatistics statistics;
+    try (SimpleFeatureIterator iterator = vectorNode.getFeatureCollection().features()) {
+      statistics = FeatureStatistics.compute(iterator);
+    }
+    double eps = expected.getEps();
+    double[] expBounds = expected.getBounds();
+    double[] actBounds = statistics.getBounds();
+    if (expBounds != null) {
+      if (actBounds == null) {
+        failWithMessage("Vector[%d]: Bounds of vector [%s] should be %s but vector has no geometries",
+            indexOfExpected, name, Arrays.toString(expBounds));
+      }
+      for (int i = 0; i < expBounds.length; i++) {
+        if (!relativeEquals(expBounds[i], actBounds[i], eps)) {
+          failWithMessage("Vector[%d]: Bounds of vector [%s] should be %s but was %s, with eps %e",
+              indexOfExpected, name, Arrays.toString(expBounds), Arrays.toString(actBounds), eps);
+        }
+      }
+    }
+    if (expected.getGeometryTypes() != null
+        && !expected.getGeometryTypes().equals(statistics.getGeometryTypes())) {
+      failWithMessage("Vector[%d]: Geometry types of vector [%s] should be %s but was %s",
+          indexOfExpected, name, expected.getGeometryTypes(), statistics.getGeometryTypes());
+    }
+    if (expected.getAttributes() != null) {
+      for (Map.Entry<String, FeatureAttribute> entry : expected.getAttributes().entrySet()) {
+        String attributeName = entry.getKey();
+        FeatureAttribute expAttribute = entry.getValue();
+        FeatureStatistics.Attribute actAttribute = statistics.getAttributes().get(attributeName);
+        if (actAttribute == null) {
+          failWithMessage("Vector[%d]: No numeric attribute [%s] found in vector [%s]",
+              indexOfExpected, attributeName, name);
+        } else if (!relativeEquals(expAttribute.getMin(), actAttribute.getMin(), eps)
+            || !relativeEquals(expAttribute.getMax(), actAttribute.getMax(), eps)
+            || !relativeEquals(expAttribute.getSum(), actAttribute.getSum(), eps)) {
+          failWithMessage("Vector[%d]: Attribute [%s] of vector [%s] should have min/max/sum [%s, %s, %s] "
+                  + "but was [%s, %s, %s], with eps %e",
+              indexOfExpected, attributeName, name, expAttribute.getMin(), expAttribute.getMax(),
+              expAttribute.getSum(), actAttribute.getMin(), actAttribute.getMax(), actAttribute.getSum(), eps);
+        }
+      }
+    }
+  }
+
+  // sums of many features can be large, so the tolerance scales with the value
+  private static boolean relativeEquals(double exp, double act, double eps) {
+    return AssertionUtils.fuzzyEquals(exp, act, eps * Math.max(1.0, Math.abs(exp)))
+        || Double.compare(exp, act) == 0;
+  }
 }
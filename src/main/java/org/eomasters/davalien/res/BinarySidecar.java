@@ -0,0 +1,224 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien.res;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A binary container for the bulky arrays of a test definition, stored next to the JSON file. The JSON file refers to
+ * the arrays by their index in the container.
+ *
+ * <p>The file starts with the magic number, the version and the number of arrays, followed by the offsets of the
+ * arrays. Each array consists of its type, its length and its elements.
+ *
+ * <p>The file is read completely into memory when it is opened, it is not memory-mapped. A mapped file can't be
+ * deleted or replaced on Windows until the mapping is garbage collected, which would break rewriting a definition.
+ * An array is decoded when it is requested. This happens for all arrays while the expectation is parsed, because the
+ * expectation holds plain arrays. The expectation itself is only loaded for the tests which are executed.
+ */
+class BinarySidecar {
+
+  private static final int MAGIC = 0x44564C42; // "DVLB"
+  private static final int VERSION = 1;
+  private static final byte TYPE_INT = 1;
+  private static final byte TYPE_DOUBLE = 2;
+  private static final byte TYPE_STRING = 3;
+
+  private final ByteBuffer buffer;
+  private final int numArrays;
+
+  private BinarySidecar(ByteBuffer buffer, int numArrays) {
+    this.buffer = buffer;
+    this.numArrays = numArrays;
+  }
+
+  /**
+   * Opens the given sidecar file.
+   *
+   * @param file the file
+   * @return the sidecar
+   * @throws IOException if the file can't be read or is not a sidecar file
+   */
+  static BinarySidecar open(Path file) throws IOException {
+    ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+    if (buffer.limit() < 12 || buffer.getInt(0) != MAGIC) {
+      throw new IOException("Not a binary sidecar file: " + file);
+    }
+    if (buffer.getInt(4) != VERSION) {
+      throw new IOException("Unsupported version " + buffer.getInt(4) + " of binary sidecar file: " + file);
+    }
+    return new BinarySidecar(buffer, buffer.getInt(8));
+  }
+
+  /**
+   * Get the array with the given index.
+   *
+   * @param index the index of the array
+   * @return the array, an {@code int[]}, {@code double[]} or {@code String[]}
+   */
+  Object getArray(int index) {
+    if (index < 0 || index >= numArrays) {
+      throw new IllegalArgumentException("Invalid array index in binary sidecar: " + index);
+    }
+    // a duplicate, so concurrent reads don't share the position
+    ByteBuffer data = buffer.duplicate();
+    data.position((int) buffer.getLong(12 + index * 8));
+    byte type = data.get();
+    int length = data.getInt();
+    switch (type) {
+      case TYPE_INT:
+        int[] ints = new int[length];
+        data.asIntBuffer().get(ints);
+        return ints;
+      case TYPE_DOUBLE:
+        double[] doubles = new double[length];
+        data.asDoubleBuffer().get(doubles);
+        return doubles;
+      case TYPE_STRING:
+        String[] strings = new String[length];
+        for (int i = 0; i < length; i++) {
+          int numBytes = data.getInt();
+          if (numBytes >= 0) {
+            byte[] bytes = new byte[numBytes];
+            data.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+          }
+        }
+        return strings;
+      default:
+        throw new IllegalStateException("Unknown array type in binary sidecar: " + type);
+    }
+  }
+
+  /**
+   * Collects the arrays of a test definition and writes them into a sidecar file.
+   */
+  static class Writer {
+
+    private final List<Object> arrays = new ArrayList<>();
+
+    /**
+     * Adds an array.
+     *
+     * @param array an {@code int[]}, {@code double[]} or {@code String[]}
+     * @return the index of the array
+     */
+    synchronized int add(Object array) {
+      if (!(array instanceof int[]) && !(array instanceof double[]) && !(array instanceof String[])) {
+        throw new IllegalArgumentException("Unsupported array type: " + array.getClass());
+      }
+      arrays.add(array);
+      return arrays.size() - 1;
+    }
+
+    /**
+     * Checks if no arrays have been added.
+     *
+     * @return {@code true} if empty
+     */
+    boolean isEmpty() {
+      return arrays.isEmpty();
+    }
+
+    /**
+     * Writes the arrays into the given file.
+     *
+     * @param file the file
+     * @throws IOException if the file can't be written
+     */
+    void write(Path file) throws IOException {
+      long[] offsets = new long[arrays.size()];
+      long offset = 12 + 8L * arrays.size();
+      for (int i = 0; i < arrays.size(); i++) {
+        offsets[i] = offset;
+        offset += getSize(arrays.get(i));
+      }
+      try (OutputStream stream = Files.newOutputStream(file);
+          DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(arrays.size());
+        for (long arrayOffset : offsets) {
+          out.writeLong(arrayOffset);
+        }
+        for (Object array : arrays) {
+          writeArray(out, array);
+        }
+      }
+    }
+
+    private static long getSize(Object array) {
+      if (array instanceof int[]) {
+        return 5 + 4L * ((int[]) array).length;
+      } else if (array instanceof double[]) {
+        return 5 + 8L * ((double[]) array).length;
+      }
+      long size = 5;
+      for (String string : (String[]) array) {
+        size += 4 + (string != null ? string.getBytes(StandardCharsets.UTF_8).length : 0);
+      }
+      return size;
+    }
+
+    private static void writeArray(DataOutputStream out, Object array) throws IOException {
+      if (array instanceof int[]) {
+        int[] ints = (int[]) array;
+        out.writeByte(TYPE_INT);
+        out.writeInt(ints.length);
+        for (int value : ints) {
+          out.writeInt(value);
+        }
+      } else if (array instanceof double[]) {
+        double[] doubles = (double[]) array;
+        out.writeByte(TYPE_DOUBLE);
+        out.writeInt(doubles.length);
+        for (double value : doubles) {
+          out.writeDouble(value);
+        }
+      } else {
+        String[] strings = (String[]) array;
+        out.writeByte(TYPE_STRING);
+        out.writeInt(strings.length);
+        for (String string : strings) {
+          if (string == null) {
+            out.writeInt(-1);
+          } else {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+          }
+        }
+      }
+    }
+  }
+}
@@ -36,9 +36,11 @@ import com.google.gson.JsonSerializer;
 import com.google.gson.TypeAdapter;
 import com.google.gson.reflect.TypeToken;
 import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
 import java.awt.Dimension;
 import java.io.IOException;
+import java.io.PrintStream;
 import java.io.PrintWriter;
 import java.io.Reader;
 import java.io.StringWriter;
@@ -46,20 +48,19 @@ import java.lang.reflect.Type;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.text.ParseException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.TreeMap;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import org.eomasters.davalien.EnvConfig;
+import org.eomasters.davalien.res.testdef.ProductContent;
 import org.eomasters.davalien.res.testdef.TestDefinition;
 import org.esa.snap.core.datamodel.GeoPos;
 import org.esa.snap.core.datamodel.PixelPos;
@@ -73,6 +74,7 @@ import org.esa.snap.core.datamodel.ProductData.UTC;
  */
 public class JsonHelper {
 
+  private static final String EXPECTATION = "expectation";
   private static final Gson gson;
 
   static {
@@ -91,27 +93,112 @@ public class JsonHelper {
   }
 
   /**
-   * Loads all test definitions from the given directory.
+   * Loads the expectation of a test definition read by {@link #readTestDefinition(Path)} from its file, if not
+   * already loaded.
    *
-   * @param fromDir the directory
-   * @return a list of test definitions
-   * @throws IOException if an I/O error occurs
+   * @param testDef the test definition
+   * @throws IOException if the expectation can't be read
    */
-  public static List<TestDefinition> getTestDefinitions(Path fromDir) throws IOException {
-    List<Path> testDefFiles;
-    try (Stream<Path> list = Files.list(fromDir)) {
-      testDefFiles = list
-          .filter(f -> f.getFileName().toString().matches("test-.*\\.json"))
-          .collect(Collectors.toList());
-    }
-    Set<TestDefinition> testDefinitions = new HashSet<>();
-    for (Path testDefFile : testDefFiles) {
-      TestDefinition testDef = readTestDefinition(testDefFile);
-      if (!testDefinitions.add(testDef)) {
-        throw new IllegalStateException("Duplicate test name: " + testDef.getTestName());
+  public static void loadExpectation(TestDefinition testDef) throws IOException {
+    Path testDefFile = testDef.getDefinitionFile();
+    if (testDef.getExpectation() != null || testDefFile == null) {
+      return;
+    }
+    try (JsonReader reader = new JsonReader(Files.newBufferedReader(testDefFile))) {
+      Path sidecarFile = getSidecarFile(testDefFile);
+      Gson expectationGson = gson;
+      if (Files.exists(sidecarFile)) {
+        BinarySidecar sidecar = BinarySidecar.open(sidecarFile);
+        expectationGson = gson.newBuilder()
+                              .registerTypeAdapterFactory(SidecarTypeAdapterFactory.forReading(sidecar))
+                              .create();
       }
+      reader.beginObject();
+      while (reader.hasNext()) {
+        if (EXPECTATION.equals(reader.nextName())) {
+          testDef.setExpectation(expectationGson.fromJson(reader, ProductContent.class));
+          return;
+        }
+        reader.skipValue();
+      }
+    } catch (Exception e) {
+      throw new IOException(String.format("Error reading expectation of test definition file [%s]",
+          testDefFile.getFileName()), e);
     }
-    return new ArrayList<>(testDefinitions);
+    throw new IOException("Element 'expectation' must be provided: " + testDefFile);
+  }
+
+  /**
+   * Writes a test definition to the given file. If {@code binarySidecar} is {@code true}, large arrays of the
+   * expectation, like histogram bins, geolocation grids and tile hashes, are written into a binary sidecar file
+   * ({@code test-<name>.bin}) next to the JSON file, see {@link #getSidecarFile(Path)}. The header of the definition,
+   * e.g. the tags and the JVM options, is always written as plain JSON. A sidecar file of a previous version of the
+   * definition is removed if it is not needed anymore.
+   *
+   * <p>Both files are written to temporary files first, which then replace the existing files, the sidecar first and
+   * the JSON file last. So a failed write leaves the previous definition intact and a reader never sees a partially
+   * written file.
+   *
+   * @param testDef       the test definition
+   * @param testDefFile   the JSON file
+   * @param binarySidecar whether large arrays shall be written into a binary sidecar file
+   * @throws IOException if the files can't be written
+   */
+  public static void writeTestDefinition(TestDefinition testDef, Path testDefFile, boolean binarySidecar)
+      throws IOException {
+    Path sidecarFile = getSidecarFile(testDefFile);
+    BinarySidecar.Writer writer = new BinarySidecar.Writer();
+    String json;
+    if (binarySidecar) {
+      // only the expectation is written with the sidecar, arrays of the header like the tags stay in the JSON
+      Gson expectationGson = gson.newBuilder()
+                                 .registerTypeAdapterFactory(SidecarTypeAdapterFactory.forWriting(writer))
+                                 .create();
+      TypeAdapter<ProductContent> expectationAdapter = expectationGson.getAdapter(ProductContent.class);
+      json = gson.newBuilder()
+                 .registerTypeAdapter(ProductContent.class, expectationAdapter)
+                 .create()
+                 .toJson(testDef);
+    } else {
+      json = toJson(testDef);
+    }
+    Path tempFile = createTempSibling(testDefFile);
+    Path tempSidecar = writer.isEmpty() ? null : createTempSibling(sidecarFile);
+    try {
+      Files.writeString(tempFile, json);
+      if (tempSidecar != null) {
+        writer.write(tempSidecar);
+        Files.move(tempSidecar, sidecarFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      }
+      Files.move(tempFile, testDefFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      if (tempSidecar == null) {
+        // not referenced anymore by the new JSON file
+        Files.deleteIfExists(sidecarFile);
+      }
+    } finally {
+      Files.deleteIfExists(tempFile);
+      if (tempSidecar != null) {
+        Files.deleteIfExists(tempSidecar);
+      }
+    }
+  }
+
+  private static Path createTempSibling(Path file) throws IOException {
+    return Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName() + "-", ".tmp");
+  }
+
+  /**
+   * Get the binary sidecar file which belongs to the given test definition file. It has the same name but the
+   * extension {@code .bin}. The file might not exist.
+   *
+   * @param testDefFile the test definition file
+   * @return the sidecar file
+   */
+  public static Path getSidecarFile(Path testDefFile) {
+    String fileName = testDefFile.getFileName().toString();
+    int extensionStart = fileName.lastIndexOf('.');
+    String baseName = extensionStart > 0 ? fileName.substring(0, extensionStart) : fileName;
+    return testDefFile.resolveSibling(baseName + ".bin");
   }
 
   /**
@@ -171,12 +258,31 @@ public class JsonHelper {
   }
 
 
-  private static TestDefinition readTestDefinition(Path testDefFile) throws IOException {
+  /**
+   * Reads the header of a test definition file. The expectation is only skipped and not loaded, see
+   * {@link #loadExpectation(TestDefinition)}.
+   *
+   * @param testDefFile the test definition file
+   * @return the test definition without expectation
+   * @throws IOException if the file can't be read or is not a valid test definition
+   */
+  public static TestDefinition readTestDefinition(Path testDefFile) throws IOException {
     TestDefinition testDef;
-    try {
-      testDef = gson.fromJson(Files.newBufferedReader(testDefFile),
-          new TypeToken<TestDefinition>() {
-          }.getType());
+    boolean hasExpectation = false;
+    try (JsonReader reader = new JsonReader(Files.newBufferedReader(testDefFile))) {
+      JsonObject header = new JsonObject();
+      reader.beginObject();
+      while (reader.hasNext()) {
+        String name = reader.nextName();
+        if (EXPECTATION.equals(name)) {
+          hasExpectation = reader.peek() != JsonToken.NULL;
+          reader.skipValue();
+        } else {
+          header.add(name, gson.fromJson(reader, JsonElement.class));
+        }
+      }
+      reader.endObject();
+      testDef = gson.fromJson(header, TestDefinition.class);
     } catch (Exception e) {
       throw new IOException(String.format("Error reading test definition file [%s]", testDefFile.getFileName()), e);
     }
@@ -193,9 +299,10 @@ public class JsonHelper {
     if (gptCall == null || gptCall.isEmpty() || TestDefinition.GPT_CALL_REMINDER.equals(gptCall)) {
       throw new IOException("Element 'gptCall' must be provided and not empty: " + testDefFile);
     }
-    if (testDef.getExpectation() == null) {
+    if (!hasExpectation) {
       throw new IOException("Element 'expectation' must be provided: " + testDefFile);
     }
+    testDef.setDefinitionFile(testDefFile);
     return testDef;
   }
 
@@ -273,7 +380,7 @@ public class JsonHelper {
     }
   }
 
-  private static class ThrowableAdapter implements JsonSerializer<Throwable> {
+  private static class ThrowableAdapter implements JsonSerializer<Throwable>, JsonDeserializer<Throwable> {
 
     @Override
     public JsonElement serialize(Throwable exception, Type typeOfSrc, JsonSerializationContext context) {
@@ -287,6 +394,74 @@ public class JsonHelper {
       }
       return jsonObject;
     }
+
+    @Override
+    public Throwable deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context)
+        throws JsonParseException {
+      JsonObject jsonObject = json.getAsJsonObject();
+      String message = jsonObject.has("message") ? context.deserialize(jsonObject.get("message"), String.class) : null;
+      String stacktrace = jsonObject.has("stacktrace") ? jsonObject.get("stacktrace").getAsString() : null;
+      Throwable cause = jsonObject.has("cause") ? context.deserialize(jsonObject.get("cause"), Throwable.class) : null;
+      if (typeOfT instanceof Class && AssertionError.class.isAssignableFrom((Class<?>) typeOfT)) {
+        return new StoredAssertionError(message, stacktrace, cause);
+      }
+      return new StoredException(message, stacktrace, cause);
+    }
+  }
+
+  /**
+   * An exception read from a report. Only the message, the stack trace as text and the cause are known.
+   */
+  private static class StoredException extends Exception {
+
+    private final String stacktrace;
+
+    StoredException(String message, String stacktrace, Throwable cause) {
+      super(message, cause, false, false);
+      this.stacktrace = stacktrace;
+    }
+
+    @Override
+    public void printStackTrace(PrintWriter s) {
+      printStoredStackTrace(this, stacktrace, s);
+    }
+
+    @Override
+    public void printStackTrace(PrintStream s) {
+      printStoredStackTrace(this, stacktrace, new PrintWriter(s, true));
+    }
+  }
+
+  /**
+   * An assertion error read from a report. Only the message, the stack trace as text and the cause are known.
+   */
+  private static class StoredAssertionError extends AssertionError {
+
+    private final String stacktrace;
+
+    StoredAssertionError(String message, String stacktrace, Throwable cause) {
+      super(message, cause);
+      this.stacktrace = stacktrace;
+    }
+
+    @Override
+    public void printStackTrace(PrintWriter s) {
+      printStoredStackTrace(this, stacktrace, s);
+    }
+
+    @Override
+    public void printStackTrace(PrintStream s) {
+      printStoredStackTrace(this, stacktrace, new PrintWriter(s, true));
+    }
+  }
+
+  private static void printStoredStackTrace(Throwable throwable, String stacktrace, PrintWriter writer) {
+    if (stacktrace != null) {
+      writer.print(stacktrace);
+    } else {
+      writer.println(throwable.getMessage());
+    }
+    writer.flush();
   }
 
   private static class PathAdapter implements JsonSerializer<Path>, JsonDeserializer<Path> {
@@ -303,12 +478,23 @@ public class JsonHelper {
     }
   }
 
-  private static class LocalDateTimeAdapter implements JsonSerializer<LocalDateTime> {
+  private static class LocalDateTimeAdapter implements JsonSerializer<LocalDateTime>,
+      JsonDeserializer<LocalDateTime> {
 
     @Override
     public JsonElement serialize(LocalDateTime localDateTime, Type typeOfSrc, JsonSerializationContext context) {
       return context.serialize(localDateTime.withNano(0).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
     }
+
+    @Override
+    public LocalDateTime deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context)
+        throws JsonParseException {
+      try {
+        return LocalDateTime.parse(json.getAsString(), DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+      } catch (DateTimeParseException e) {
+        throw new JsonParseException("Cannot parse date: " + json.getAsString(), e);
+      }
+    }
   }
 
   /**
@@ -27,9 +27,7 @@ import static org.eomasters.davalien.utils.FileUtils.getOptionalFile;
 
 import java.io.IOException;
 import java.nio.file.Path;
-import java.util.List;
 import java.util.Map;
-import org.eomasters.davalien.res.testdef.TestDefinition;
 
 /**
  * Class for accessing the resources.
@@ -58,17 +56,6 @@ public class Resources {
     return resources;
   }
 
-  /**
-   * Returns the test definitions.
-   *
-   * @param testsDir the tests directory
-   * @return the test definitions
-   * @throws IOException if an I/O error occurs
-   */
-  public List<TestDefinition> getTestDefinitions(Path testsDir) throws IOException {
-    return JsonHelper.getTestDefinitions(envPath.resolve(testsDir));
-  }
-
   /**
    * Returns the source products.
    *
@@ -125,4 +112,20 @@ public class Resources {
     return resource;
   }
 
+  /**
+   * Returns the absolute path of the resource specified by the given type and id. A relative path is resolved against
+   * the environment path.
+   *
+   * @param type the resource type
+   * @param id   the resource id
+   * @return the path of the resource
+   */
+  public Path getResourcePath(String type, String id) {
+    Path path = Path.of(getResource(type, id).getPath());
+    if (!path.isAbsolute()) {
+      path = envPath.resolve(path);
+    }
+    return path.toAbsolutePath();
+  }
+
 }
@@ -0,0 +1,103 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien.res;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.lang.reflect.Array;
+
+/**
+ * Moves large {@code int[]}, {@code double[]} and {@code String[]} arrays, like histogram bins, geolocation grids and
+ * tile hashes, into a {@link BinarySidecar}. In the JSON such an array is replaced by a reference
+ * <code>{"$bin": index}</code>. Small arrays stay in the JSON, so it remains editable.
+ */
+class SidecarTypeAdapterFactory implements TypeAdapterFactory {
+
+  private static final String REFERENCE = "$bin";
+  private static final int MIN_LENGTH = 64;
+
+  private final BinarySidecar.Writer writer;
+  private final BinarySidecar sidecar;
+
+  private SidecarTypeAdapterFactory(BinarySidecar.Writer writer, BinarySidecar sidecar) {
+    this.writer = writer;
+    this.sidecar = sidecar;
+  }
+
+  static SidecarTypeAdapterFactory forWriting(BinarySidecar.Writer writer) {
+    return new SidecarTypeAdapterFactory(writer, null);
+  }
+
+  static SidecarTypeAdapterFactory forReading(BinarySidecar sidecar) {
+    return new SidecarTypeAdapterFactory(null, sidecar);
+  }
+
+  @Override
+  public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+    Class<? super T> rawType = type.getRawType();
+    if (rawType != int[].class && rawType != double[].class && rawType != String[].class) {
+      return null;
+    }
+    TypeAdapter<T> delegate = gson.getDelegateAdapter(this, type);
+    return new TypeAdapter<>() {
+      @Override
+      public void write(JsonWriter out, T value) throws IOException {
+        if (writer != null && value != null && Array.getLength(value) >= MIN_LENGTH) {
+          out.beginObject().name(REFERENCE).value(writer.add(value)).endObject();
+        } else {
+          delegate.write(out, value);
+        }
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      public T read(JsonReader in) throws IOException {
+        if (in.peek() != JsonToken.BEGIN_OBJECT) {
+          return delegate.read(in);
+        }
+        in.beginObject();
+        if (!REFERENCE.equals(in.nextName())) {
+          throw new JsonParseException("Expected a reference into the binary sidecar at " + in.getPath());
+        }
+        int index = in.nextInt();
+        in.endObject();
+        if (sidecar == null) {
+          throw new JsonParseException("Binary sidecar file is missing for reference at " + in.getPath());
+        }
+        Object array = sidecar.getArray(index);
+        if (!rawType.isInstance(array)) {
+          throw new JsonParseException("Array in binary sidecar doesn't match the type at " + in.getPath());
+        }
+        return (T) array;
+      }
+    };
+  }
+}
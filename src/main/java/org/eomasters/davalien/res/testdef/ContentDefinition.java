@@ -36,5 +36,9 @@ public interface ContentDefinition {
 
   Metadata[] getMetadata();
 
+  MetadataTree getMetadataTree();
+
   GeoLocation[] getGeoLocationsForNode(ProductNode node);
+
+  GeoGrid getGeoGridForNode(ProductNode node);
 }
@@ -23,16 +23,27 @@
 
 package org.eomasters.davalien.res.testdef;
 
-import com.bc.ceres.core.ProgressMonitor;
+import com.bc.ceres.glevel.MultiLevelImage;
 import java.awt.Dimension;
+import java.awt.Rectangle;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 import org.eomasters.davalien.res.testdef.Coding.Sample;
+import org.eomasters.davalien.utils.BandStatistics;
+import org.eomasters.davalien.utils.ConcurrencyUtils;
+import org.eomasters.davalien.utils.FeatureStatistics;
+import org.eomasters.davalien.utils.GeoGridEvaluation;
+import org.eomasters.davalien.utils.MetadataUtils;
+import org.eomasters.davalien.utils.MultiBandStatistics;
+import org.eomasters.davalien.utils.TileHasher;
 import org.esa.snap.core.datamodel.FlagCoding;
 import org.esa.snap.core.datamodel.GeoCoding;
 import org.esa.snap.core.datamodel.GeoPos;
@@ -45,35 +56,65 @@ import org.esa.snap.core.datamodel.ProductNode;
 import org.esa.snap.core.datamodel.ProductNodeGroup;
 import org.esa.snap.core.datamodel.RasterDataNode;
 import org.esa.snap.core.datamodel.SampleCoding;
-import org.esa.snap.core.datamodel.Stx;
 import org.esa.snap.core.datamodel.VectorDataNode;
+import org.geotools.data.simple.SimpleFeatureIterator;
 
 public class DefaultContentDefinition implements ContentDefinition {
 
   private static final int NUM_GEOLOCATIONS = 3;
   private static final int NUM_PIXELS = 3;
   private static final int MAX_RASTERS = 5;
+  private static final int MIN_GEO_GRID_STEP = 64;
+  // the processing graph and the history contain the time of the processing and are different on every run
+  private static final List<String> METADATA_TREE_EXCLUDES = List.of("Processing_Graph", "history", "History");
+  private static final int MAX_GEO_GRID_POINTS = 64;
 
   private final Product product;
+  private final StatisticsSettings statisticsSettings;
+  private String metadataTreePath;
 
   public DefaultContentDefinition(Product product) {
+    this(product, new StatisticsSettings(StatisticsMode.ACCURATE));
+  }
+
+  /**
+   * Creates a content definition which computes the statistics of the rasters according to the given settings.
+   *
+   * @param product            the product
+   * @param statisticsSettings the statistics settings
+   */
+  public DefaultContentDefinition(Product product, StatisticsSettings statisticsSettings) {
     this.product = product;
+    this.statisticsSettings = statisticsSettings;
+  }
+
+  /**
+   * Sets the path of the metadata element whose whole tree is part of the content. By default, no tree is created,
+   * because the complete metadata of many products contains values which change with every processing.
+   *
+   * @param metadataTreePath the path of the element, an empty path for the metadata root, or {@code null} for no
+   *                         tree
+   */
+  public void setMetadataTreePath(String metadataTreePath) {
+    this.metadataTreePath = metadataTreePath;
   }
 
   @Override
   public Raster[] getRasters() throws IOException {
     Random random = new Random(4);
-    List<Raster> rasters = new ArrayList<>();
-    List<Integer> usedIndices = new ArrayList<>();
+    List<RasterDataNode> selected = new ArrayList<>();
     List<RasterDataNode> rasterDataNodes = product.getRasterDataNodes();
-    while (rasters.size() < Math.min(MAX_RASTERS, rasterDataNodes.size())) {
-      int index = random.nextInt(rasterDataNodes.size());
-      if (!usedIndices.contains(index)) {
-        usedIndices.add(index);
-        RasterDataNode rasterDataNode = rasterDataNodes.get(index);
-        rasters.add(createRaster(rasterDataNode));
+    while (selected.size() < Math.min(MAX_RASTERS, rasterDataNodes.size())) {
+      RasterDataNode rasterDataNode = rasterDataNodes.get(random.nextInt(rasterDataNodes.size()));
+      if (!selected.contains(rasterDataNode)) {
+        selected.add(rasterDataNode);
       }
     }
+    // the statistics of all rasters are computed in one pass, the remaining parts of the rasters concurrently
+    List<Integer> levels = selected.stream().map(statisticsSettings::resolveLevel).collect(Collectors.toList());
+    Map<RasterDataNode, BandStatistics> statistics = MultiBandStatistics.compute(selected, levels);
+    List<Raster> rasters = ConcurrencyUtils.computeAll(selected.size(),
+        i -> createRaster(selected.get(i), levels.get(i), statistics.get(selected.get(i))));
     return rasters.toArray(new Raster[0]);
   }
 
@@ -85,8 +126,11 @@ public class DefaultContentDefinition implements ContentDefinition {
       vectors = new Vector[vectorDataGroup.getNodeCount()];
       for (int i = 0; i < vectors.length; i++) {
         VectorDataNode vectorDataNode = vectorDataGroup.get(i);
-        vectors[i] = new Vector(vectorDataNode.getName(), vectorDataNode.getDescription(),
-                                vectorDataNode.getFeatureCollection().getCount());
+        int numFeatures = vectorDataNode.getFeatureCollection().getCount();
+        vectors[i] = new Vector(vectorDataNode.getName(), vectorDataNode.getDescription(), numFeatures);
+        if (numFeatures > 0) {
+          vectors[i].setFeatures(createVectorFeatures(vectorDataNode));
+        }
       }
     }
     return vectors;
@@ -128,6 +172,19 @@ public class DefaultContentDefinition implements ContentDefinition {
     return null;
   }
 
+  @Override
+  public MetadataTree getMetadataTree() {
+    if (metadataTreePath == null) {
+      return null;
+    }
+    MetadataElement element = MetadataUtils.wrap(product.getMetadataRoot()).findElement(metadataTreePath);
+    if (element != null && (element.getNumElements() > 0 || element.getNumAttributes() > 0)) {
+      return new MetadataTree(metadataTreePath.isEmpty() ? null : metadataTreePath, METADATA_TREE_EXCLUDES,
+          MetadataNode.create(element, METADATA_TREE_EXCLUDES));
+    }
+    return null;
+  }
+
 
   @Override
   public GeoLocation[] getGeoLocationsForNode(ProductNode node) {
@@ -143,7 +200,32 @@ public class DefaultContentDefinition implements ContentDefinition {
     return null;
   }
 
-  private Raster createRaster(RasterDataNode rdn) throws IOException {
+  @Override
+  public GeoGrid getGeoGridForNode(ProductNode node) {
+    if (node instanceof Product) {
+      Product product = (Product) node;
+      return createGeoGrid(product.getSceneGeoCoding(), product.getSceneRasterSize());
+    } else if (node instanceof RasterDataNode) {
+      RasterDataNode raster = (RasterDataNode) node;
+      if (raster.getGeoCoding() != raster.getProduct().getSceneGeoCoding()) {
+        return createGeoGrid(raster.getGeoCoding(), raster.getRasterSize());
+      }
+    }
+    return null;
+  }
+
+  private static VectorFeatures createVectorFeatures(VectorDataNode vectorDataNode) {
+    FeatureStatistics statistics;
+    try (SimpleFeatureIterator iterator = vectorDataNode.getFeatureCollection().features()) {
+      statistics = FeatureStatistics.compute(iterator);
+    }
+    Map<String, FeatureAttribute> attributes = new TreeMap<>();
+    statistics.getAttributes().forEach((name, attribute) ->
+        attributes.put(name, new FeatureAttribute(attribute.getMin(), attribute.getMax(), attribute.getSum())));
+    return new VectorFeatures(statistics.getBounds(), attributes, new TreeMap<>(statistics.getGeometryTypes()));
+  }
+
+  private Raster createRaster(RasterDataNode rdn, int level, BandStatistics statistics) {
     Raster raster = new Raster(rdn.getName(), rdn.getDescription());
     raster.setSize(rdn.getRasterSize());
     raster.setDataType(DataType.fromTypeValue(rdn.getDataType()));
@@ -152,14 +234,52 @@ public class DefaultContentDefinition implements ContentDefinition {
     raster.setNoDataValueUsed(rdn.isNoDataValueUsed());
     raster.setValidPixelExpression(rdn.getValidPixelExpression());
     raster.setPixels(createPixels(rdn));
-    Stx stx = rdn.getStx(true, ProgressMonitor.NULL);
-    raster.setHistogramBins(stx.getHistogram().getBins(0));
-    raster.setMinimum(stx.getMinimum());
-    raster.setMaximum(stx.getMaximum());
+    if (statistics == null) {
+      statistics = MultiBandStatistics.computeSingle(rdn, level);
+    }
+    raster.setHistogramBins(statistics.getHistogramBins());
+    raster.setMinimum(statistics.getMinimum());
+    raster.setMaximum(statistics.getMaximum());
+    if (statisticsSettings.getMode() != StatisticsMode.ACCURATE) {
+      // the validated product might have a different number of levels, so the level is stored
+      raster.setStatistics(statisticsSettings.withLevel(level));
+    } else {
+      // the hashes require bit-identical data, they would contradict the tolerance of approximate statistics
+      raster.setTileHashes(createTileHashes(rdn));
+    }
     raster.setGeoLocations(getGeoLocationsForNode(rdn));
+    raster.setGeoGrid(getGeoGridForNode(rdn));
     return raster;
   }
 
+  private static TileHashes createTileHashes(RasterDataNode rdn) {
+    int tileWidth = rdn.getSourceImage().getTileWidth();
+    int tileHeight = rdn.getSourceImage().getTileHeight();
+    List<String> hashes = TileHasher.computeHashes(rdn, tileWidth, tileHeight);
+    return new TileHashes(tileWidth, tileHeight, hashes.toArray(new String[0]));
+  }
+
+  // The inverse error found now is the allowed inverse error, it must not get worse
+  private static GeoGrid createGeoGrid(GeoCoding geoCoding, Dimension dimension) {
+    if (geoCoding == null || !geoCoding.canGetGeoPos()) {
+      return null;
+    }
+    int step = Math.max(MIN_GEO_GRID_STEP,
+        (Math.max(dimension.width, dimension.height) + MAX_GEO_GRID_POINTS - 1) / MAX_GEO_GRID_POINTS);
+    double[][] geoPositions = GeoGridEvaluation.computeGeoPositions(geoCoding, dimension.width, dimension.height,
+        step);
+    GeoGrid geoGrid = new GeoGrid(step, geoPositions[0], geoPositions[1]);
+    if (geoCoding.canGetPixelPos()) {
+      GeoGridEvaluation evaluation = GeoGridEvaluation.evaluate(geoCoding, dimension.width, step, geoPositions[0],
+          geoPositions[1], true);
+      double invError = evaluation.getMaxInvError();
+      geoGrid.setInvEps(Double.isFinite(invError) ? Math.max(geoGrid.getInvEps(), invError * 1.01) : null);
+    } else {
+      geoGrid.setInvEps(null);
+    }
+    return geoGrid;
+  }
+
   private static GeoLocation[] getGeoLocations(GeoCoding geoCoding, Dimension dimension) {
     Random random = new Random(1);
     GeoLocation[] geoLocations = new GeoLocation[NUM_GEOLOCATIONS];
@@ -171,14 +291,24 @@ public class DefaultContentDefinition implements ContentDefinition {
     return geoLocations;
   }
 
-  private static Pixel[] createPixels(RasterDataNode rdn) throws IOException {
-    Random random = new Random(2);
+  // All pixels are taken from one tile of the source image, so only this tile is read now and when the expectation
+  // is validated. The seed depends on the raster, so that not all rasters use the same positions.
+  static Pixel[] createPixels(RasterDataNode rdn) {
+    Random random = new Random(rdn.getName().hashCode());
+    MultiLevelImage sourceImage = rdn.getSourceImage();
+    int tileX = sourceImage.getMinTileX() + random.nextInt(sourceImage.getNumXTiles());
+    int tileY = sourceImage.getMinTileY() + random.nextInt(sourceImage.getNumYTiles());
+    // the tiles at the right and bottom border may exceed the image
+    Rectangle tileRect = sourceImage.getTileRect(tileX, tileY).intersection(sourceImage.getBounds());
+    if (tileRect.isEmpty()) {
+      return null;
+    }
+    java.awt.image.Raster data = rdn.getGeophysicalImage().getData(tileRect);
     Pixel[] pixels = new Pixel[NUM_PIXELS];
     for (int i = 0; i < pixels.length; i++) {
-      PixelPos pos = randomPixelPos(random, rdn.getRasterSize());
-      double[] pix = new double[1];
-      rdn.readPixels((int) pos.x, (int) pos.y, 1, 1, pix);
-      pixels[i] = new Pixel(pos, pix[0]);
+      int x = tileRect.x + random.nextInt(tileRect.width);
+      int y = tileRect.y + random.nextInt(tileRect.height);
+      pixels[i] = new Pixel(new PixelPos(x + 0.5, y + 0.5), data.getSampleDouble(x, y, 0));
     }
     return pixels;
   }
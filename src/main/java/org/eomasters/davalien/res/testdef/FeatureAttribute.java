@@ -0,0 +1,99 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien.res.testdef;
+
+import java.util.Objects;
+
+/**
+ * The expected statistics of a numeric attribute of the features of a vector.
+ */
+public class FeatureAttribute {
+
+  private double min;
+  private double max;
+  private double sum;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param min the minimum value
+   * @param max the maximum value
+   * @param sum the sum of all values
+   */
+  public FeatureAttribute(double min, double max, double sum) {
+    this.min = min;
+    this.max = max;
+    this.sum = sum;
+  }
+
+  // for deserialization/serialization
+  @SuppressWarnings("unused")
+  private FeatureAttribute() {
+  }
+
+  /**
+   * Get the minimum value.
+   *
+   * @return the minimum
+   */
+  public double getMin() {
+    return min;
+  }
+
+  /**
+   * Get the maximum value.
+   *
+   * @return the maximum
+   */
+  public double getMax() {
+    return max;
+  }
+
+  /**
+   * Get the sum of all values.
+   *
+   * @return the sum
+   */
+  public double getSum() {
+    return sum;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    FeatureAttribute that = (FeatureAttribute) o;
+    return Double.compare(min, that.min) == 0 && Double.compare(max, that.max) == 0
+        && Double.compare(sum, that.sum) == 0;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(min, max, sum);
+  }
+}
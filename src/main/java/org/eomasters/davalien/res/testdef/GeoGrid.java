@@ -0,0 +1,144 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien.res.testdef;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Defines the expected geographical positions on a regular grid of pixels. The grid points are the centres of every
+ * {@code step}-th pixel in x and y direction, starting with the pixel (0,0). The positions are stored row by row.
+ */
+public class GeoGrid {
+
+  private static final double DEFAULT_EPS = 1.0e-8;
+  private int step;
+  private double fwdEps = DEFAULT_EPS;
+  private Double invEps = DEFAULT_EPS;
+  private double[] lats;
+  private double[] lons;
+
+  /**
+   * Create a new instance. The allowed forward and inverse error are set to 1.0e-8 by default.
+   *
+   * @param step the distance of the grid points in pixels
+   * @param lats the expected latitudes, row by row
+   * @param lons the expected longitudes, row by row
+   */
+  public GeoGrid(int step, double[] lats, double[] lons) {
+    this.step = step;
+    this.lats = lats;
+    this.lons = lons;
+  }
+
+  // for deserialization/serialization
+  @SuppressWarnings("unused")
+  private GeoGrid() {
+  }
+
+  /**
+   * Get the distance of the grid points in pixels.
+   *
+   * @return the step
+   */
+  public int getStep() {
+    return step;
+  }
+
+  /**
+   * Get the allowed forward error in degrees.
+   *
+   * @return the forward error
+   */
+  public double getFwdEps() {
+    return fwdEps;
+  }
+
+  /**
+   * Get the allowed inverse error in pixels. If {@code null}, the inverse transformation is not checked.
+   *
+   * @return the inverse error or {@code null}
+   */
+  public Double getInvEps() {
+    return invEps;
+  }
+
+  /**
+   * Get the expected latitudes, row by row.
+   *
+   * @return the latitudes
+   */
+  public double[] getLats() {
+    return lats;
+  }
+
+  /**
+   * Get the expected longitudes, row by row.
+   *
+   * @return the longitudes
+   */
+  public double[] getLons() {
+    return lons;
+  }
+
+  /**
+   * Set the allowed forward error in degrees.
+   *
+   * @param fwdEps the forward error
+   */
+  public void setFwdEps(double fwdEps) {
+    this.fwdEps = fwdEps;
+  }
+
+  /**
+   * Set the allowed inverse error in pixels.
+   *
+   * @param invEps the inverse error or {@code null} if the inverse transformation shall not be checked
+   */
+  public void setInvEps(Double invEps) {
+    this.invEps = invEps;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    GeoGrid geoGrid = (GeoGrid) o;
+    return step == geoGrid.step && Double.compare(fwdEps, geoGrid.fwdEps) == 0
+        && Objects.equals(invEps, geoGrid.invEps) && Arrays.equals(lats, geoGrid.lats)
+        && Arrays.equals(lons, geoGrid.lons);
+  }
+
+  @Override
+  public int hashCode() {
+    int result = Objects.hash(step, fwdEps, invEps);
+    result = 31 * result + Arrays.hashCode(lats);
+    result = 31 * result + Arrays.hashCode(lons);
+    return result;
+  }
+}
@@ -0,0 +1,218 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien.res.testdef;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import org.esa.snap.core.datamodel.MetadataAttribute;
+import org.esa.snap.core.datamodel.MetadataElement;
+import org.esa.snap.core.datamodel.ProductData;
+
+/**
+ * The hashes of a {@link MetadataElement} and its sub elements. The hash of an element covers its name, its attributes
+ * and the hashes of its sub elements. Equal hashes of two elements mean that the complete subtrees are equal. The
+ * hash of the attributes alone allows to tell whether the attributes of the element itself differ, the hash of each
+ * attribute which of them differ.
+ */
+public class MetadataNode {
+
+  private String name;
+  private String hash;
+  private String attributesHash;
+  private Map<String, String> attributes;
+  private MetadataNode[] elements;
+
+  // for deserialization/serialization
+  @SuppressWarnings("unused")
+  private MetadataNode() {
+  }
+
+  private MetadataNode(String name) {
+    this.name = name;
+  }
+
+  /**
+   * Hashes the given element and all its sub elements bottom-up. Sub elements and attributes with one of the excluded
+   * names are skipped on all levels.
+   *
+   * @param element  the element
+   * @param excludes the names of elements to skip
+   * @return the hashes of the element
+   */
+  public static MetadataNode create(MetadataElement element, Collection<String> excludes) {
+    return create(element, excludes, createDigest());
+  }
+
+  private static MetadataNode create(MetadataElement element, Collection<String> excludes, MessageDigest digest) {
+    MetadataNode node = new MetadataNode(element.getName());
+    MetadataAttribute[] attributes = Arrays.stream(element.getAttributes())
+                                           .filter(a -> !excludes.contains(a.getName()))
+                                           .toArray(MetadataAttribute[]::new);
+    Map<String, Integer> nameCounts = new HashMap<>();
+    for (MetadataAttribute attribute : attributes) {
+      nameCounts.merge(attribute.getName(), 1, Integer::sum);
+    }
+    Map<String, String> attributeHashes = new LinkedHashMap<>();
+    for (int i = 0; i < attributes.length; i++) {
+      String name = attributes[i].getName();
+      // the same naming as for elements, attributes may occur several times
+      String token = nameCounts.get(name) > 1 ? name + "[" + i + "]" : name;
+      attributeHashes.put(token, hashAttribute(attributes[i], digest));
+    }
+    for (Map.Entry<String, String> entry : attributeHashes.entrySet()) {
+      update(digest, entry.getKey());
+      update(digest, entry.getValue());
+    }
+    node.attributes = attributeHashes.isEmpty() ? null : attributeHashes;
+    node.attributesHash = toHex(digest.digest());
+
+    MetadataNode[] children = Arrays.stream(element.getElements())
+                                    .filter(e -> !excludes.contains(e.getName()))
+                                    .map(e -> create(e, excludes, digest))
+                                    .toArray(MetadataNode[]::new);
+    node.elements = children.length > 0 ? children : null;
+
+    update(digest, node.name);
+    update(digest, node.attributesHash);
+    for (MetadataNode child : children) {
+      update(digest, child.hash);
+    }
+    node.hash = toHex(digest.digest());
+    return node;
+  }
+
+  private static String hashAttribute(MetadataAttribute attribute, MessageDigest digest) {
+    update(digest, attribute.getName());
+    update(digest, String.valueOf(attribute.getDataType()));
+    update(digest, String.valueOf(attribute.getUnit()));
+    ProductData data = attribute.getData();
+    if (data.getType() == ProductData.TYPE_ASCII || data.getType() == ProductData.TYPE_UTC) {
+      update(digest, data.getElemString());
+    } else {
+      for (int i = 0; i < data.getNumElems(); i++) {
+        update(digest, data.getElemStringAt(i));
+      }
+    }
+    return toHex(digest.digest());
+  }
+
+  /**
+   * Get the name of the element.
+   *
+   * @return the name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Get the hash of the element including all its sub elements.
+   *
+   * @return the hash
+   */
+  public String getHash() {
+    return hash;
+  }
+
+  /**
+   * Get the hash of the attributes of the element.
+   *
+   * @return the hash of the attributes
+   */
+  public String getAttributesHash() {
+    return attributesHash;
+  }
+
+  /**
+   * Get the number of attributes of the element.
+   *
+   * @return the number of attributes
+   */
+  public int getNumAttributes() {
+    return attributes != null ? attributes.size() : 0;
+  }
+
+  /**
+   * Get the hashes of the attributes of the element by their names. An attribute name which occurs several times is
+   * suffixed by the index of the attribute, e.g. {@code name[2]}.
+   *
+   * @return the hashes of the attributes, never {@code null}
+   */
+  public Map<String, String> getAttributeHashes() {
+    return attributes != null ? attributes : Map.of();
+  }
+
+  /**
+   * Get the hashes of the sub elements.
+   *
+   * @return the sub elements, never {@code null}
+   */
+  public MetadataNode[] getElements() {
+    return elements != null ? elements : new MetadataNode[0];
+  }
+
+  private static void update(MessageDigest digest, String value) {
+    digest.update(value.getBytes(StandardCharsets.UTF_8));
+    digest.update((byte) 0);
+  }
+
+  // 64 bits are enough to detect changes, the full digest would only inflate the expectation
+  private static String toHex(byte[] digest) {
+    return HexFormat.of().formatHex(digest, 0, 8);
+  }
+
+  private static MessageDigest createDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // SHA-256 must be supported by every Java platform
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    MetadataNode that = (MetadataNode) o;
+    return Objects.equals(name, that.name) && Objects.equals(hash, that.hash);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(name, hash);
+  }
+}
@@ -0,0 +1,103 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien.res.testdef;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The expectation of a whole metadata tree or of a subtree. The tree is stored as hashes of its elements, see
+ * {@link MetadataNode}. Elements and attributes with an excluded name, e.g. the processing graph or the history which
+ * contain the processing time, are not part of the hashes.
+ */
+public class MetadataTree {
+
+  private String path;
+  private String[] excludes;
+  private MetadataNode root;
+
+  // for deserialization/serialization
+  @SuppressWarnings("unused")
+  private MetadataTree() {
+  }
+
+  /**
+   * Creates a new instance.
+   *
+   * @param path     the path of the element the tree starts at or {@code null} for the metadata root
+   * @param excludes the names of excluded elements and attributes
+   * @param root     the hashes of the tree
+   */
+  public MetadataTree(String path, List<String> excludes, MetadataNode root) {
+    this.path = path;
+    this.excludes = excludes.isEmpty() ? null : excludes.toArray(new String[0]);
+    this.root = root;
+  }
+
+  /**
+   * Get the path of the element the tree starts at.
+   *
+   * @return the path or {@code null} for the metadata root
+   */
+  public String getPath() {
+    return path;
+  }
+
+  /**
+   * Get the names of the elements and attributes which are excluded.
+   *
+   * @return the excluded names
+   */
+  public List<String> getExcludes() {
+    return excludes != null ? List.of(excludes) : List.of();
+  }
+
+  /**
+   * Get the hashes of the tree.
+   *
+   * @return the root node
+   */
+  public MetadataNode getRoot() {
+    return root;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    MetadataTree that = (MetadataTree) o;
+    return Objects.equals(path, that.path) && Arrays.equals(excludes, that.excludes)
+        && Objects.equals(root, that.root);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * Objects.hash(path, root) + Arrays.hashCode(excludes);
+  }
+}
@@ -39,10 +39,14 @@ public class ProductContent {
   private ProductData.UTC startTime;
   private ProductData.UTC endTime;
   private GeoLocation[] geoLocations;
+  private GeoGrid geoGrid;
   private Raster[] rasters;
   private Vector[] vectorData;
   private Metadata[] metadata;
+  private MetadataTree metadataTree;
   private Coding[] sampleCoding;
+  private StatisticsSettings statistics;
+  private ReferenceProduct referenceProduct;
 
 
   /**
@@ -117,6 +121,15 @@ public class ProductContent {
     return metadata;
   }
 
+  /**
+   * Get the expected hashes of the metadata tree.
+   *
+   * @return the metadata tree or {@code null}
+   */
+  public MetadataTree getMetadataTree() {
+    return metadataTree;
+  }
+
   /**
    * Get the rasters of the product.
    *
@@ -144,6 +157,33 @@ public class ProductContent {
     return geoLocations;
   }
 
+  /**
+   * Get the settings for the computation of the statistics of all rasters. Rasters can define their own settings.
+   *
+   * @return the statistics settings or {@code null}
+   */
+  public StatisticsSettings getStatistics() {
+    return statistics;
+  }
+
+  /**
+   * Get the reference product to which the rasters are compared pixel by pixel.
+   *
+   * @return the reference product or {@code null}
+   */
+  public ReferenceProduct getReferenceProduct() {
+    return referenceProduct;
+  }
+
+  /**
+   * Get the grid of geolocations of the scene geocoding.
+   *
+   * @return the grid of geolocations or {@code null}
+   */
+  public GeoGrid getGeoGrid() {
+    return geoGrid;
+  }
+
   /**
    * Set the name of the product.
    *
@@ -234,6 +274,15 @@ public class ProductContent {
     this.metadata = metadata;
   }
 
+  /**
+   * Set the expected hashes of the metadata tree.
+   *
+   * @param metadataTree the metadata tree
+   */
+  public void setMetadataTree(MetadataTree metadataTree) {
+    this.metadataTree = metadataTree;
+  }
+
   /**
    * Set the sample codings of the product.
    *
@@ -242,4 +291,31 @@ public class ProductContent {
   public void setSampleCoding(Coding[] sampleCoding) {
     this.sampleCoding = sampleCoding;
   }
+
+  /**
+   * Set the settings for the computation of the statistics of all rasters.
+   *
+   * @param statistics the statistics settings
+   */
+  public void setStatistics(StatisticsSettings statistics) {
+    this.statistics = statistics;
+  }
+
+  /**
+   * Set the reference product to which the rasters are compared pixel by pixel.
+   *
+   * @param referenceProduct the reference product
+   */
+  public void setReferenceProduct(ReferenceProduct referenceProduct) {
+    this.referenceProduct = referenceProduct;
+  }
+
+  /**
+   * Set the grid of geolocations of the scene geocoding.
+   *
+   * @param geoGrid the grid of geolocations
+   */
+  public void setGeoGrid(GeoGrid geoGrid) {
+    this.geoGrid = geoGrid;
+  }
 }
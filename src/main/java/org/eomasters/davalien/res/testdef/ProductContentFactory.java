@@ -44,7 +44,34 @@ public class ProductContentFactory {
     return create(product, new DefaultContentDefinition(product));
   }
 
-  private static ProductContent create(Product product, ContentDefinition cd) throws DavalienException {
+  /**
+   * Create a {@link ProductContent} based on a {@link Product}. The statistics of the rasters are computed according to
+   * the given settings, which are stored in the content so that the validation uses the same settings.
+   *
+   * @param product            the product
+   * @param statisticsSettings the statistics settings
+   * @return the {@link ProductContent}
+   * @throws DavalienException if something goes wrong
+   */
+  public static ProductContent create(Product product, StatisticsSettings statisticsSettings)
+      throws DavalienException {
+    ProductContent pc = create(product, new DefaultContentDefinition(product, statisticsSettings));
+    if (statisticsSettings.getMode() != StatisticsMode.ACCURATE) {
+      pc.setStatistics(statisticsSettings);
+    }
+    return pc;
+  }
+
+  /**
+   * Create a {@link ProductContent} based on a {@link Product}. The elements are selected by the given content
+   * definition.
+   *
+   * @param product the product
+   * @param cd      the content definition
+   * @return the {@link ProductContent}
+   * @throws DavalienException if something goes wrong
+   */
+  public static ProductContent create(Product product, ContentDefinition cd) throws DavalienException {
     ProductContent pc = new ProductContent();
     pc.setName(product.getName());
     pc.setDescription(product.getDescription());
@@ -53,6 +80,7 @@ public class ProductContentFactory {
     pc.setStartTime(product.getStartTime());
     pc.setEndTime(product.getEndTime());
     pc.setGeoLocations(cd.getGeoLocationsForNode(product));
+    pc.setGeoGrid(cd.getGeoGridForNode(product));
     try {
       pc.setRasters(cd.getRasters());
       pc.setVectorData(cd.getVectors());
@@ -60,6 +88,7 @@ public class ProductContentFactory {
       throw new DavalienException(e);
     }
     pc.setMetadata(cd.getMetadata());
+    pc.setMetadataTree(cd.getMetadataTree());
     pc.setSampleCoding(cd.getCodings());
     return pc;
   }
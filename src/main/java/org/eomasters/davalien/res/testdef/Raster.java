@@ -46,6 +46,9 @@ public class Raster {
   private int[] histogramBins;
   private Double minimum;
   private Double maximum;
+  private StatisticsSettings statistics;
+  private TileHashes tileHashes;
+  private GeoGrid geoGrid;
 
   /**
    * Creates a new raster with the given name and description.
@@ -180,6 +183,34 @@ public class Raster {
     return minimum;
   }
 
+  /**
+   * Get the settings for the computation of the statistics. If {@code null}, the settings of the product content
+   * apply.
+   *
+   * @return the statistics settings or {@code null}
+   */
+  public StatisticsSettings getStatistics() {
+    return statistics;
+  }
+
+  /**
+   * Get the hashes of the tiles of the raw raster data. They are only created for accurate statistics.
+   *
+   * @return the tile hashes or {@code null}
+   */
+  public TileHashes getTileHashes() {
+    return tileHashes;
+  }
+
+  /**
+   * Get the grid of geolocations of the raster.
+   *
+   * @return the grid of geolocations or {@code null}
+   */
+  public GeoGrid getGeoGrid() {
+    return geoGrid;
+  }
+
   /**
    * Set the name of the raster.
    *
@@ -292,6 +323,33 @@ public class Raster {
     this.maximum = maximum;
   }
 
+  /**
+   * Set the settings for the computation of the statistics.
+   *
+   * @param statistics the statistics settings
+   */
+  public void setStatistics(StatisticsSettings statistics) {
+    this.statistics = statistics;
+  }
+
+  /**
+   * Set the hashes of the tiles of the raw raster data.
+   *
+   * @param tileHashes the tile hashes
+   */
+  public void setTileHashes(TileHashes tileHashes) {
+    this.tileHashes = tileHashes;
+  }
+
+  /**
+   * Set the grid of geolocations of the raster.
+   *
+   * @param geoGrid the grid of geolocations
+   */
+  public void setGeoGrid(GeoGrid geoGrid) {
+    this.geoGrid = geoGrid;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -309,13 +367,16 @@ public class Raster {
         && Arrays.equals(getPixels(), raster.getPixels()) && Arrays.equals(getGeoLocations(),
         raster.getGeoLocations()) && Arrays.equals(getHistogramBins(), raster.getHistogramBins())
         && Objects.equals(getMinimum(), raster.getMinimum()) && Objects.equals(getMaximum(),
-        raster.getMaximum());
+        raster.getMaximum()) && Objects.equals(getStatistics(), raster.getStatistics())
+        && Objects.equals(getTileHashes(), raster.getTileHashes())
+        && Objects.equals(getGeoGrid(), raster.getGeoGrid());
   }
 
   @Override
   public int hashCode() {
     int result = Objects.hash(getName(), getDescription(), getSize(), getDataType(), getRasterType(), getNoDataValue(),
-        noDataValueUsed, getValidPixelExpression(), Arrays.hashCode(getHistogramBins()), getMinimum(), getMaximum());
+        noDataValueUsed, getValidPixelExpression(), Arrays.hashCode(getHistogramBins()), getMinimum(), getMaximum(),
+        getStatistics(), getTileHashes(), getGeoGrid());
     result = 31 * result + Arrays.hashCode(getPixels());
     result = 31 * result + Arrays.hashCode(getGeoLocations());
     return result;
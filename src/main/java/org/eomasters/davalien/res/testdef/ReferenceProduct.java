@@ -0,0 +1,114 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien.res.testdef;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Defines a reference product, listed in the source products, to which the rasters of the target product are compared
+ * pixel by pixel.
+ */
+public class ReferenceProduct {
+
+  private String id;
+  private double eps;
+  private String[] bands;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param id the id of the reference product in the source products
+   */
+  public ReferenceProduct(String id) {
+    this.id = id;
+  }
+
+  // for deserialization/serialization
+  @SuppressWarnings("unused")
+  private ReferenceProduct() {
+  }
+
+  /**
+   * Get the id of the reference product in the source products.
+   *
+   * @return the id
+   */
+  public String getId() {
+    return id;
+  }
+
+  /**
+   * Get the allowed absolute difference of a pixel value. Defaults to 0.
+   *
+   * @return the allowed difference
+   */
+  public double getEps() {
+    return eps;
+  }
+
+  /**
+   * Get the names of the bands which are compared. If empty, all bands of the reference product are compared.
+   *
+   * @return the band names
+   */
+  public List<String> getBands() {
+    return bands != null ? List.of(bands) : List.of();
+  }
+
+  /**
+   * Set the allowed absolute difference of a pixel value.
+   *
+   * @param eps the allowed difference
+   */
+  public void setEps(double eps) {
+    this.eps = eps;
+  }
+
+  /**
+   * Set the names of the bands which are compared.
+   *
+   * @param bands the band names
+   */
+  public void setBands(List<String> bands) {
+    this.bands = bands.toArray(new String[0]);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    ReferenceProduct that = (ReferenceProduct) o;
+    return Double.compare(eps, that.eps) == 0 && Objects.equals(id, that.id) && getBands().equals(that.getBands());
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(id, eps, getBands());
+  }
+}
@@ -0,0 +1,240 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien.res.testdef;
+
+import com.bc.ceres.glevel.MultiLevelImage;
+import java.util.Objects;
+import org.esa.snap.core.datamodel.RasterDataNode;
+
+/**
+ * Defines how the statistics (minimum, maximum and histogram) of a raster are computed and compared. By default, the
+ * statistics are computed accurately and need to be equal to the expectation.
+ *
+ * <p>In the {@link StatisticsMode#APPROXIMATE approximate} mode, the statistics are computed from a lower resolution
+ * level of the raster. If no level is defined, the level is chosen such that it has at most
+ * {@value #APPROXIMATE_PIXEL_COUNT} pixels. The level is resolved when the expectation is created and stored with
+ * each raster, so the validation computes the statistics at exactly the same level.
+ */
+public class StatisticsSettings {
+
+  /**
+   * The maximum number of pixels of the automatically chosen level in the approximate mode.
+   */
+  public static final int APPROXIMATE_PIXEL_COUNT = 1024 * 1024;
+  private static final double DEFAULT_EPS = 1.0e-8;
+
+  private StatisticsMode mode;
+  private Integer level;
+  private Double minMaxEps;
+  private Double histogramEps;
+
+  /**
+   * Creates new settings.
+   *
+   * @param mode the statistics mode
+   */
+  public StatisticsSettings(StatisticsMode mode) {
+    this.mode = mode;
+  }
+
+  // for deserialization/serialization
+  @SuppressWarnings("unused")
+  private StatisticsSettings() {
+  }
+
+  /**
+   * Get the statistics mode. Defaults to {@link StatisticsMode#ACCURATE}.
+   *
+   * @return the mode
+   */
+  public StatisticsMode getMode() {
+    return mode != null ? mode : StatisticsMode.ACCURATE;
+  }
+
+  /**
+   * Get the resolution level used in the approximate mode. If {@code null}, the level is chosen automatically.
+   *
+   * @return the level or {@code null}
+   */
+  public Integer getLevel() {
+    return level;
+  }
+
+  /**
+   * Get the allowed error of the minimum and maximum. Defaults to 1.0e-8.
+   *
+   * @return the allowed error
+   */
+  public double getMinMaxEps() {
+    return minMaxEps != null ? minMaxEps : DEFAULT_EPS;
+  }
+
+  /**
+   * Get the allowed difference of the histograms. The difference is the sum of the absolute differences of the bins
+   * normalised by the number of pixels (relative L1 distance), and ranges from 0 to 2. Defaults to 0, which means
+   * the bins need to be equal.
+   *
+   * @return the allowed difference
+   */
+  public double getHistogramEps() {
+    return histogramEps != null ? histogramEps : 0;
+  }
+
+  /**
+   * Set the resolution level used in the approximate mode.
+   *
+   * @param level the level or {@code null} to choose it automatically
+   */
+  public void setLevel(Integer level) {
+    this.level = level;
+  }
+
+  /**
+   * Set the allowed error of the minimum and maximum.
+   *
+   * @param minMaxEps the allowed error
+   */
+  public void setMinMaxEps(Double minMaxEps) {
+    this.minMaxEps = minMaxEps;
+  }
+
+  /**
+   * Set the allowed difference of the histograms.
+   *
+   * @param histogramEps the allowed difference
+   */
+  public void setHistogramEps(Double histogramEps) {
+    this.histogramEps = histogramEps;
+  }
+
+  /**
+   * Resolves the resolution level at which the statistics of the given raster are computed when the expectation is
+   * created. A defined level is limited to the levels of the raster, otherwise the level is chosen automatically. The
+   * resolved level is stored in the expectation, see {@link #withLevel(int)}, because the product which is validated
+   * can have a different number of levels.
+   *
+   * @param raster the raster
+   * @return the level, 0 in the accurate mode
+   */
+  public int resolveLevel(RasterDataNode raster) {
+    if (getMode() == StatisticsMode.ACCURATE) {
+      return 0;
+    }
+    MultiLevelImage image = raster.getGeophysicalImage();
+    int maxLevel = image.getModel().getLevelCount() - 1;
+    if (level != null) {
+      return Math.max(0, Math.min(level, maxLevel));
+    }
+    long pixelCount = (long) raster.getRasterWidth() * raster.getRasterHeight();
+    int autoLevel = 0;
+    while (autoLevel < maxLevel && pixelCount > APPROXIMATE_PIXEL_COUNT) {
+      pixelCount /= 4;
+      autoLevel++;
+    }
+    return autoLevel;
+  }
+
+  /**
+   * Get the resolution level at which the statistics of the given raster are computed for the validation. This is
+   * the level stored in the expectation. Only for expectations without a level, it is resolved like at creation time.
+   *
+   * @param raster the raster
+   * @return the level, 0 in the accurate mode
+   * @throws IllegalArgumentException if the raster does not provide the level of the expectation
+   */
+  public int getEffectiveLevel(RasterDataNode raster) {
+    if (getMode() == StatisticsMode.ACCURATE) {
+      return 0;
+    }
+    if (level == null) {
+      return resolveLevel(raster);
+    }
+    int levelCount = raster.getGeophysicalImage().getModel().getLevelCount();
+    if (level < 0 || level >= levelCount) {
+      throw new IllegalArgumentException(String.format(
+          "The statistics of raster [%s] are expected at level %d, but the raster has only %d levels",
+          raster.getName(), level, levelCount));
+    }
+    return level;
+  }
+
+  /**
+   * Creates a copy of these settings with the given resolution level.
+   *
+   * @param level the level
+   * @return the copy
+   */
+  public StatisticsSettings withLevel(int level) {
+    StatisticsSettings copy = new StatisticsSettings(mode);
+    copy.level = level;
+    copy.minMaxEps = minMaxEps;
+    copy.histogramEps = histogramEps;
+    return copy;
+  }
+
+  /**
+   * Computes the difference of two histograms as used for the comparison with {@link #getHistogramEps()}.
+   *
+   * @param expectedBins the expected bins
+   * @param actualBins   the actual bins
+   * @return the relative L1 distance, or {@link Double#POSITIVE_INFINITY} if the number of bins differs
+   */
+  public static double histogramDistance(int[] expectedBins, int[] actualBins) {
+    if (expectedBins.length != actualBins.length) {
+      return Double.POSITIVE_INFINITY;
+    }
+    double expSum = 0;
+    double actSum = 0;
+    for (int i = 0; i < expectedBins.length; i++) {
+      expSum += expectedBins[i];
+      actSum += actualBins[i];
+    }
+    if (expSum == 0 || actSum == 0) {
+      return expSum == actSum ? 0 : Double.POSITIVE_INFINITY;
+    }
+    double distance = 0;
+    for (int i = 0; i < expectedBins.length; i++) {
+      distance += Math.abs(expectedBins[i] / expSum - actualBins[i] / actSum);
+    }
+    return distance;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    StatisticsSettings that = (StatisticsSettings) o;
+    return getMode() == that.getMode() && Objects.equals(level, that.level)
+        && Objects.equals(minMaxEps, that.minMaxEps) && Objects.equals(histogramEps, that.histogramEps);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(getMode(), level, minMaxEps, histogramEps);
+  }
+}
@@ -23,6 +23,7 @@
 
 package org.eomasters.davalien.res.testdef;
 
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Objects;
 
@@ -37,7 +38,14 @@ public class TestDefinition {
   private String description;
   private String gptCall = GPT_CALL_REMINDER;
   private String[] tags;
+  private String[] jvmOptions;
+  private Integer timeoutSeconds;
+  private Integer parallelism;
+  private Integer tileCacheSizeMb;
+  private Integer tileSize;
   private ProductContent expectation;
+  // the file the definition was read from, used to load the expectation on demand
+  private transient Path definitionFile;
 
   // for deserialization/serialization
   @SuppressWarnings("unused")
@@ -82,6 +90,53 @@ public class TestDefinition {
     return tags != null ? List.of(tags) : List.of();
   }
 
+  /**
+   * Get the JVM options (e.g. {@code -Xmx8G}, {@code -Dsnap.parallelism=4}) used when the test is executed in a
+   * separate process.
+   *
+   * @return The JVM options
+   */
+  public List<String> getJvmOptions() {
+    return jvmOptions != null ? List.of(jvmOptions) : List.of();
+  }
+
+  /**
+   * Get the timeout of the test in seconds. If not defined, the default timeout of the environment is used.
+   *
+   * @return The timeout in seconds or {@code null}
+   */
+  public Integer getTimeoutSeconds() {
+    return timeoutSeconds;
+  }
+
+  /**
+   * Get the number of threads used for the computation of tiles. If not defined, the setting of the environment is
+   * used.
+   *
+   * @return The parallelism or {@code null}
+   */
+  public Integer getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * Get the size of the JAI tile cache in megabytes. If not defined, the setting of the environment is used.
+   *
+   * @return The tile cache size or {@code null}
+   */
+  public Integer getTileCacheSizeMb() {
+    return tileCacheSizeMb;
+  }
+
+  /**
+   * Get the default tile size of SNAP images. If not defined, the setting of the environment is used.
+   *
+   * @return The tile size or {@code null}
+   */
+  public Integer getTileSize() {
+    return tileSize;
+  }
+
   /**
    * Get the gpt command line call of the test.
    *
@@ -92,7 +147,7 @@ public class TestDefinition {
   }
 
   /**
-   * Get the expectation of the test.
+   * Get the expectation of the test. For definitions read from a file, it is {@code null} until it has been loaded.
    *
    * @return the expectation
    */
@@ -100,6 +155,15 @@ public class TestDefinition {
     return expectation;
   }
 
+  /**
+   * Get the file the test definition was read from.
+   *
+   * @return the file or {@code null}
+   */
+  public Path getDefinitionFile() {
+    return definitionFile;
+  }
+
   /**
    * Set the name of the test.
    *
@@ -127,6 +191,26 @@ public class TestDefinition {
     this.tags = tags.toArray(new String[0]);
   }
 
+  /**
+   * Set the JVM options used when the test is executed in a separate process.
+   *
+   * @param jvmOptions the JVM options to set
+   */
+  @SuppressWarnings("unused")
+  public void setJvmOptions(List<String> jvmOptions) {
+    this.jvmOptions = jvmOptions.toArray(new String[0]);
+  }
+
+  /**
+   * Set the timeout of the test in seconds.
+   *
+   * @param timeoutSeconds the timeout in seconds
+   */
+  @SuppressWarnings("unused")
+  public void setTimeoutSeconds(Integer timeoutSeconds) {
+    this.timeoutSeconds = timeoutSeconds;
+  }
+
   /**
    * Set the gpt command line call of the test.
    *
@@ -147,6 +231,15 @@ public class TestDefinition {
     this.expectation = expectation;
   }
 
+  /**
+   * Set the file the test definition was read from.
+   *
+   * @param definitionFile the file
+   */
+  public void setDefinitionFile(Path definitionFile) {
+    this.definitionFile = definitionFile;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -0,0 +1,100 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien.res.testdef;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Fingerprints of the raw data of a raster. The raster is divided into a grid of tiles and the data of each tile is
+ * hashed with CRC32C. The hashes are stored row by row as hexadecimal strings.
+ */
+public class TileHashes {
+
+  private int tileWidth;
+  private int tileHeight;
+  private String[] hashes;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param tileWidth  the width of the tiles
+   * @param tileHeight the height of the tiles
+   * @param hashes     the hashes of the tiles, row by row
+   */
+  public TileHashes(int tileWidth, int tileHeight, String[] hashes) {
+    this.tileWidth = tileWidth;
+    this.tileHeight = tileHeight;
+    this.hashes = hashes;
+  }
+
+  // for deserialization/serialization
+  @SuppressWarnings("unused")
+  private TileHashes() {
+  }
+
+  /**
+   * Get the width of the tiles.
+   *
+   * @return the tile width
+   */
+  public int getTileWidth() {
+    return tileWidth;
+  }
+
+  /**
+   * Get the height of the tiles.
+   *
+   * @return the tile height
+   */
+  public int getTileHeight() {
+    return tileHeight;
+  }
+
+  /**
+   * Get the hashes of the tiles, row by row.
+   *
+   * @return the hashes
+   */
+  public String[] getHashes() {
+    return hashes;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    TileHashes that = (TileHashes) o;
+    return tileWidth == that.tileWidth && tileHeight == that.tileHeight && Arrays.equals(hashes, that.hashes);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * Objects.hash(tileWidth, tileHeight) + Arrays.hashCode(hashes);
+  }
+}
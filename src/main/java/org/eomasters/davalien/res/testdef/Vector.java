@@ -34,6 +34,7 @@ public class Vector {
   private String name;
   private String description;
   private Integer numFeatures;
+  private VectorFeatures features;
 
   /**
    * Creates a new {@link Vector} instance with the given name, description and number of features.
@@ -80,6 +81,24 @@ public class Vector {
     return numFeatures;
   }
 
+  /**
+   * Get the expected content of the features.
+   *
+   * @return the features or {@code null}
+   */
+  public VectorFeatures getFeatures() {
+    return features;
+  }
+
+  /**
+   * Set the expected content of the features.
+   *
+   * @param features the features
+   */
+  public void setFeatures(VectorFeatures features) {
+    this.features = features;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -91,12 +110,13 @@ public class Vector {
     Vector vector = (Vector) o;
     return Objects.equals(getNumFeatures(), vector.getNumFeatures())
         && Objects.equals(getName(), vector.getName())
-        && Objects.equals(getDescription(), vector.getDescription());
+        && Objects.equals(getDescription(), vector.getDescription())
+        && Objects.equals(getFeatures(), vector.getFeatures());
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(getName(), getDescription(), getNumFeatures());
+    return Objects.hash(getName(), getDescription(), getNumFeatures(), getFeatures());
   }
 
   @Override
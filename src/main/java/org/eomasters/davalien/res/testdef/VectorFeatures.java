@@ -0,0 +1,122 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien.res.testdef;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The expected content of the features of a vector: the bounding box of the geometries, the statistics of the numeric
+ * attributes and the number of geometries per geometry type. The bounding box and the attribute statistics are
+ * compared with the relative tolerance {@code eps}.
+ */
+public class VectorFeatures {
+
+  private double[] bounds;
+  private Map<String, FeatureAttribute> attributes;
+  private Map<String, Long> geometryTypes;
+  private double eps = 1.0e-8;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param bounds        the bounding box as {@code [minX, minY, maxX, maxY]}
+   * @param attributes    the statistics of the numeric attributes by name
+   * @param geometryTypes the number of geometries by geometry type
+   */
+  public VectorFeatures(double[] bounds, Map<String, FeatureAttribute> attributes, Map<String, Long> geometryTypes) {
+    this.bounds = bounds;
+    this.attributes = attributes;
+    this.geometryTypes = geometryTypes;
+  }
+
+  // for deserialization/serialization
+  @SuppressWarnings("unused")
+  private VectorFeatures() {
+  }
+
+  /**
+   * Get the bounding box of the geometries.
+   *
+   * @return the bounding box as {@code [minX, minY, maxX, maxY]} or {@code null}
+   */
+  public double[] getBounds() {
+    return bounds;
+  }
+
+  /**
+   * Get the statistics of the numeric attributes.
+   *
+   * @return the attribute statistics by name or {@code null}
+   */
+  public Map<String, FeatureAttribute> getAttributes() {
+    return attributes;
+  }
+
+  /**
+   * Get the number of geometries per geometry type.
+   *
+   * @return the number of geometries by type or {@code null}
+   */
+  public Map<String, Long> getGeometryTypes() {
+    return geometryTypes;
+  }
+
+  /**
+   * Get the relative tolerance used for the bounding box and the attribute statistics.
+   *
+   * @return the tolerance
+   */
+  public double getEps() {
+    return eps;
+  }
+
+  /**
+   * Set the relative tolerance used for the bounding box and the attribute statistics.
+   *
+   * @param eps the tolerance
+   */
+  public void setEps(double eps) {
+    this.eps = eps;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    VectorFeatures that = (VectorFeatures) o;
+    return Double.compare(eps, that.eps) == 0 && Arrays.equals(bounds, that.bounds)
+        && Objects.equals(attributes, that.attributes) && Objects.equals(geometryTypes, that.geometryTypes);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * Objects.hash(attributes, geometryTypes, eps) + Arrays.hashCode(bounds);
+  }
+}
@@ -0,0 +1,124 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien.utils;
+
+import org.esa.snap.core.datamodel.Stx;
+
+/**
+ * The statistics of a raster which are relevant for the validation.
+ */
+public class BandStatistics {
+
+  private final double minimum;
+  private final double maximum;
+  private final double mean;
+  private final double standardDeviation;
+  private final long validCount;
+  private final int[] histogramBins;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param minimum           the minimum
+   * @param maximum           the maximum
+   * @param mean              the mean
+   * @param standardDeviation the standard deviation
+   * @param validCount        the number of valid pixels
+   * @param histogramBins     the bins of the histogram
+   */
+  public BandStatistics(double minimum, double maximum, double mean, double standardDeviation, long validCount,
+      int[] histogramBins) {
+    this.minimum = minimum;
+    this.maximum = maximum;
+    this.mean = mean;
+    this.standardDeviation = standardDeviation;
+    this.validCount = validCount;
+    this.histogramBins = histogramBins;
+  }
+
+  /**
+   * Creates the statistics from the given {@link Stx}.
+   *
+   * @param stx the stx
+   * @return the statistics
+   */
+  public static BandStatistics of(Stx stx) {
+    return new BandStatistics(stx.getMinimum(), stx.getMaximum(), stx.getMean(), stx.getStandardDeviation(),
+        stx.getSampleCount(), stx.getHistogram().getBins(0));
+  }
+
+  /**
+   * Get the minimum.
+   *
+   * @return the minimum
+   */
+  public double getMinimum() {
+    return minimum;
+  }
+
+  /**
+   * Get the maximum.
+   *
+   * @return the maximum
+   */
+  public double getMaximum() {
+    return maximum;
+  }
+
+  /**
+   * Get the mean.
+   *
+   * @return the mean
+   */
+  public double getMean() {
+    return mean;
+  }
+
+  /**
+   * Get the standard deviation.
+   *
+   * @return the standard deviation
+   */
+  public double getStandardDeviation() {
+    return standardDeviation;
+  }
+
+  /**
+   * Get the number of valid pixels.
+   *
+   * @return the number of valid pixels
+   */
+  public long getValidCount() {
+    return validCount;
+  }
+
+  /**
+   * Get the bins of the histogram.
+   *
+   * @return the histogram bins
+   */
+  public int[] getHistogramBins() {
+    return histogramBins;
+  }
+}
@@ -0,0 +1,85 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien.utils;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * A class that provides utility methods for the concurrent execution of validation work.
+ *
+ * <p>All work is executed on one shared pool, which is bounded by the number of available processors. Tasks which
+ * are started from within the pool (e.g. the statistics of a raster which is validated concurrently) are executed in
+ * the same pool and don't create additional threads.
+ */
+public class ConcurrencyUtils {
+
+  private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors(),
+      pool -> {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("davalien-validation-pool-" + thread.getPoolIndex());
+        thread.setDaemon(true);
+        return thread;
+      }, null, false);
+
+  private ConcurrencyUtils() {
+  }
+
+  /**
+   * Returns the shared pool used for the validation work.
+   *
+   * @return the pool
+   */
+  public static ForkJoinPool getPool() {
+    return POOL;
+  }
+
+  /**
+   * Computes the given task for the indices {@code 0} to {@code count - 1} concurrently. The results are returned in
+   * index order. If a task throws an exception or an error, it is rethrown by this method.
+   *
+   * @param count the number of tasks
+   * @param task  the task, called with the index
+   * @param <T>   the type of the result
+   * @return the results in index order
+   */
+  public static <T> List<T> computeAll(int count, IntFunction<T> task) {
+    if (count <= 1) {
+      return IntStream.range(0, count).mapToObj(task).collect(Collectors.toList());
+    }
+    if (isInPool()) {
+      return IntStream.range(0, count).parallel().mapToObj(task).collect(Collectors.toList());
+    }
+    return POOL.submit(() -> IntStream.range(0, count).parallel().mapToObj(task).collect(Collectors.toList())).join();
+  }
+
+  private static boolean isInPool() {
+    return Thread.currentThread() instanceof ForkJoinWorkerThread worker && worker.getPool() == POOL;
+  }
+
+}
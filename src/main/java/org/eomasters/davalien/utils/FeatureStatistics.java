@@ -0,0 +1,174 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien.utils;
+
+import java.util.Map;
+import java.util.TreeMap;
+import org.geotools.data.simple.SimpleFeatureIterator;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.type.AttributeDescriptor;
+
+/**
+ * Statistics of the features of a vector: the bounding box of the geometries, the minimum, maximum and sum of every
+ * numeric attribute and the number of geometries per geometry type.
+ *
+ * <p>The statistics are computed in one pass over a feature iterator and no copy of the features is made. This does
+ * not limit the memory used: the features of a {@link org.esa.snap.core.datamodel.VectorDataNode} are all held in
+ * memory by its feature collection.
+ */
+public class FeatureStatistics {
+
+  private final Envelope bounds = new Envelope();
+  private final Map<String, Attribute> attributes = new TreeMap<>();
+  private final Map<String, Long> geometryTypes = new TreeMap<>();
+  private long count;
+
+  private FeatureStatistics() {
+  }
+
+  /**
+   * Computes the statistics of the features returned by the iterator. The iterator is not closed.
+   *
+   * @param iterator the feature iterator
+   * @return the statistics
+   */
+  public static FeatureStatistics compute(SimpleFeatureIterator iterator) {
+    FeatureStatistics statistics = new FeatureStatistics();
+    while (iterator.hasNext()) {
+      statistics.add(iterator.next());
+    }
+    return statistics;
+  }
+
+  private void add(SimpleFeature feature) {
+    if (count++ == 0) {
+      // all features of a collection share the same type
+      for (AttributeDescriptor descriptor : feature.getFeatureType().getAttributeDescriptors()) {
+        if (Number.class.isAssignableFrom(descriptor.getType().getBinding())) {
+          attributes.put(descriptor.getLocalName(), new Attribute());
+        }
+      }
+    }
+    Object defaultGeometry = feature.getDefaultGeometry();
+    if (defaultGeometry instanceof Geometry) {
+      Geometry geometry = (Geometry) defaultGeometry;
+      bounds.expandToInclude(geometry.getEnvelopeInternal());
+      geometryTypes.merge(geometry.getGeometryType(), 1L, Long::sum);
+    }
+    for (Map.Entry<String, Attribute> entry : attributes.entrySet()) {
+      Object value = feature.getAttribute(entry.getKey());
+      if (value instanceof Number) {
+        entry.getValue().add(((Number) value).doubleValue());
+      }
+    }
+  }
+
+  /**
+   * Get the number of features.
+   *
+   * @return the number of features
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * Get the bounding box of all geometries as {@code [minX, minY, maxX, maxY]}.
+   *
+   * @return the bounding box or {@code null} if there are no geometries
+   */
+  public double[] getBounds() {
+    if (bounds.isNull()) {
+      return null;
+    }
+    return new double[]{bounds.getMinX(), bounds.getMinY(), bounds.getMaxX(), bounds.getMaxY()};
+  }
+
+  /**
+   * Get the statistics of the numeric attributes, sorted by name.
+   *
+   * @return the attribute statistics by attribute name
+   */
+  public Map<String, Attribute> getAttributes() {
+    return attributes;
+  }
+
+  /**
+   * Get the number of geometries per geometry type, e.g. {@code Point} or {@code Polygon}.
+   *
+   * @return the number of geometries by type
+   */
+  public Map<String, Long> getGeometryTypes() {
+    return geometryTypes;
+  }
+
+  /**
+   * The statistics of a numeric attribute. Missing and NaN values are not considered.
+   */
+  public static class Attribute {
+
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private double sum;
+    private long count;
+
+    private void add(double value) {
+      if (!Double.isNaN(value)) {
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        sum += value;
+        count++;
+      }
+    }
+
+    /**
+     * Get the minimum value.
+     *
+     * @return the minimum or NaN if there are no values
+     */
+    public double getMin() {
+      return count > 0 ? min : Double.NaN;
+    }
+
+    /**
+     * Get the maximum value.
+     *
+     * @return the maximum or NaN if there are no values
+     */
+    public double getMax() {
+      return count > 0 ? max : Double.NaN;
+    }
+
+    /**
+     * Get the sum of all values.
+     *
+     * @return the sum
+     */
+    public double getSum() {
+      return sum;
+    }
+  }
+}
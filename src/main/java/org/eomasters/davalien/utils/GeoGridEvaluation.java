@@ -0,0 +1,231 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien.utils;
+
+import java.util.List;
+import org.esa.snap.core.datamodel.GeoCoding;
+import org.esa.snap.core.datamodel.GeoPos;
+import org.esa.snap.core.datamodel.PixelPos;
+
+/**
+ * Evaluates a geocoding on a regular grid of pixels. The grid points are the centres of every {@code step}-th pixel
+ * in x and y direction. The rows of the grid are processed concurrently on the shared pool.
+ *
+ * <p>The forward error of a grid point is the larger of the latitude and longitude difference in degrees, the inverse
+ * error the larger of the x and y difference in pixels of the inverse transformation of the expected geographical
+ * position. A point where only one of the positions is invalid has an infinite error.
+ */
+public class GeoGridEvaluation {
+
+  private long numPoints;
+  private double maxFwdError;
+  private double sumFwdError;
+  private int maxFwdIndex = -1;
+  private double maxInvError;
+  private int maxInvIndex = -1;
+
+  private GeoGridEvaluation() {
+  }
+
+  /**
+   * Get the number of grid points in one direction.
+   *
+   * @param size the width or height of the raster
+   * @param step the distance of the grid points
+   * @return the number of grid points
+   */
+  public static int getNumPoints(int size, int step) {
+    return (size + step - 1) / step;
+  }
+
+  /**
+   * Computes the geographical positions of the grid points.
+   *
+   * @param geoCoding the geocoding
+   * @param width     the width of the raster
+   * @param height    the height of the raster
+   * @param step      the distance of the grid points
+   * @return the latitudes and longitudes, row by row; invalid positions are NaN
+   */
+  public static double[][] computeGeoPositions(GeoCoding geoCoding, int width, int height, int step) {
+    int numX = getNumPoints(width, step);
+    int numY = getNumPoints(height, step);
+    double[] lats = new double[numX * numY];
+    double[] lons = new double[numX * numY];
+    ConcurrencyUtils.computeAll(numY, y -> {
+      GeoPos geoPos = new GeoPos();
+      for (int x = 0; x < numX; x++) {
+        geoCoding.getGeoPos(new PixelPos(x * step + 0.5, y * step + 0.5), geoPos);
+        int index = y * numX + x;
+        lats[index] = geoPos.isValid() ? geoPos.getLat() : Double.NaN;
+        lons[index] = geoPos.isValid() ? geoPos.getLon() : Double.NaN;
+      }
+      return null;
+    });
+    return new double[][]{lats, lons};
+  }
+
+  /**
+   * Evaluates the geocoding against the expected geographical positions of the grid points.
+   *
+   * @param geoCoding the geocoding
+   * @param width     the width of the raster
+   * @param step      the distance of the grid points
+   * @param lats      the expected latitudes, row by row
+   * @param lons      the expected longitudes, row by row
+   * @param inverse   whether the inverse transformation is evaluated
+   * @return the evaluation
+   */
+  public static GeoGridEvaluation evaluate(GeoCoding geoCoding, int width, int step, double[] lats, double[] lons,
+      boolean inverse) {
+    int numX = getNumPoints(width, step);
+    int numY = (lats.length + numX - 1) / numX;
+    List<GeoGridEvaluation> rows = ConcurrencyUtils.computeAll(numY, y -> {
+      GeoGridEvaluation row = new GeoGridEvaluation();
+      GeoPos actualGp = new GeoPos();
+      PixelPos actualPp = new PixelPos();
+      for (int x = 0; x < numX && y * numX + x < lats.length; x++) {
+        int index = y * numX + x;
+        PixelPos pixelPos = new PixelPos(x * step + 0.5, y * step + 0.5);
+        geoCoding.getGeoPos(pixelPos, actualGp);
+        row.addFwdError(index, fwdError(lats[index], lons[index], actualGp));
+        if (inverse && !Double.isNaN(lats[index]) && !Double.isNaN(lons[index])) {
+          geoCoding.getPixelPos(new GeoPos(lats[index], lons[index]), actualPp);
+          row.addInvError(index, invError(pixelPos, actualPp));
+        }
+      }
+      return row;
+    });
+    GeoGridEvaluation result = new GeoGridEvaluation();
+    for (GeoGridEvaluation row : rows) {
+      result.merge(row);
+    }
+    return result;
+  }
+
+  private static double fwdError(double expLat, double expLon, GeoPos actual) {
+    boolean expValid = !Double.isNaN(expLat) && !Double.isNaN(expLon);
+    boolean actValid = actual.isValid() && !Double.isNaN(actual.getLat()) && !Double.isNaN(actual.getLon());
+    if (!expValid || !actValid) {
+      return expValid == actValid ? 0 : Double.POSITIVE_INFINITY;
+    }
+    double lonError = Math.abs(expLon - actual.getLon());
+    if (lonError > 180) {
+      lonError = 360 - lonError;
+    }
+    return Math.max(Math.abs(expLat - actual.getLat()), lonError);
+  }
+
+  private static double invError(PixelPos expected, PixelPos actual) {
+    if (!actual.isValid() || Double.isNaN(actual.getX()) || Double.isNaN(actual.getY())) {
+      return Double.POSITIVE_INFINITY;
+    }
+    return Math.max(Math.abs(expected.getX() - actual.getX()), Math.abs(expected.getY() - actual.getY()));
+  }
+
+  private void addFwdError(int index, double error) {
+    numPoints++;
+    if (Double.isFinite(error)) {
+      sumFwdError += error;
+    }
+    if (error > maxFwdError || maxFwdIndex < 0) {
+      maxFwdError = error;
+      maxFwdIndex = index;
+    }
+  }
+
+  private void addInvError(int index, double error) {
+    if (error > maxInvError || maxInvIndex < 0) {
+      maxInvError = error;
+      maxInvIndex = index;
+    }
+  }
+
+  private void merge(GeoGridEvaluation other) {
+    numPoints += other.numPoints;
+    sumFwdError += other.sumFwdError;
+    if (other.maxFwdIndex >= 0 && (other.maxFwdError > maxFwdError || maxFwdIndex < 0)) {
+      maxFwdError = other.maxFwdError;
+      maxFwdIndex = other.maxFwdIndex;
+    }
+    if (other.maxInvIndex >= 0 && (other.maxInvError > maxInvError || maxInvIndex < 0)) {
+      maxInvError = other.maxInvError;
+      maxInvIndex = other.maxInvIndex;
+    }
+  }
+
+  /**
+   * Get the number of evaluated grid points.
+   *
+   * @return the number of grid points
+   */
+  public long getNumPoints() {
+    return numPoints;
+  }
+
+  /**
+   * Get the maximum forward error in degrees.
+   *
+   * @return the maximum forward error
+   */
+  public double getMaxFwdError() {
+    return maxFwdError;
+  }
+
+  /**
+   * Get the mean forward error in degrees. Infinite errors are not included.
+   *
+   * @return the mean forward error
+   */
+  public double getMeanFwdError() {
+    return numPoints > 0 ? sumFwdError / numPoints : 0;
+  }
+
+  /**
+   * Get the index of the grid point with the maximum forward error.
+   *
+   * @return the index, row by row, or -1
+   */
+  public int getMaxFwdIndex() {
+    return maxFwdIndex;
+  }
+
+  /**
+   * Get the maximum inverse error in pixels.
+   *
+   * @return the maximum inverse error
+   */
+  public double getMaxInvError() {
+    return maxInvError;
+  }
+
+  /**
+   * Get the index of the grid point with the maximum inverse error.
+   *
+   * @return the index, row by row, or -1
+   */
+  public int getMaxInvIndex() {
+    return maxInvIndex;
+  }
+}
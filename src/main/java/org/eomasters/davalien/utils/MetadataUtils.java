@@ -23,7 +23,12 @@
 
 package org.eomasters.davalien.utils;
 
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
 import org.esa.snap.core.datamodel.MetadataAttribute;
 import org.esa.snap.core.datamodel.MetadataElement;
 
@@ -43,12 +48,22 @@ public class MetadataUtils {
   }
 
   /**
-   * This class wraps a {@link MetadataElement} in a {@link MetadataWrapper}. It provides a method for getting an
-   * attribute by its path.
+   * This class wraps a {@link MetadataElement} in a {@link MetadataWrapper}. It provides methods for getting
+   * attributes by their path.
+   *
+   * <p>A path consists of the names of the elements and the name of the attribute separated by {@code /}. An element
+   * can be addressed by its index within the parent element, e.g. {@code Orbit_List/Orbit[2]/Time}. Paths given to
+   * {@link #findAttributes(String)} can contain the wildcards {@code *} and {@code ?} in the names and {@code [*]}
+   * as index.
+   *
+   * <p>On the first query the tree is indexed once. Later queries don't traverse the tree again, so a wrapper should
+   * be reused for all queries on the same root. The metadata must not change after the index has been built.
    */
   public static class MetadataWrapper {
 
     private final MetadataElement root;
+    private Node rootNode;
+    private Map<String, MetadataAttribute> attributesByPath;
 
     private MetadataWrapper(MetadataElement root) {
       this.root = root;
@@ -61,28 +76,70 @@ public class MetadataUtils {
      * @return the attribute
      */
     public MetadataAttribute getElement(String path) {
+      ensureIndex();
+      MetadataAttribute attribute = attributesByPath.get(path);
+      if (attribute != null) {
+        return attribute;
+      }
+      // not the canonical form of the path, e.g. an index is given for an unambiguous name
       String[] tokens = path.split("/");
-      String[] elemtokens = Arrays.copyOf(tokens, tokens.length - 1);
-      MetadataElement elem = root;
-      for (String token : elemtokens) {
-        String[] split = token.matches(".*\\[\\d+]") ? token.split("\\[") : new String[]{token};
-        int index = split.length > 1 ? Integer.parseInt(split[1].substring(0, split[1].length() - 1)) : -1;
-        if (index >= 0) {
-          try {
-            elem = elem.getElementAt(index);
-          } catch (IndexOutOfBoundsException e) {
-            elem = null;
+      Node node = findNode(tokens, tokens.length - 1);
+      return node != null ? node.attributesByName.get(tokens[tokens.length - 1]) : null;
+    }
+
+    /**
+     * Get an element by its path.
+     *
+     * @param path the path to the element, an empty path denotes the root
+     * @return the element or {@code null}
+     */
+    public MetadataElement findElement(String path) {
+      ensureIndex();
+      if (path.isEmpty()) {
+        return root;
+      }
+      String[] tokens = path.split("/");
+      Node node = findNode(tokens, tokens.length);
+      return node != null ? node.element : null;
+    }
+
+    /**
+     * Finds all attributes matching the given path. The path can contain wildcards.
+     *
+     * @param pathPattern the path to the attributes
+     * @return the matching attributes by their canonical path, in the order of the metadata tree
+     */
+    public Map<String, MetadataAttribute> findAttributes(String pathPattern) {
+      ensureIndex();
+      if (!isPattern(pathPattern)) {
+        MetadataAttribute attribute = getElement(pathPattern);
+        return attribute != null ? Map.of(pathPattern, attribute) : Map.of();
+      }
+      String[] tokens = pathPattern.split("/");
+      List<Node> nodes = List.of(rootNode);
+      for (int i = 0; i < tokens.length - 1 && !nodes.isEmpty(); i++) {
+        nodes = matchChildren(nodes, tokens[i]);
+      }
+      Pattern attributePattern = toPattern(tokens[tokens.length - 1]);
+      Map<String, MetadataAttribute> result = new LinkedHashMap<>();
+      for (Node node : nodes) {
+        for (MetadataAttribute attribute : node.element.getAttributes()) {
+          if (attributePattern.matcher(attribute.getName()).matches()) {
+            result.putIfAbsent(node.path + attribute.getName(), attribute);
           }
-        } else {
-          String name = split[0];
-          elem = elem.getElement(name);
-        }
-        if (elem == null) {
-          return null;
         }
       }
-      String attributeName = getAttributeName(path);
-      return elem.getAttribute(attributeName);
+      return result;
+    }
+
+    /**
+     * Checks if the given path contains wildcards.
+     *
+     * @param path the path
+     * @return {@code true} if the path contains wildcards
+     */
+    public static boolean isPattern(String path) {
+      return path.indexOf('*') >= 0 || path.indexOf('?') >= 0;
     }
 
     public String getAttributeName(String path) {
@@ -90,6 +147,116 @@ public class MetadataUtils {
       return tokens[tokens.length - 1];
     }
 
+    private synchronized void ensureIndex() {
+      if (rootNode == null) {
+        attributesByPath = new HashMap<>();
+        rootNode = createNode(root, "");
+      }
+    }
+
+    private Node createNode(MetadataElement element, String path) {
+      Node node = new Node(element, path);
+      for (MetadataAttribute attribute : element.getAttributes()) {
+        node.attributesByName.putIfAbsent(attribute.getName(), attribute);
+        attributesByPath.putIfAbsent(path + attribute.getName(), attribute);
+      }
+      MetadataElement[] elements = element.getElements();
+      Map<String, Integer> nameCounts = new HashMap<>();
+      for (MetadataElement child : elements) {
+        nameCounts.merge(child.getName(), 1, Integer::sum);
+      }
+      for (int i = 0; i < elements.length; i++) {
+        String name = elements[i].getName();
+        String token = nameCounts.get(name) > 1 ? name + "[" + i + "]" : name;
+        Node child = createNode(elements[i], path + token + "/");
+        node.children.add(child);
+        node.childrenByName.putIfAbsent(name, child);
+      }
+      return node;
+    }
+
+    private Node findNode(String[] tokens, int numElementTokens) {
+      Node node = rootNode;
+      for (int i = 0; i < numElementTokens && node != null; i++) {
+        String token = tokens[i];
+        int bracket = indexStart(token);
+        if (bracket >= 0) {
+          int index = Integer.parseInt(token.substring(bracket + 1, token.length() - 1));
+          node = index < node.children.size() ? node.children.get(index) : null;
+        } else {
+          node = node.childrenByName.get(token);
+        }
+      }
+      return node;
+    }
+
+    private static List<Node> matchChildren(List<Node> nodes, String token) {
+      boolean anyIndex = token.endsWith("[*]");
+      int bracket = anyIndex ? token.length() - 3 : indexStart(token);
+      Pattern namePattern = toPattern(bracket >= 0 ? token.substring(0, bracket) : token);
+      List<Node> matches = new ArrayList<>();
+      for (Node node : nodes) {
+        if (bracket >= 0 && !anyIndex) {
+          // an explicit index selects the element regardless of the name, as in getElement
+          int index = Integer.parseInt(token.substring(bracket + 1, token.length() - 1));
+          if (index < node.children.size()) {
+            matches.add(node.children.get(index));
+          }
+        } else if (!isPattern(token)) {
+          Node child = node.childrenByName.get(token);
+          if (child != null) {
+            matches.add(child);
+          }
+        } else {
+          for (Node child : node.children) {
+            if (namePattern.matcher(child.element.getName()).matches()) {
+              matches.add(child);
+            }
+          }
+        }
+      }
+      return matches;
+    }
+
+    private static int indexStart(String token) {
+      if (!token.endsWith("]")) {
+        return -1;
+      }
+      int bracket = token.lastIndexOf('[');
+      if (bracket < 0 || bracket == token.length() - 2) {
+        return -1;
+      }
+      String index = token.substring(bracket + 1, token.length() - 1);
+      return index.chars().allMatch(Character::isDigit) ? bracket : -1;
+    }
+
+    private static Pattern toPattern(String glob) {
+      StringBuilder regex = new StringBuilder();
+      int start = 0;
+      for (int i = 0; i < glob.length(); i++) {
+        char c = glob.charAt(i);
+        if (c == '*' || c == '?') {
+          regex.append(Pattern.quote(glob.substring(start, i))).append(c == '*' ? ".*" : ".");
+          start = i + 1;
+        }
+      }
+      regex.append(Pattern.quote(glob.substring(start)));
+      return Pattern.compile(regex.toString());
+    }
+
+    private static class Node {
+
+      private final MetadataElement element;
+      private final String path;
+      private final List<Node> children = new ArrayList<>();
+      private final Map<String, Node> childrenByName = new HashMap<>();
+      private final Map<String, MetadataAttribute> attributesByName = new HashMap<>();
+
+      private Node(MetadataElement element, String path) {
+        this.element = element;
+        this.path = path;
+      }
+    }
   }
 
 }
@@ -0,0 +1,274 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien.utils;
+
+import com.bc.ceres.core.ProgressMonitor;
+import com.bc.ceres.glevel.MultiLevelImage;
+import java.awt.Rectangle;
+import java.awt.image.DataBuffer;
+import java.awt.image.Raster;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.media.jai.PixelAccessor;
+import javax.media.jai.PlanarImage;
+import javax.media.jai.UnpackedImageData;
+import org.esa.snap.core.datamodel.HistogramStxOp;
+import org.esa.snap.core.datamodel.RasterDataNode;
+import org.esa.snap.core.datamodel.Stx;
+import org.esa.snap.core.datamodel.StxFactory;
+import org.esa.snap.core.datamodel.StxOp;
+import org.esa.snap.core.datamodel.SummaryStxOp;
+
+/**
+ * Computes the statistics of several rasters together.
+ *
+ * <p>Rasters with the same size and tiling are processed in one pass over the tiles: each tile of every raster is
+ * read once per pass while the tiles are distributed over the threads of the shared pool. A first pass computes the
+ * minimum, maximum, mean and standard deviation, a second pass the histogram within the found range. The statistics
+ * are accumulated with the {@link SummaryStxOp} and {@link HistogramStxOp} of SNAP, using the same number of bins as
+ * {@link RasterDataNode#getStx(boolean, ProgressMonitor)}, so the results are equal to the accurate {@link Stx} of
+ * the raster.
+ *
+ * <p>The statistics can also be computed at a lower resolution level of a raster, which gives approximate statistics
+ * in a fraction of the time.
+ *
+ * <p>Log-scaled rasters and rasters without valid pixels are not contained in the result. The statistics of these
+ * rasters need to be computed by {@link #computeSingle(RasterDataNode, int)}.
+ */
+public class MultiBandStatistics {
+
+  private MultiBandStatistics() {
+  }
+
+  /**
+   * Computes the accurate statistics of the given rasters.
+   *
+   * @param rasters the rasters
+   * @return the statistics of the rasters which could be computed together
+   */
+  public static Map<RasterDataNode, BandStatistics> compute(List<RasterDataNode> rasters) {
+    return compute(rasters, Collections.nCopies(rasters.size(), 0));
+  }
+
+  /**
+   * Computes the statistics of the given rasters at the given resolution levels. At a level greater than 0 the
+   * statistics are approximations of the accurate statistics.
+   *
+   * @param rasters the rasters
+   * @param levels  the resolution level for each raster
+   * @return the statistics of the rasters which could be computed together
+   */
+  public static Map<RasterDataNode, BandStatistics> compute(List<RasterDataNode> rasters, List<Integer> levels) {
+    Map<List<Integer>, List<Integer>> rastersByGrid = new LinkedHashMap<>();
+    List<PlanarImage> images = new ArrayList<>();
+    for (int i = 0; i < rasters.size(); i++) {
+      RasterDataNode raster = rasters.get(i);
+      PlanarImage image = getLevelImage(raster.getGeophysicalImage(), levels.get(i));
+      images.add(image);
+      if (!raster.isLog10Scaled()) {
+        rastersByGrid.computeIfAbsent(getGridKey(image), k -> new ArrayList<>()).add(i);
+      }
+    }
+    Map<RasterDataNode, BandStatistics> result = new IdentityHashMap<>();
+    for (List<Integer> group : rastersByGrid.values()) {
+      List<RasterDataNode> groupRasters = new ArrayList<>();
+      PlanarImage[] groupImages = new PlanarImage[group.size()];
+      PlanarImage[] groupMasks = new PlanarImage[group.size()];
+      for (int b = 0; b < group.size(); b++) {
+        int i = group.get(b);
+        groupRasters.add(rasters.get(i));
+        groupImages[b] = images.get(i);
+        groupMasks[b] = getLevelImage(rasters.get(i).getValidMaskImage(), levels.get(i));
+      }
+      computeGroup(groupRasters, groupImages, groupMasks, result);
+    }
+    return result;
+  }
+
+  /**
+   * Computes the statistics of a single raster by SNAP. This is used for the rasters which are not contained in the
+   * result of {@link #compute(List, List)}.
+   *
+   * @param raster the raster
+   * @param level  the resolution level, 0 for the accurate statistics
+   * @return the statistics
+   */
+  public static BandStatistics computeSingle(RasterDataNode raster, int level) {
+    if (level == 0) {
+      return BandStatistics.of(raster.getStx(true, ProgressMonitor.NULL));
+    }
+    return BandStatistics.of(new StxFactory().withResolutionLevel(level).create(raster, ProgressMonitor.NULL));
+  }
+
+  private static PlanarImage getLevelImage(MultiLevelImage image, int level) {
+    if (image == null || level == 0) {
+      return image;
+    }
+    return PlanarImage.wrapRenderedImage(image.getImage(level));
+  }
+
+  private static void computeGroup(List<RasterDataNode> rasters, PlanarImage[] images, PlanarImage[] masks,
+      Map<RasterDataNode, BandStatistics> result) {
+    int numRasters = rasters.size();
+    PlanarImage refImage = images[0];
+    List<int[]> tiles = new ArrayList<>();
+    for (int ty = refImage.getMinTileY(); ty < refImage.getMinTileY() + refImage.getNumYTiles(); ty++) {
+      for (int tx = refImage.getMinTileX(); tx < refImage.getMinTileX() + refImage.getNumXTiles(); tx++) {
+        tiles.add(new int[]{tx, ty});
+      }
+    }
+    int numChunks = Math.min(tiles.size(), ConcurrencyUtils.getPool().getParallelism() * 4);
+
+    List<SummaryStxOp[]> summaries = ConcurrencyUtils.computeAll(numChunks, chunk -> {
+      SummaryStxOp[] ops = new SummaryStxOp[numRasters];
+      for (int b = 0; b < numRasters; b++) {
+        ops[b] = new SummaryStxOp();
+      }
+      accumulateChunk(images, masks, tiles, chunk, numChunks, ops);
+      return ops;
+    });
+
+    // rasters without valid pixels are left to getStx()
+    List<Integer> validRasters = new ArrayList<>();
+    double[] minimum = new double[numRasters];
+    double[] maximum = new double[numRasters];
+    for (int b = 0; b < numRasters; b++) {
+      minimum[b] = Double.POSITIVE_INFINITY;
+      maximum[b] = Double.NEGATIVE_INFINITY;
+      for (SummaryStxOp[] ops : summaries) {
+        minimum[b] = Math.min(minimum[b], ops[b].getMinimum());
+        maximum[b] = Math.max(maximum[b], ops[b].getMaximum());
+      }
+      if (minimum[b] <= maximum[b] && !Double.isInfinite(minimum[b]) && !Double.isInfinite(maximum[b])) {
+        validRasters.add(b);
+      }
+    }
+    if (validRasters.isEmpty()) {
+      return;
+    }
+
+    PlanarImage[] validImages = validRasters.stream().map(b -> images[b]).toArray(PlanarImage[]::new);
+    PlanarImage[] validMasks = validRasters.stream().map(b -> masks[b]).toArray(PlanarImage[]::new);
+    List<HistogramStxOp[]> histograms = ConcurrencyUtils.computeAll(numChunks, chunk -> {
+      HistogramStxOp[] ops = new HistogramStxOp[validImages.length];
+      for (int v = 0; v < validImages.length; v++) {
+        int b = validRasters.get(v);
+        boolean intHistogram = images[b].getSampleModel().getDataType() < DataBuffer.TYPE_FLOAT;
+        ops[v] = new HistogramStxOp(Stx.DEFAULT_BIN_COUNT, minimum[b], maximum[b], intHistogram, false);
+      }
+      accumulateChunk(validImages, validMasks, tiles, chunk, numChunks, ops);
+      return ops;
+    });
+
+    for (int v = 0; v < validImages.length; v++) {
+      int b = validRasters.get(v);
+      int[] bins = null;
+      long[] chunkCounts = new long[numChunks];
+      long validCount = 0;
+      double weightedMean = 0;
+      for (int chunk = 0; chunk < numChunks; chunk++) {
+        int[] chunkBins = histograms.get(chunk)[v].getHistogram().getBins(0);
+        if (bins == null) {
+          bins = new int[chunkBins.length];
+        }
+        for (int i = 0; i < chunkBins.length; i++) {
+          bins[i] += chunkBins[i];
+          chunkCounts[chunk] += chunkBins[i];
+        }
+        if (chunkCounts[chunk] > 0) {
+          // the mean of the chunk is weighted by its number of valid pixels
+          weightedMean += summaries.get(chunk)[b].getMean() * chunkCounts[chunk];
+          validCount += chunkCounts[chunk];
+        }
+      }
+      double mean = validCount > 0 ? weightedMean / validCount : Double.NaN;
+      double sigma = combineStandardDeviations(summaries, b, chunkCounts, mean, validCount);
+      result.put(rasters.get(b), new BandStatistics(minimum[b], maximum[b], mean, sigma, validCount, bins));
+    }
+  }
+
+  // Combines the sample variances of the chunks: the sum of squared deviations of a chunk is its variance times
+  // (n - 1), plus n times the squared distance of the chunk mean to the total mean.
+  private static double combineStandardDeviations(List<SummaryStxOp[]> summaries, int b, long[] chunkCounts,
+      double mean, long validCount) {
+    if (validCount < 2) {
+      return 0.0;
+    }
+    double sumSquares = 0;
+    for (int chunk = 0; chunk < chunkCounts.length; chunk++) {
+      long count = chunkCounts[chunk];
+      if (count == 0) {
+        continue;
+      }
+      SummaryStxOp op = summaries.get(chunk)[b];
+      if (count > 1) {
+        double chunkSigma = op.getStandardDeviation();
+        sumSquares += chunkSigma * chunkSigma * (count - 1);
+      }
+      double delta = op.getMean() - mean;
+      sumSquares += count * delta * delta;
+    }
+    return Math.sqrt(sumSquares / (validCount - 1));
+  }
+
+  private static List<Integer> getGridKey(PlanarImage image) {
+    return List.of(image.getWidth(), image.getHeight(), image.getTileWidth(), image.getTileHeight(),
+        image.getTileGridXOffset(), image.getTileGridYOffset());
+  }
+
+  // the tiles are distributed round-robin to the chunks; both passes use the same distribution
+  private static void accumulateChunk(PlanarImage[] images, PlanarImage[] masks, List<int[]> tiles, int chunk,
+      int numChunks, StxOp[] ops) {
+    PixelAccessor[] dataAccessors = new PixelAccessor[images.length];
+    PixelAccessor[] maskAccessors = new PixelAccessor[images.length];
+    for (int b = 0; b < images.length; b++) {
+      dataAccessors[b] = new PixelAccessor(images[b].getSampleModel(), null);
+      maskAccessors[b] = masks[b] != null ? new PixelAccessor(masks[b].getSampleModel(), null) : null;
+    }
+    for (int t = chunk; t < tiles.size(); t += numChunks) {
+      int tileX = tiles.get(t)[0];
+      int tileY = tiles.get(t)[1];
+      for (int b = 0; b < images.length; b++) {
+        PlanarImage image = images[b];
+        Raster dataTile = image.getTile(tileX, tileY);
+        Rectangle rect = image.getBounds().intersection(dataTile.getBounds());
+        if (rect.isEmpty()) {
+          continue;
+        }
+        UnpackedImageData dataPixels = dataAccessors[b].getPixels(dataTile, rect,
+            image.getSampleModel().getDataType(), false);
+        UnpackedImageData maskPixels = null;
+        if (masks[b] != null) {
+          Raster maskTile = masks[b].getTile(tileX, tileY);
+          maskPixels = maskAccessors[b].getPixels(maskTile, rect, DataBuffer.TYPE_BYTE, false);
+        }
+        ops[b].accumulateData(dataPixels, maskPixels);
+      }
+    }
+  }
+}
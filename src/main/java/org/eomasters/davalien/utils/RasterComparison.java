@@ -0,0 +1,225 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien.utils;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.media.jai.PlanarImage;
+import org.esa.snap.core.datamodel.RasterDataNode;
+
+/**
+ * Compares the geophysical values of a raster with those of a reference raster, pixel by pixel.
+ *
+ * <p>The rasters are streamed tile by tile, using the tiling of the actual raster. The tiles are distributed over the
+ * threads of the shared pool. While a thread compares a tile, the tiles it compares next are already queued for
+ * computation. Each thread holds only the data of its current tile, hence the memory used does not depend on the size
+ * of the rasters.
+ *
+ * <p>A pixel differs if its absolute difference is greater than the allowed error, if it is valid in only one of the
+ * rasters, or if only one of the values is NaN. The maximum absolute error and the RMSE are computed from the pixels
+ * which are valid in both rasters and have finite differences.
+ */
+public class RasterComparison {
+
+  private long comparedCount;
+  private long differingCount;
+  private long errorCount;
+  private double maxAbsError;
+  private double sumSquaredError;
+  private int minX = Integer.MAX_VALUE;
+  private int minY = Integer.MAX_VALUE;
+  private int maxX = Integer.MIN_VALUE;
+  private int maxY = Integer.MIN_VALUE;
+
+  private RasterComparison() {
+  }
+
+  /**
+   * Compares the given raster with the reference raster. Both rasters need to have the same size.
+   *
+   * @param actual    the actual raster
+   * @param reference the reference raster
+   * @param eps       the allowed absolute difference
+   * @return the result of the comparison
+   */
+  public static RasterComparison compare(RasterDataNode actual, RasterDataNode reference, double eps) {
+    PlanarImage[] images = {actual.getGeophysicalImage(), reference.getGeophysicalImage(),
+        actual.getValidMaskImage(), reference.getValidMaskImage()};
+    PlanarImage actImage = images[0];
+    List<Rectangle> tiles = new ArrayList<>();
+    for (int ty = actImage.getMinTileY(); ty < actImage.getMinTileY() + actImage.getNumYTiles(); ty++) {
+      for (int tx = actImage.getMinTileX(); tx < actImage.getMinTileX() + actImage.getNumXTiles(); tx++) {
+        Rectangle rect = actImage.getTileRect(tx, ty).intersection(actImage.getBounds());
+        if (!rect.isEmpty()) {
+          tiles.add(rect);
+        }
+      }
+    }
+    int numChunks = Math.min(tiles.size(), ConcurrencyUtils.getPool().getParallelism());
+    int bufferSize = actImage.getTileWidth() * actImage.getTileHeight();
+    List<RasterComparison> parts = ConcurrencyUtils.computeAll(numChunks, chunk -> {
+      RasterComparison part = new RasterComparison();
+      double[] actValues = new double[bufferSize];
+      double[] refValues = new double[bufferSize];
+      int[] actValid = new int[bufferSize];
+      int[] refValid = new int[bufferSize];
+      if (chunk < tiles.size()) {
+        queueTiles(images, tiles.get(chunk));
+      }
+      for (int t = chunk; t < tiles.size(); t += numChunks) {
+        if (t + numChunks < tiles.size()) {
+          // read-ahead of the next tile of this thread
+          queueTiles(images, tiles.get(t + numChunks));
+        }
+        part.compareTile(images, tiles.get(t), eps, actValues, refValues, actValid, refValid);
+      }
+      return part;
+    });
+
+    RasterComparison result = new RasterComparison();
+    for (RasterComparison part : parts) {
+      result.merge(part);
+    }
+    return result;
+  }
+
+  private static void queueTiles(PlanarImage[] images, Rectangle rect) {
+    for (PlanarImage image : images) {
+      if (image != null) {
+        image.queueTiles(image.getTileIndices(rect));
+      }
+    }
+  }
+
+  private void compareTile(PlanarImage[] images, Rectangle rect, double eps, double[] actValues, double[] refValues,
+      int[] actValid, int[] refValid) {
+    int x0 = rect.x;
+    int y0 = rect.y;
+    int w = rect.width;
+    int h = rect.height;
+    images[0].getData(rect).getSamples(x0, y0, w, h, 0, actValues);
+    images[1].getData(rect).getSamples(x0, y0, w, h, 0, refValues);
+    readMask(images[2], rect, actValid);
+    readMask(images[3], rect, refValid);
+    for (int i = 0; i < w * h; i++) {
+      boolean actIsValid = actValid[i] != 0;
+      boolean refIsValid = refValid[i] != 0;
+      if (!actIsValid && !refIsValid) {
+        continue;
+      }
+      comparedCount++;
+      double act = actValues[i];
+      double ref = refValues[i];
+      if (actIsValid != refIsValid || Double.isNaN(act) != Double.isNaN(ref)) {
+        addDifference(x0 + i % w, y0 + i / w);
+      } else if (!Double.isNaN(act)) {
+        double absError = Math.abs(act - ref);
+        if (Double.isFinite(absError)) {
+          errorCount++;
+          maxAbsError = Math.max(maxAbsError, absError);
+          sumSquaredError += absError * absError;
+        }
+        // equal infinite values have a NaN difference
+        if (!(absError <= eps) && act != ref) {
+          addDifference(x0 + i % w, y0 + i / w);
+        }
+      }
+    }
+  }
+
+  private static void readMask(PlanarImage mask, Rectangle rect, int[] valid) {
+    if (mask == null) {
+      Arrays.fill(valid, 0, rect.width * rect.height, 1);
+    } else {
+      mask.getData(rect).getSamples(rect.x, rect.y, rect.width, rect.height, 0, valid);
+    }
+  }
+
+  private void addDifference(int x, int y) {
+    differingCount++;
+    minX = Math.min(minX, x);
+    minY = Math.min(minY, y);
+    maxX = Math.max(maxX, x);
+    maxY = Math.max(maxY, y);
+  }
+
+  private void merge(RasterComparison other) {
+    comparedCount += other.comparedCount;
+    differingCount += other.differingCount;
+    errorCount += other.errorCount;
+    maxAbsError = Math.max(maxAbsError, other.maxAbsError);
+    sumSquaredError += other.sumSquaredError;
+    minX = Math.min(minX, other.minX);
+    minY = Math.min(minY, other.minY);
+    maxX = Math.max(maxX, other.maxX);
+    maxY = Math.max(maxY, other.maxY);
+  }
+
+  /**
+   * Get the number of pixels which are valid in at least one of the rasters.
+   *
+   * @return the number of compared pixels
+   */
+  public long getComparedCount() {
+    return comparedCount;
+  }
+
+  /**
+   * Get the number of differing pixels.
+   *
+   * @return the number of differing pixels
+   */
+  public long getDifferingCount() {
+    return differingCount;
+  }
+
+  /**
+   * Get the maximum absolute error.
+   *
+   * @return the maximum absolute error
+   */
+  public double getMaxAbsError() {
+    return maxAbsError;
+  }
+
+  /**
+   * Get the root mean square error.
+   *
+   * @return the RMSE
+   */
+  public double getRmse() {
+    return errorCount > 0 ? Math.sqrt(sumSquaredError / errorCount) : 0;
+  }
+
+  /**
+   * Get the bounding box of the differing pixels.
+   *
+   * @return the bounding box or {@code null} if no pixel differs
+   */
+  public Rectangle getDifferenceBounds() {
+    return differingCount > 0 ? new Rectangle(minX, minY, maxX - minX + 1, maxY - minY + 1) : null;
+  }
+}
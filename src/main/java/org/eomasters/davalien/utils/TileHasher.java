@@ -0,0 +1,119 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien.utils;
+
+import java.awt.Rectangle;
+import java.awt.image.DataBuffer;
+import java.awt.image.Raster;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.zip.CRC32C;
+import javax.media.jai.PlanarImage;
+import org.esa.snap.core.datamodel.RasterDataNode;
+
+/**
+ * Computes CRC32C hashes of the raw data of a raster for a grid of tiles. The samples are hashed in their native data
+ * type and in big-endian byte order. The tiles are hashed concurrently on the shared pool.
+ */
+public class TileHasher {
+
+  private TileHasher() {
+  }
+
+  /**
+   * Computes the hashes of the tiles of the source image of the given raster.
+   *
+   * @param raster     the raster
+   * @param tileWidth  the width of the tiles
+   * @param tileHeight the height of the tiles
+   * @return the hashes as hexadecimal strings, row by row
+   */
+  public static List<String> computeHashes(RasterDataNode raster, int tileWidth, int tileHeight) {
+    PlanarImage image = raster.getSourceImage();
+    int numXTiles = getNumTiles(image.getWidth(), tileWidth);
+    int numYTiles = getNumTiles(image.getHeight(), tileHeight);
+    return ConcurrencyUtils.computeAll(numXTiles * numYTiles,
+        i -> hashTile(image, getTileRect(image, tileWidth, tileHeight, i % numXTiles, i / numXTiles)));
+  }
+
+  /**
+   * Get the number of tiles needed to cover the given size.
+   *
+   * @param size     the size of the raster
+   * @param tileSize the size of the tiles
+   * @return the number of tiles
+   */
+  public static int getNumTiles(int size, int tileSize) {
+    return (size + tileSize - 1) / tileSize;
+  }
+
+  /**
+   * Get the rectangle of the tile at the given tile index, clipped to the image.
+   *
+   * @param image      the image
+   * @param tileWidth  the width of the tiles
+   * @param tileHeight the height of the tiles
+   * @param tileX      the tile index in x direction
+   * @param tileY      the tile index in y direction
+   * @return the tile rectangle
+   */
+  public static Rectangle getTileRect(PlanarImage image, int tileWidth, int tileHeight, int tileX, int tileY) {
+    Rectangle tileRect = new Rectangle(image.getMinX() + tileX * tileWidth, image.getMinY() + tileY * tileHeight,
+        tileWidth, tileHeight);
+    return tileRect.intersection(image.getBounds());
+  }
+
+  private static String hashTile(PlanarImage image, Rectangle rect) {
+    Raster data = image.getData(rect);
+    int numSamples = rect.width * rect.height;
+    int dataType = data.getSampleModel().getDataType();
+    ByteBuffer buffer = ByteBuffer.allocate(numSamples * DataBuffer.getDataTypeSize(dataType) / 8);
+    switch (dataType) {
+      case DataBuffer.TYPE_FLOAT:
+        for (float sample : data.getSamples(rect.x, rect.y, rect.width, rect.height, 0, new float[numSamples])) {
+          buffer.putFloat(sample);
+        }
+        break;
+      case DataBuffer.TYPE_DOUBLE:
+        for (double sample : data.getSamples(rect.x, rect.y, rect.width, rect.height, 0, new double[numSamples])) {
+          buffer.putDouble(sample);
+        }
+        break;
+      default:
+        int[] samples = data.getSamples(rect.x, rect.y, rect.width, rect.height, 0, new int[numSamples]);
+        for (int sample : samples) {
+          if (dataType == DataBuffer.TYPE_BYTE) {
+            buffer.put((byte) sample);
+          } else if (dataType == DataBuffer.TYPE_INT) {
+            buffer.putInt(sample);
+          } else {
+            buffer.putShort((short) sample);
+          }
+        }
+    }
+    CRC32C crc = new CRC32C();
+    crc.update(buffer.flip());
+    return String.format("%08x", crc.getValue());
+  }
+}
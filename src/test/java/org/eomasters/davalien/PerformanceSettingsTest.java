@@ -0,0 +1,151 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.eomasters.davalien.res.JsonHelper;
+import org.eomasters.davalien.res.testdef.TestDefinition;
+import org.junit.jupiter.api.Test;
+
+class PerformanceSettingsTest {
+
+  @Test
+  void testTestDefinitionTakesPrecedence() {
+    EnvConfig config = (EnvConfig) JsonHelper.fromJson("{\"parallelism\": 8, \"tileCacheSizeMb\": 2048}",
+        EnvConfig.class);
+    TestDefinition testDef = (TestDefinition) JsonHelper.fromJson(
+        "{\"testName\": \"test\", \"parallelism\": 2, \"tileSize\": 256}", TestDefinition.class);
+
+    PerformanceSettings settings = PerformanceSettings.resolve(testDef, config);
+    assertEquals(2, settings.getParallelism());
+    assertEquals(2048, settings.getTileCacheSizeMb());
+    assertEquals(256, settings.getTileSize());
+    assertEquals(Map.of(PerformanceSettings.TILE_SIZE_PROPERTY, "256"), settings.getSystemProperties());
+  }
+
+  @Test
+  void testAddToParamList() {
+    List<String> paramList = new ArrayList<>(List.of("Subset", "-t", "target.znap", "-c", "512M"));
+    new PerformanceSettings(4, 1024, null).addToParamList(paramList);
+    assertEquals(List.of("Subset", "-q", "4", "-t", "target.znap", "-c", "512M"), paramList);
+
+    PerformanceSettings unset = new PerformanceSettings(null, null, null);
+    List<String> unchanged = new ArrayList<>(List.of("Subset"));
+    unset.addToParamList(unchanged);
+    assertEquals(List.of("Subset"), unchanged);
+    assertNull(unset.getParallelism());
+  }
+
+  @Test
+  void testDifferentSettingsAreNotAppliedConcurrently() throws Exception {
+    String initialTileSize = System.getProperty(PerformanceSettings.TILE_SIZE_PROPERTY);
+    PerformanceSettings settings256 = new PerformanceSettings(null, null, 256);
+    PerformanceSettings settings512 = new PerformanceSettings(null, null, 512);
+
+    PerformanceSettings.Applied first = settings256.applyToCurrentJvm();
+    // equal settings are shared
+    PerformanceSettings.Applied second = new PerformanceSettings(null, null, 256).applyToCurrentJvm();
+    assertEquals("256", System.getProperty(PerformanceSettings.TILE_SIZE_PROPERTY));
+
+    AtomicReference<String> otherTileSize = new AtomicReference<>();
+    CountDownLatch applied = new CountDownLatch(1);
+    Thread other = new Thread(() -> {
+      try (PerformanceSettings.Applied ignored = settings512.applyToCurrentJvm()) {
+        otherTileSize.set(System.getProperty(PerformanceSettings.TILE_SIZE_PROPERTY));
+        applied.countDown();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    other.start();
+    assertFalse(applied.await(200, TimeUnit.MILLISECONDS));
+    first.close();
+    assertEquals("256", System.getProperty(PerformanceSettings.TILE_SIZE_PROPERTY));
+    second.close();
+    assertTrue(applied.await(10, TimeUnit.SECONDS));
+    other.join();
+
+    assertEquals("512", otherTileSize.get());
+    assertEquals(initialTileSize, System.getProperty(PerformanceSettings.TILE_SIZE_PROPERTY));
+  }
+
+  @Test
+  void testWaitingSettingsAreNotOvertaken() throws Exception {
+    PerformanceSettings settings256 = new PerformanceSettings(null, null, 256);
+    PerformanceSettings settings512 = new PerformanceSettings(null, null, 512);
+    List<String> admitted = Collections.synchronizedList(new ArrayList<>());
+
+    PerformanceSettings.Applied first = settings256.applyToCurrentJvm();
+    Thread waiting = startApplying(settings512, admitted);
+    Thread.sleep(200);
+    // uses the applied settings, but must not overtake the waiting request
+    Thread later = startApplying(new PerformanceSettings(null, null, 256), admitted);
+    Thread.sleep(200);
+    assertEquals(List.of(), admitted);
+
+    first.close();
+    waiting.join(10_000);
+    later.join(10_000);
+    assertEquals(List.of("512", "256"), admitted);
+  }
+
+  @Test
+  void testAppliedCanBeClosedByAnotherThread() throws Exception {
+    String initialTileSize = System.getProperty(PerformanceSettings.TILE_SIZE_PROPERTY);
+    PerformanceSettings.Applied applied = new PerformanceSettings(null, null, 256).applyToCurrentJvm();
+    Thread other = new Thread(applied::close);
+    other.start();
+    other.join();
+    assertEquals(initialTileSize, System.getProperty(PerformanceSettings.TILE_SIZE_PROPERTY));
+    // closing again doesn't release settings of other tests
+    PerformanceSettings.Applied next = new PerformanceSettings(null, null, 512).applyToCurrentJvm();
+    applied.close();
+    assertEquals("512", System.getProperty(PerformanceSettings.TILE_SIZE_PROPERTY));
+    next.close();
+    assertEquals(initialTileSize, System.getProperty(PerformanceSettings.TILE_SIZE_PROPERTY));
+  }
+
+  private static Thread startApplying(PerformanceSettings settings, List<String> admitted) {
+    Thread thread = new Thread(() -> {
+      try (PerformanceSettings.Applied ignored = settings.applyToCurrentJvm()) {
+        admitted.add(System.getProperty(PerformanceSettings.TILE_SIZE_PROPERTY));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    thread.start();
+    return thread;
+  }
+}
@@ -0,0 +1,123 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import org.eomasters.davalien.res.testdef.Coding;
+import org.eomasters.davalien.res.testdef.Metadata;
+import org.eomasters.davalien.res.testdef.MetadataTree;
+import org.eomasters.davalien.res.testdef.ProductContent;
+import org.eomasters.davalien.res.testdef.Raster;
+import org.eomasters.davalien.res.testdef.Vector;
+import org.esa.snap.core.dataio.ProductSubsetDef;
+import org.esa.snap.core.datamodel.FlagCoding;
+import org.esa.snap.core.datamodel.IndexCoding;
+import org.esa.snap.core.datamodel.MetadataElement;
+import org.esa.snap.core.datamodel.Product;
+import org.junit.jupiter.api.Test;
+
+class ProductValidatorTest {
+
+  @Test
+  void testCreateSubsetDef() {
+    ProductContent content = new ProductContent();
+    Raster raster = new Raster("reflectance", null);
+    raster.setValidPixelExpression("flags.CLOUD == 0 && quality_mask > 2 && !nan(reflectance)");
+    content.setRasters(new Raster[]{raster});
+    content.setVectorData(new Vector[]{new Vector("pins", null, 0)});
+
+    ProductSubsetDef subsetDef = ProductValidator.createSubsetDef(content);
+
+    List<String> nodeNames = List.of(subsetDef.getNodeNames());
+    assertEquals(List.of("reflectance", "flags.CLOUD", "flags", "quality_mask", "nan", "pins"), nodeNames);
+    assertTrue(subsetDef.isIgnoreMetadata());
+  }
+
+  @Test
+  void testCreateSubsetDef_metadata() {
+    ProductContent content = new ProductContent();
+    content.setRasters(new Raster[]{new Raster("reflectance", null)});
+    content.setMetadata(new Metadata[]{new Metadata("Global_Attributes/title", "S2"),
+        new Metadata("Band_Info[2]/Spectral/wavelength", "490")});
+    content.setMetadataTree(new MetadataTree("Header/Mission", List.of(), null));
+
+    ProductSubsetDef subsetDef = ProductValidator.createSubsetDef(content);
+
+    assertArrayEquals(new String[]{"Global_Attributes", "Band_Info", "Header", "reflectance"},
+        subsetDef.getNodeNames());
+    assertFalse(subsetDef.isIgnoreMetadata());
+  }
+
+  @Test
+  void testCreateSubsetDef_wholeMetadataNeeded() {
+    ProductContent content = new ProductContent();
+    content.setMetadata(new Metadata[]{new Metadata("*/title", "S2")});
+    assertNull(ProductValidator.createSubsetDef(content));
+
+    content.setMetadata(new Metadata[]{new Metadata("title", "S2")});
+    assertNull(ProductValidator.createSubsetDef(content));
+
+    content.setMetadata(null);
+    content.setMetadataTree(new MetadataTree(null, List.of(), null));
+    assertNull(ProductValidator.createSubsetDef(content));
+  }
+
+  @Test
+  void testGetMetadataElementNames() {
+    ProductContent content = new ProductContent();
+    assertEquals(Set.of(), ProductValidator.getMetadataElementNames(content));
+    content.setMetadataTree(new MetadataTree("Global_Attributes", List.of(), null));
+    assertEquals(Set.of("Global_Attributes"), ProductValidator.getMetadataElementNames(content));
+  }
+
+  @Test
+  void testIsSubsetComplete_codings() {
+    ProductContent content = new ProductContent();
+    content.setSampleCoding(new Coding[]{new Coding("cloud_flags"), new Coding("land_cover")});
+    Product product = new Product("test", "type", 10, 10);
+    product.getFlagCodingGroup().add(new FlagCoding("cloud_flags"));
+    assertFalse(ProductValidator.isSubsetComplete(product, content));
+
+    product.getIndexCodingGroup().add(new IndexCoding("land_cover"));
+    assertTrue(ProductValidator.isSubsetComplete(product, content));
+  }
+
+  @Test
+  void testIsSubsetComplete_metadata() {
+    ProductContent content = new ProductContent();
+    content.setMetadata(new Metadata[]{new Metadata("Global_Attributes/title", "S2")});
+    Product product = new Product("test", "type", 10, 10);
+    assertFalse(ProductValidator.isSubsetComplete(product, content));
+
+    product.getMetadataRoot().addElement(new MetadataElement("Global_Attributes"));
+    assertTrue(ProductValidator.isSubsetComplete(product, content));
+  }
+}
@@ -0,0 +1,72 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.eomasters.davalien.TestResult.Status;
+import org.eomasters.davalien.res.JsonHelper;
+import org.junit.jupiter.api.Test;
+
+class ReportMergerTest {
+
+  @Test
+  void testMergeSerializedReports() {
+    TestResult success = new TestResult("a", null, 2.5f, null);
+    TestResult failure = new TestResult("c", "desc", Float.NaN, null);
+    failure.setException(new IllegalStateException("GPT failed", new RuntimeException("root cause")));
+    TestResult error = new TestResult("b", null, 1.0f, Paths.get("product.znap"));
+    error.addError(new AssertionError("wrong value"));
+    TestReport shard1 = new TestReport(List.of(success, failure), Paths.get("env"),
+        LocalDateTime.of(2024, 5, 1, 10, 0), null, null, 3);
+    TestReport shard2 = new TestReport(List.of(error), Paths.get("env"),
+        LocalDateTime.of(2024, 5, 1, 10, 5), null, null, 3);
+
+    TestReport merged = ReportMerger.merge(List.of(roundTrip(shard2), roundTrip(shard1)));
+
+    assertEquals(3, merged.getTestResults().size());
+    assertEquals("a", merged.getTestResults().get(0).getTestName());
+    assertEquals("b", merged.getTestResults().get(1).getTestName());
+    assertEquals("c", merged.getTestResults().get(2).getTestName());
+    assertEquals(1, merged.getNumSuccessTests());
+    assertEquals(1, merged.getNumErrorTests());
+    assertEquals(1, merged.getNumFailureTests());
+    assertEquals(LocalDateTime.of(2024, 5, 1, 10, 5), merged.getCreationTime());
+
+    TestResult mergedFailure = merged.getTestResults().get(2);
+    assertEquals(Status.FAILURE, mergedFailure.getStatus());
+    assertEquals("GPT failed", mergedFailure.getException().getMessage());
+    assertEquals("root cause", mergedFailure.getException().getCause().getMessage());
+    assertEquals("wrong value", merged.getTestResults().get(1).getErrors().get(0).getMessage());
+    assertTrue(HtmlReport.create(merged).contains("IllegalStateException"));
+  }
+
+  private static TestReport roundTrip(TestReport report) {
+    return (TestReport) JsonHelper.fromJson(JsonHelper.toJson(report), TestReport.class);
+  }
+}
@@ -0,0 +1,70 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+
+class ResultCacheTest {
+
+  @Test
+  void testPutAndGet() throws IOException {
+    try (FileSystem fs = Jimfs.newFileSystem(Configuration.unix())) {
+      ResultCache cache = ResultCache.load(fs.getPath("/results/result-cache.json"));
+      assertNull(cache.get("test1", "abc"));
+
+      cache.put("test1", "abc", 12.5f);
+      assertNotNull(cache.get("test1", "abc"));
+      assertEquals(12.5f, cache.get("test1", "abc").getDuration());
+      assertNull(cache.get("test1", "def"));
+
+      cache.remove("test1");
+      assertNull(cache.get("test1", "abc"));
+    }
+  }
+
+  @Test
+  void testSaveAndLoad() throws IOException {
+    try (FileSystem fs = Jimfs.newFileSystem(Configuration.unix())) {
+      Path cacheFile = fs.getPath("/results/result-cache.json");
+      ResultCache cache = ResultCache.load(cacheFile);
+      cache.put("test1", "abc", 1.5f);
+      cache.put("test2", "def", 3.0f);
+      cache.save();
+
+      ResultCache loaded = ResultCache.load(cacheFile);
+      assertEquals(1.5f, loaded.get("test1", "abc").getDuration());
+      assertEquals(3.0f, loaded.get("test2", "def").getDuration());
+      assertNull(loaded.get("test2", "abc"));
+    }
+  }
+}
@@ -0,0 +1,126 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.eomasters.davalien.res.JsonHelper;
+import org.eomasters.davalien.res.testdef.TestDefinition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ShardPlannerTest {
+
+  @Test
+  void testShardsAreBalancedByDuration() {
+    List<TestDefinition> defs = createTestDefs("a", "b", "c", "d", "e", "f");
+    Map<String, Float> durations = Map.of("a", 40f, "b", 40f, "c", 10f, "d", 10f, "e", 10f, "f", 10f);
+
+    List<String> shard0 = names(ShardPlanner.selectShard(defs, durations, 0, 2));
+    List<String> shard1 = names(ShardPlanner.selectShard(defs, durations, 1, 2));
+
+    assertEquals(List.of("a", "c", "e"), shard0);
+    assertEquals(List.of("b", "d", "f"), shard1);
+  }
+
+  @Test
+  void testAllTestsAreDistributedOnce() {
+    List<TestDefinition> defs = createTestDefs("t1", "t2", "t3", "t4", "t5", "t6", "t7");
+    Map<String, Float> durations = Map.of("t1", 100f, "t4", 3f, "t6", 50f);
+    List<String> all = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      all.addAll(names(ShardPlanner.selectShard(defs, durations, i, 3)));
+    }
+    assertEquals(7, all.size());
+    assertEquals(new HashSet<>(names(defs)), Set.copyOf(all));
+  }
+
+  @Test
+  void testDifferentLocalHistoriesCoverAllTests(@TempDir Path tempDir) throws IOException {
+    List<TestDefinition> defs = createTestDefs("t1", "t2", "t3", "t4", "t5", "t6", "t7", "t8", "t9");
+    // each machine has its own results with different durations, these must not influence the split
+    Path localReport0 = writeReport(tempDir.resolve("local0.json"), Map.of("t1", 100f, "t2", 5f, "t3", 50f));
+    Path localReport1 = writeReport(tempDir.resolve("local1.json"), Map.of("t1", 2f, "t5", 80f, "t9", 40f));
+    assertEquals(Map.of("t1", 100f, "t2", 5f, "t3", 50f), ShardPlanner.readDurations(localReport0));
+    assertEquals(Map.of("t1", 2f, "t5", 80f, "t9", 40f), ShardPlanner.readDurations(localReport1));
+
+    // without a shared report the tests are split by name
+    assertShardsCoverAllTests(defs, ShardPlanner.selectShard(defs, (Path) null, 0, 2),
+        ShardPlanner.selectShard(defs, (Path) null, 1, 2));
+
+    // a shared report gives all machines the same durations
+    Path sharedReport = writeReport(tempDir.resolve("shared.json"), Map.of("t1", 100f, "t5", 80f));
+    List<TestDefinition> shard0 = ShardPlanner.selectShard(defs, sharedReport, 0, 2);
+    List<TestDefinition> shard1 = ShardPlanner.selectShard(defs, sharedReport, 1, 2);
+    assertShardsCoverAllTests(defs, shard0, shard1);
+    assertEquals(ShardPlanner.selectShard(defs, Map.of("t1", 100f, "t5", 80f), 0, 2), shard0);
+  }
+
+  @Test
+  void testInvalidShard() {
+    List<TestDefinition> defs = createTestDefs("a");
+    assertThrows(IllegalArgumentException.class, () -> ShardPlanner.selectShard(defs, Map.of(), 2, 2));
+    assertThrows(IllegalArgumentException.class, () -> ShardPlanner.selectShard(defs, Map.of(), 0, 0));
+  }
+
+  private static Path writeReport(Path reportFile, Map<String, Float> durations) throws IOException {
+    List<TestResult> results = new ArrayList<>();
+    durations.forEach((name, duration) -> results.add(new TestResult(name, null, duration, null)));
+    TestReport report = new TestReport(results, Paths.get("env"), LocalDateTime.of(2024, 5, 1, 10, 0), null, null, 3);
+    Files.writeString(reportFile, JsonHelper.toJson(report));
+    return reportFile;
+  }
+
+  private static void assertShardsCoverAllTests(List<TestDefinition> defs, List<TestDefinition> shard0,
+      List<TestDefinition> shard1) {
+    List<String> all = new ArrayList<>(names(shard0));
+    all.addAll(names(shard1));
+    assertEquals(defs.size(), all.size());
+    assertEquals(Set.copyOf(names(defs)), Set.copyOf(all));
+  }
+
+  private static List<TestDefinition> createTestDefs(String... names) {
+    List<TestDefinition> defs = new ArrayList<>();
+    for (String name : names) {
+      defs.add(new TestDefinition(name, null));
+    }
+    return defs;
+  }
+
+  private static List<String> names(List<TestDefinition> defs) {
+    return defs.stream().map(TestDefinition::getTestName).collect(Collectors.toList());
+  }
+}
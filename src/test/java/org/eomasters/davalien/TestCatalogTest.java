@@ -0,0 +1,133 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.eomasters.davalien.res.testdef.TestDefinition;
+import org.junit.jupiter.api.Test;
+
+class TestCatalogTest {
+
+  @Test
+  void testUpdate() throws IOException {
+    try (FileSystem fs = Jimfs.newFileSystem(Configuration.unix())) {
+      Path testsDir = fs.getPath("/env/tests");
+      Files.createDirectories(testsDir.resolve("sub"));
+      Files.writeString(testsDir.resolve("test-a.json"), createDefinition("a", "tag1"));
+      Files.writeString(testsDir.resolve("sub/test-b.json"), createDefinition("b", "tag2"));
+
+      TestCatalog catalog = TestCatalog.load(fs.getPath("/env/tests-catalog.json"));
+      catalog.update(testsDir);
+      List<TestDefinition> testDefinitions = catalog.getTestDefinitions(testsDir);
+      assertEquals(List.of("a", "b"), getNames(testDefinitions));
+      assertEquals(List.of("tag2"), testDefinitions.get(1).getTags());
+      assertEquals(testsDir.resolve("sub/test-b.json"), testDefinitions.get(1).getDefinitionFile());
+
+      Files.delete(testsDir.resolve("test-a.json"));
+      Files.writeString(testsDir.resolve("test-c.json"), createDefinition("c", "tag3"));
+      catalog.update(testsDir);
+      assertEquals(List.of("b", "c"), getNames(catalog.getTestDefinitions(testsDir)));
+    }
+  }
+
+  @Test
+  void testSaveAndLoad_unchangedFilesAreNotRead() throws IOException {
+    try (FileSystem fs = Jimfs.newFileSystem(Configuration.unix())) {
+      Path testsDir = fs.getPath("/env/tests");
+      Path catalogFile = fs.getPath("/env/tests-catalog.json");
+      Files.createDirectories(testsDir);
+      Path testFile = testsDir.resolve("test-a.json");
+      Files.writeString(testFile, createDefinition("a", "tag1"));
+      TestCatalog catalog = TestCatalog.load(catalogFile);
+      catalog.update(testsDir);
+      catalog.save();
+
+      // same size and modification time, the catalog keeps the old tag
+      FileTime lastModified = Files.getLastModifiedTime(testFile);
+      Files.writeString(testFile, createDefinition("a", "tag2"));
+      Files.setLastModifiedTime(testFile, lastModified);
+      TestCatalog loaded = TestCatalog.load(catalogFile);
+      loaded.update(testsDir);
+      assertEquals(List.of("tag1"), loaded.getTestDefinitions(testsDir).get(0).getTags());
+
+      Files.setLastModifiedTime(testFile, FileTime.fromMillis(lastModified.toMillis() + 1000));
+      loaded.update(testsDir);
+      assertEquals(List.of("tag2"), loaded.getTestDefinitions(testsDir).get(0).getTags());
+    }
+  }
+
+  @Test
+  void testSave_replacesCatalogFile() throws IOException {
+    try (FileSystem fs = Jimfs.newFileSystem(Configuration.unix())) {
+      Path testsDir = fs.getPath("/env/tests");
+      Path catalogFile = fs.getPath("/env/tests-catalog.json");
+      Files.createDirectories(testsDir);
+      Files.writeString(catalogFile, "invalid");
+      Files.writeString(testsDir.resolve("test-a.json"), createDefinition("a", "tag1"));
+      TestCatalog catalog = TestCatalog.load(catalogFile);
+      catalog.update(testsDir);
+      catalog.save();
+
+      assertEquals(List.of("a"), getNames(TestCatalog.load(catalogFile).getTestDefinitions(testsDir)));
+      try (Stream<Path> files = Files.list(fs.getPath("/env"))) {
+        // no temporary file is left
+        assertEquals(List.of("tests", "tests-catalog.json"),
+            files.map(p -> p.getFileName().toString()).sorted().collect(Collectors.toList()));
+      }
+    }
+  }
+
+  @Test
+  void testUpdate_duplicateName() throws IOException {
+    try (FileSystem fs = Jimfs.newFileSystem(Configuration.unix())) {
+      Path testsDir = fs.getPath("/env/tests");
+      Files.createDirectories(testsDir.resolve("sub"));
+      Files.writeString(testsDir.resolve("test-a.json"), createDefinition("a", "tag1"));
+      Files.writeString(testsDir.resolve("sub/test-a.json"), createDefinition("a", "tag1"));
+      TestCatalog catalog = TestCatalog.load(fs.getPath("/env/tests-catalog.json"));
+      assertThrows(IllegalStateException.class, () -> catalog.update(testsDir));
+    }
+  }
+
+  private static List<String> getNames(List<TestDefinition> testDefinitions) {
+    return testDefinitions.stream().map(TestDefinition::getTestName).collect(Collectors.toList());
+  }
+
+  private static String createDefinition(String name, String tag) {
+    return "{\"testName\": \"" + name + "\", \"tags\": [\"" + tag + "\"], \"gptCall\": \"Op\", "
+        + "\"expectation\": {\"name\": \"product\"}}";
+  }
+}
@@ -0,0 +1,134 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.eomasters.davalien.res.JsonHelper;
+import org.eomasters.davalien.res.testdef.ProductContent;
+import org.eomasters.davalien.res.testdef.Raster;
+import org.eomasters.davalien.res.testdef.TestDefinition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TestDefinitionCreatorTest {
+
+  @Test
+  void testFindProducts_glob(@TempDir Path tempDir) throws IOException {
+    Files.createDirectories(tempDir.resolve("a"));
+    Files.createDirectories(tempDir.resolve("b"));
+    Files.createFile(tempDir.resolve("a/product1.zip"));
+    Files.createFile(tempDir.resolve("b/product2.zip"));
+    Files.createFile(tempDir.resolve("b/product2.txt"));
+
+    List<Path> products = TestDefinitionCreator.findProducts(tempDir + "/**/*.zip");
+    assertEquals(List.of(tempDir.resolve("a/product1.zip"), tempDir.resolve("b/product2.zip")), products);
+    products = TestDefinitionCreator.findProducts(tempDir + "/b/*");
+    assertEquals(List.of(tempDir.resolve("b/product2.txt"), tempDir.resolve("b/product2.zip")), products);
+  }
+
+  @Test
+  void testGetTestName() {
+    assertEquals("S2A_MSIL1C_20230101", TestDefinitionCreator.getTestName(Paths.get("/data/S2A_MSIL1C_20230101.zip")));
+    assertEquals("product", TestDefinitionCreator.getTestName(Paths.get("product")));
+  }
+
+  @Test
+  void testGroupByTestName() {
+    Path a1 = Paths.get("/data/a/product.zip");
+    Path a2 = Paths.get("/data/b/product.SAFE");
+    Path b = Paths.get("/data/b/other.zip");
+    Map<String, List<Path>> groups = TestDefinitionCreator.groupByTestName(List.of(a1, b, a2));
+    assertEquals(List.of("product", "other"), List.copyOf(groups.keySet()));
+    assertEquals(List.of(a1, a2), groups.get("product"));
+    assertEquals(List.of(b), groups.get("other"));
+  }
+
+  @Test
+  void testCreateAll_duplicateTestNames(@TempDir Path tempDir) throws IOException {
+    Path testsDir = tempDir.resolve("tests");
+    List<Path> productPaths = List.of(tempDir.resolve("a/product.zip"), tempDir.resolve("b/product.zip"));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    int numFailed = new TestDefinitionCreator(testsDir, 1).createAll(productPaths,
+        new PrintStream(out, true, StandardCharsets.UTF_8));
+    assertEquals(2, numFailed);
+    String output = out.toString(StandardCharsets.UTF_8);
+    assertTrue(output.contains("Duplicate test name 'product'"), output);
+    assertTrue(output.contains("0 created, 0 skipped, 2 failed"), output);
+    try (Stream<Path> files = Files.list(testsDir)) {
+      assertEquals(0, files.count());
+    }
+  }
+
+  @Test
+  void testWrite(@TempDir Path testsDir) throws IOException {
+    int[] bins = IntStream.range(0, 512).toArray();
+    Raster raster = new Raster("band", null);
+    raster.setHistogramBins(bins);
+    ProductContent content = new ProductContent();
+    content.setName("product");
+    content.setRasters(new Raster[]{raster});
+    TestDefinition testDef = new TestDefinition("a", content);
+    testDef.setGptCall("Op");
+    Path outputFile = testsDir.resolve("test-a.json");
+
+    assertTrue(TestDefinitionCreator.write(testDef, outputFile));
+    TestDefinition readDef = JsonHelper.readTestDefinition(outputFile);
+    JsonHelper.loadExpectation(readDef);
+    assertArrayEquals(bins, readDef.getExpectation().getRasters()[0].getHistogramBins());
+    try (Stream<Path> files = Files.list(testsDir)) {
+      // no temporary files are left
+      assertEquals(List.of("test-a.bin", "test-a.json"), files.map(p -> p.getFileName().toString()).sorted().toList());
+    }
+  }
+
+  @Test
+  void testWrite_existingIsNotOverwritten(@TempDir Path testsDir) throws IOException {
+    Path outputFile = testsDir.resolve("test-a.json");
+    Files.writeString(outputFile, "existing");
+    ProductContent content = new ProductContent();
+    content.setName("product");
+
+    assertFalse(TestDefinitionCreator.write(new TestDefinition("a", content), outputFile));
+    assertEquals("existing", Files.readString(outputFile));
+    try (Stream<Path> files = Files.list(testsDir)) {
+      assertEquals(1, files.count());
+    }
+  }
+}
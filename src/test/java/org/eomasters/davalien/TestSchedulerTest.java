@@ -0,0 +1,193 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eomasters.davalien.res.testdef.TestDefinition;
+import org.junit.jupiter.api.Test;
+
+class TestSchedulerTest {
+
+  @Test
+  void testConcurrencyIsBounded() {
+    List<TestInst> tests = createTests(12);
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    Set<GptRunner> usedRunners = ConcurrentHashMap.newKeySet();
+    AtomicInteger closedRunners = new AtomicInteger();
+
+    new TestScheduler(3, () -> new GptRunner() {
+      @Override
+      public void run(TestInst test) throws Exception {
+        usedRunners.add(this);
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        Thread.sleep(20);
+        running.decrementAndGet();
+      }
+
+      @Override
+      public void close() {
+        closedRunners.incrementAndGet();
+      }
+    }).runAll(tests);
+
+    assertTrue(maxRunning.get() <= 3);
+    assertTrue(usedRunners.size() <= 3);
+    assertEquals(usedRunners.size(), closedRunners.get());
+    for (TestInst test : tests) {
+      assertFalse(Float.isNaN(test.getDuration()));
+      assertNull(test.getException());
+    }
+  }
+
+  @Test
+  void testFailuresAreKeptAtTheTest() {
+    List<TestInst> tests = createTests(4);
+    new TestScheduler(2, () -> test -> {
+      if (test.getName().equals("test2")) {
+        throw new IllegalStateException("failed");
+      }
+    }).runAll(tests);
+
+    assertInstanceOf(IllegalStateException.class, tests.get(2).getException());
+    assertTrue(Float.isNaN(tests.get(2).getDuration()));
+    assertNull(tests.get(0).getException());
+    assertNull(tests.get(3).getException());
+  }
+
+  @Test
+  void testOnFinishedIsCalledForEachTest() {
+    List<TestInst> tests = createTests(6);
+    Set<TestInst> finished = ConcurrentHashMap.newKeySet();
+    new TestScheduler(2, () -> test -> {
+    }).runAll(tests, test -> {
+      assertFalse(Float.isNaN(test.getDuration()));
+      finished.add(test);
+    });
+
+    assertEquals(Set.copyOf(tests), finished);
+  }
+
+  @Test
+  void testTimeoutCancelsTestAndContinues() {
+    List<TestInst> tests = createTests(3);
+    AtomicInteger createdRunners = new AtomicInteger();
+    AtomicInteger cancelledRunners = new AtomicInteger();
+    new TestScheduler(1, () -> {
+      createdRunners.incrementAndGet();
+      return new GptRunner() {
+        @Override
+        public void run(TestInst test) throws Exception {
+          if (test.getName().equals("test1")) {
+            Thread.sleep(60_000);
+          }
+        }
+
+        @Override
+        public String threadDump() {
+          return "dump of " + Thread.currentThread().getName();
+        }
+
+        @Override
+        public void cancel() {
+          cancelledRunners.incrementAndGet();
+        }
+      };
+    }, test -> 1).runAll(tests);
+
+    assertNull(tests.get(0).getException());
+    assertInstanceOf(TestTimeoutException.class, tests.get(1).getException());
+    assertTrue(tests.get(1).getThreadDump().startsWith("dump of"));
+    assertNull(tests.get(2).getException());
+    assertEquals(1, cancelledRunners.get());
+    assertEquals(2, createdRunners.get());
+  }
+
+  @Test
+  void testTimeoutReleasesPerformanceSettings() {
+    String initialTileSize = System.getProperty(PerformanceSettings.TILE_SIZE_PROPERTY);
+    CountDownLatch release = new CountDownLatch(1);
+    List<String> tileSizes = Collections.synchronizedList(new ArrayList<>());
+    List<TestInst> tests = List.of(createTest("hanging", 256), createTest("other", 512));
+    try {
+      new TestScheduler(1, () -> new InProcessRunner(args -> {
+        String tileSize = System.getProperty(PerformanceSettings.TILE_SIZE_PROPERTY);
+        tileSizes.add(tileSize);
+        if (tileSize.equals("256")) {
+          // like a GPT call which doesn't react on the interruption
+          while (release.getCount() > 0) {
+            try {
+              release.await();
+            } catch (InterruptedException e) {
+              // ignored
+            }
+          }
+        }
+      }), test -> test.getName().equals("hanging") ? 1 : 30).runAll(tests);
+    } finally {
+      release.countDown();
+    }
+
+    assertInstanceOf(TestTimeoutException.class, tests.get(0).getException());
+    assertNull(tests.get(1).getException());
+    assertTrue(tests.get(1).getDuration() < 30);
+    assertEquals(List.of("256", "512"), tileSizes);
+    assertEquals(initialTileSize, System.getProperty(PerformanceSettings.TILE_SIZE_PROPERTY));
+  }
+
+  private static TestInst createTest(String name, int tileSize) {
+    PerformanceSettings settings = new PerformanceSettings(null, null, tileSize);
+    return new TestInst(new TestDefinition(name, null)) {
+      @Override
+      public List<String> getParamList() {
+        return List.of("Op");
+      }
+
+      @Override
+      public PerformanceSettings getPerformanceSettings() {
+        return settings;
+      }
+    };
+  }
+
+  private static List<TestInst> createTests(int count) {
+    List<TestInst> tests = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      tests.add(new TestInst(new TestDefinition("test" + i, null)));
+    }
+    return tests;
+  }
+}
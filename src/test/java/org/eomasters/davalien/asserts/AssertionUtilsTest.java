@@ -0,0 +1,102 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien.asserts;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import org.eomasters.davalien.res.testdef.GeoGrid;
+import org.eomasters.davalien.utils.GeoGridEvaluation;
+import org.esa.snap.core.datamodel.CrsGeoCoding;
+import org.esa.snap.core.datamodel.GeoCoding;
+import org.geotools.referencing.crs.DefaultGeographicCRS;
+import org.junit.jupiter.api.Test;
+
+class AssertionUtilsTest {
+
+  private static final int WIDTH = 300;
+  private static final int HEIGHT = 200;
+
+  @Test
+  void testFuzzyEquals() {
+    assertTrue(AssertionUtils.fuzzyEquals(1.0, 1.05, 0.1));
+    assertTrue(AssertionUtils.fuzzyEquals(Double.NaN, Double.NaN, 0.1));
+    assertFalse(AssertionUtils.fuzzyEquals(1.0, 1.2, 0.1));
+  }
+
+  @Test
+  void testCheckGeoGrid_matching() throws Exception {
+    GeoGrid geoGrid = createGeoGrid(createGeoCoding(10.0));
+    assertNull(AssertionUtils.checkGeoGrid(createGeoCoding(10.0), geoGrid, WIDTH, HEIGHT));
+  }
+
+  @Test
+  void testCheckGeoGrid_shifted() throws Exception {
+    GeoGrid geoGrid = createGeoGrid(createGeoCoding(10.0));
+
+    // shifted by 10 pixels to the east
+    String failure = AssertionUtils.checkGeoGrid(createGeoCoding(10.01), geoGrid, WIDTH, HEIGHT);
+
+    assertNotNull(failure);
+    assertTrue(failure.startsWith("Max forward error [1.000000e-02] at pixel position ["), failure);
+    assertTrue(failure.contains("mean forward error [1.000000e-02], with fwdEps 1.000000e-08"), failure);
+    assertTrue(failure.contains("max inverse error [1.000000e+01] at pixel position ["), failure);
+  }
+
+  @Test
+  void testCheckGeoGrid_inverseNotChecked() throws Exception {
+    GeoGrid geoGrid = createGeoGrid(createGeoCoding(10.0));
+    geoGrid.setFwdEps(0.02);
+    geoGrid.setInvEps(null);
+    assertNull(AssertionUtils.checkGeoGrid(createGeoCoding(10.01), geoGrid, WIDTH, HEIGHT));
+  }
+
+  @Test
+  void testCheckGeoGrid_differentSize() throws Exception {
+    GeoGrid geoGrid = createGeoGrid(createGeoCoding(10.0));
+    assertEquals("Expected [20] grid points with step [64] but the raster has [25]",
+        AssertionUtils.checkGeoGrid(createGeoCoding(10.0), geoGrid, WIDTH, 300));
+  }
+
+  @Test
+  void testCheckGeoGrid_lonsShorterThanLats() throws Exception {
+    GeoGrid geoGrid = createGeoGrid(createGeoCoding(10.0));
+    GeoGrid edited = new GeoGrid(64, geoGrid.getLats(), Arrays.copyOf(geoGrid.getLons(), 19));
+    assertEquals("Invalid geo grid, the number of latitudes [20] and longitudes [19] differs",
+        AssertionUtils.checkGeoGrid(createGeoCoding(10.0), edited, WIDTH, HEIGHT));
+  }
+
+  private static GeoGrid createGeoGrid(GeoCoding geoCoding) {
+    double[][] geoPositions = GeoGridEvaluation.computeGeoPositions(geoCoding, WIDTH, HEIGHT, 64);
+    return new GeoGrid(64, geoPositions[0], geoPositions[1]);
+  }
+
+  private static GeoCoding createGeoCoding(double easting) throws Exception {
+    return new CrsGeoCoding(DefaultGeographicCRS.WGS84, WIDTH, HEIGHT, easting, 50.0, 0.001, 0.001);
+  }
+}
@@ -0,0 +1,108 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien.asserts;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.eomasters.davalien.res.testdef.MetadataNode;
+import org.eomasters.davalien.res.testdef.MetadataTree;
+import org.esa.snap.core.datamodel.MetadataAttribute;
+import org.esa.snap.core.datamodel.MetadataElement;
+import org.esa.snap.core.datamodel.ProductData;
+import org.junit.jupiter.api.Test;
+
+class MetadataAssertTest {
+
+  @Test
+  void testHasTree() {
+    MetadataTree expected = createExpectation(createTree("value", 3));
+    new MetadataAssert(createTree("value", 3)).hasTree(expected);
+  }
+
+  @Test
+  void testHasTree_differingAttributes() {
+    MetadataTree expected = createExpectation(createTree("value", 3));
+    MetadataElement actual = new MetadataElement("metadata");
+    actual.addAttribute(createAttribute("version", "1.0"));
+    MetadataElement header = new MetadataElement("Header");
+    header.addAttribute(createAttribute("attribute0", "value0"));
+    header.addAttribute(createAttribute("attribute1", "changed"));
+    header.addAttribute(createAttribute("unexpected", "value"));
+    actual.addElement(header);
+
+    AssertionError error = assertThrows(AssertionError.class, () -> new MetadataAssert(actual).hasTree(expected));
+
+    String message = error.getMessage();
+    assertTrue(message.contains("[Header/attribute1]: Attribute differs"), message);
+    assertTrue(message.contains("[Header/attribute2]: Attribute is missing"), message);
+    assertTrue(message.contains("[Header/unexpected]: Attribute is not expected"), message);
+    assertFalse(message.contains("attribute0"), message);
+  }
+
+  @Test
+  void testHasTree_differencesAreBounded() {
+    MetadataTree expected = createExpectation(createTree("value", 30));
+
+    AssertionError error = assertThrows(AssertionError.class,
+        () -> new MetadataAssert(createTree("changed", 30)).hasTree(expected));
+
+    String[] lines = error.getMessage().split("\n");
+    // the header line, 20 differences and the ellipsis
+    assertEquals(22, lines.length, error.getMessage());
+    assertEquals("  ...", lines[21]);
+  }
+
+  @Test
+  void testHasTree_withPath() {
+    MetadataTree expected = new MetadataTree("Header", List.of(),
+        MetadataNode.create(createTree("value", 3).getElement("Header"), List.of()));
+    MetadataElement actual = createTree("value", 3);
+    // outside the subtree of the expectation
+    actual.addAttribute(createAttribute("other", "value"));
+    new MetadataAssert(actual).hasTree(expected);
+  }
+
+  private static MetadataTree createExpectation(MetadataElement root) {
+    return new MetadataTree(null, List.of(), MetadataNode.create(root, List.of()));
+  }
+
+  private static MetadataElement createTree(String valuePrefix, int numAttributes) {
+    MetadataElement root = new MetadataElement("metadata");
+    root.addAttribute(createAttribute("version", "1.0"));
+    MetadataElement header = new MetadataElement("Header");
+    for (int i = 0; i < numAttributes; i++) {
+      header.addAttribute(createAttribute("attribute" + i, valuePrefix + i));
+    }
+    root.addElement(header);
+    return root;
+  }
+
+  private static MetadataAttribute createAttribute(String name, String value) {
+    return new MetadataAttribute(name, ProductData.createInstance(value), true);
+  }
+}
@@ -0,0 +1,70 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien.asserts;
+
+import static org.eomasters.davalien.asserts.ProductAssertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.eomasters.davalien.res.testdef.TileHashes;
+import org.esa.snap.core.datamodel.Band;
+import org.esa.snap.core.datamodel.Product;
+import org.esa.snap.core.datamodel.ProductData;
+import org.junit.jupiter.api.Test;
+
+class RasterAssertTest {
+
+  private static final int WIDTH = 100;
+  private static final int HEIGHT = 75;
+  // the hashes of the data created by createBand(), see TileHasherTest
+  private static final TileHashes TILE_HASHES = new TileHashes(64, 64,
+      new String[]{"27f562f3", "e9076ee4", "abdb2435", "4c6d47f8"});
+
+  @Test
+  void testHasTileHashes() {
+    assertThat(createBand(-1, -1)).hasTileHashes(TILE_HASHES);
+  }
+
+  @Test
+  void testHasTileHashes_differingPixel() {
+    Band band = createBand(70, 10);
+    AssertionError error = assertThrows(AssertionError.class, () -> assertThat(band).hasTileHashes(TILE_HASHES));
+    assertTrue(error.getMessage().contains("Data of [1] of [4] tiles differs"), error.getMessage());
+    assertTrue(error.getMessage().endsWith("tiles [1,0]"), error.getMessage());
+  }
+
+  private static Band createBand(int changedX, int changedY) {
+    int[] data = new int[WIDTH * HEIGHT];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = i * 7 - 1000;
+    }
+    if (changedX >= 0) {
+      data[changedY * WIDTH + changedX]++;
+    }
+    Product product = new Product("test", "type", WIDTH, HEIGHT);
+    Band band = product.addBand("int", ProductData.TYPE_INT32);
+    band.setRasterData(ProductData.createInstance(data));
+    return band;
+  }
+}
@@ -0,0 +1,119 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien.asserts;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Map;
+import java.util.TreeMap;
+import org.eomasters.davalien.res.testdef.FeatureAttribute;
+import org.eomasters.davalien.res.testdef.Vector;
+import org.eomasters.davalien.res.testdef.VectorFeatures;
+import org.esa.snap.core.datamodel.Product;
+import org.esa.snap.core.datamodel.VectorDataNode;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+class VectorDataNodeAssertTest {
+
+  private Product product;
+
+  @BeforeEach
+  void setUp() {
+    SimpleFeatureTypeBuilder typeBuilder = new SimpleFeatureTypeBuilder();
+    typeBuilder.setName("points");
+    typeBuilder.add("geometry", Point.class);
+    typeBuilder.add("value", Double.class);
+    SimpleFeatureType type = typeBuilder.buildFeatureType();
+    VectorDataNode vectorDataNode = new VectorDataNode("points", type);
+    GeometryFactory geometryFactory = new GeometryFactory();
+    double[][] points = {{10, 20, 0.5}, {12, 25, 1.0e9}, {11, 22, -3.0}};
+    for (int i = 0; i < points.length; i++) {
+      SimpleFeatureBuilder featureBuilder = new SimpleFeatureBuilder(type);
+      featureBuilder.add(geometryFactory.createPoint(new Coordinate(points[i][0], points[i][1])));
+      featureBuilder.add(points[i][2]);
+      vectorDataNode.getFeatureCollection().add(featureBuilder.buildFeature("p" + i));
+    }
+    product = new Product("test", "type", 100, 100);
+    product.getVectorDataGroup().add(vectorDataNode);
+  }
+
+  @Test
+  void testHasFeatures() {
+    assertHas(createVector(3, 1.0e9 - 2.5));
+  }
+
+  @Test
+  void testHasFeatures_relativeEps() {
+    // the sum is about 1.0e9, so a difference of 1 is within the relative eps of 1.0e-8
+    assertHas(createVector(3, 1.0e9 - 2.5 + 1));
+
+    AssertionError error = assertThrows(AssertionError.class, () -> assertHas(createVector(3, 1.0e9 - 2.5 + 20)));
+    assertEquals("Vector[0]: Attribute [value] of vector [points] should have min/max/sum "
+        + "[-3.0, 1.0E9, 1.0000000175E9] but was [-3.0, 1.0E9, 9.999999975E8], with eps 1.000000e-08",
+        error.getMessage());
+  }
+
+  @Test
+  void testHasFeatures_countMismatch() {
+    AssertionError error = assertThrows(AssertionError.class, () -> assertHas(createVector(4, 1.0e9 - 2.5)));
+    assertEquals("Vector[0]: Number of features of vector [points] should be [4] but was [3]", error.getMessage());
+  }
+
+  @Test
+  void testHasFeatures_geometryTypeMismatch() {
+    Vector vector = new Vector("points", null, 3);
+    vector.setFeatures(new VectorFeatures(new double[]{10, 20, 12, 25}, null, Map.of("Polygon", 3L)));
+    AssertionError error = assertThrows(AssertionError.class, () -> assertHas(vector));
+    assertEquals("Vector[0]: Geometry types of vector [points] should be {Polygon=3} but was {Point=3}",
+        error.getMessage());
+  }
+
+  @Test
+  void testHasFeatures_missingAttribute() {
+    Vector vector = new Vector("points", null, 3);
+    vector.setFeatures(new VectorFeatures(null, Map.of("other", new FeatureAttribute(0, 1, 1)), null));
+    AssertionError error = assertThrows(AssertionError.class, () -> assertHas(vector));
+    assertEquals("Vector[0]: No numeric attribute [other] found in vector [points]", error.getMessage());
+  }
+
+  private void assertHas(Vector vector) {
+    new VectorDataNodeAssert(product.getVectorDataGroup()).has(vector, 0);
+  }
+
+  private static Vector createVector(int numFeatures, double sum) {
+    Map<String, FeatureAttribute> attributes = new TreeMap<>();
+    attributes.put("value", new FeatureAttribute(-3.0, 1.0e9, sum));
+    Vector vector = new Vector("points", null, numFeatures);
+    vector.setFeatures(new VectorFeatures(new double[]{10, 20, 12, 25}, attributes, Map.of("Point", 3L)));
+    return vector;
+  }
+}
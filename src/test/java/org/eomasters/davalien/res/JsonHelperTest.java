@@ -25,12 +25,30 @@ package org.eomasters.davalien.res;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import java.io.IOException;
 import java.io.StringReader;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.eomasters.davalien.res.testdef.GeoGrid;
+import org.eomasters.davalien.res.testdef.ProductContent;
+import org.eomasters.davalien.res.testdef.Raster;
+import org.eomasters.davalien.res.testdef.TestDefinition;
+import org.eomasters.davalien.res.testdef.TileHashes;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 class JsonHelperTest {
 
@@ -64,4 +82,117 @@ class JsonHelperTest {
     assertArrayEquals(IntStream.range(0, 21).toArray(), data);
 
   }
+
+  @Test
+  void readTestDefinition_lazyExpectation() throws IOException {
+    try (FileSystem fs = Jimfs.newFileSystem(Configuration.unix())) {
+      Path testDefFile = fs.getPath("/test-b.json");
+      Files.writeString(testDefFile, createDefinition("b"));
+
+      TestDefinition testDef = JsonHelper.readTestDefinition(testDefFile);
+      assertEquals("b", testDef.getTestName());
+      assertEquals(List.of("tagB"), testDef.getTags());
+      assertEquals("Op -Pvalue=b", testDef.getGptCall());
+      assertEquals(testDefFile, testDef.getDefinitionFile());
+      assertNull(testDef.getExpectation());
+
+      JsonHelper.loadExpectation(testDef);
+      assertNotNull(testDef.getExpectation());
+      assertEquals("product_b", testDef.getExpectation().getName());
+    }
+  }
+
+  @Test
+  void readTestDefinition_missingExpectation() throws IOException {
+    try (FileSystem fs = Jimfs.newFileSystem(Configuration.unix())) {
+      Path testDefFile = fs.getPath("/test-a.json");
+      Files.writeString(testDefFile, "{\"testName\": \"a\", \"gptCall\": \"Op\"}");
+      assertThrows(IOException.class, () -> JsonHelper.readTestDefinition(testDefFile));
+    }
+  }
+
+  @Test
+  void writeTestDefinition_binarySidecar(@TempDir Path testsDir) throws IOException {
+    int[] bins = IntStream.range(0, 512).toArray();
+    double[] lats = IntStream.range(0, 100).mapToDouble(i -> i * 0.5).toArray();
+    double[] lons = IntStream.range(0, 100).mapToDouble(i -> -i * 0.25).toArray();
+    Raster raster = new Raster("band", null);
+    raster.setHistogramBins(bins);
+    raster.setGeoGrid(new GeoGrid(64, lats, lons));
+    raster.setTileHashes(new TileHashes(512, 512, new String[]{"a1", "b2"}));
+    ProductContent content = new ProductContent();
+    content.setName("product");
+    content.setRasters(new Raster[]{raster});
+    TestDefinition testDef = new TestDefinition("a", content);
+    testDef.setGptCall("Op");
+    List<String> tags = IntStream.range(0, 100).mapToObj(i -> "tag" + i).toList();
+    testDef.setTags(tags);
+    Path testDefFile = testsDir.resolve("test-a.json");
+
+    JsonHelper.writeTestDefinition(testDef, testDefFile, true);
+    Path sidecarFile = testsDir.resolve("test-a.bin");
+    assertEquals(sidecarFile, JsonHelper.getSidecarFile(testDefFile));
+    assertTrue(Files.exists(sidecarFile));
+    String json = Files.readString(testDefFile);
+    assertTrue(json.contains("\"$bin\""));
+    // small arrays stay in the JSON file
+    assertTrue(json.contains("\"b2\""));
+    // large arrays of the header too
+    assertTrue(json.contains("\"tag99\""));
+
+    TestDefinition readDef = JsonHelper.readTestDefinition(testDefFile);
+    assertEquals(tags, readDef.getTags());
+    JsonHelper.loadExpectation(readDef);
+    Raster readRaster = readDef.getExpectation().getRasters()[0];
+    assertArrayEquals(bins, readRaster.getHistogramBins());
+    assertArrayEquals(lats, readRaster.getGeoGrid().getLats());
+    assertArrayEquals(lons, readRaster.getGeoGrid().getLons());
+    assertArrayEquals(new String[]{"a1", "b2"}, readRaster.getTileHashes().getHashes());
+
+    // the sidecar is read into memory, so it can be replaced and deleted while the expectation is in use
+    JsonHelper.writeTestDefinition(testDef, testDefFile, true);
+    JsonHelper.writeTestDefinition(testDef, testDefFile, false);
+    assertFalse(Files.exists(sidecarFile));
+    assertFalse(Files.readString(testDefFile).contains("\"$bin\""));
+  }
+
+  @Test
+  void writeTestDefinition_failureKeepsPreviousDefinition(@TempDir Path testsDir) throws IOException {
+    Raster raster = new Raster("band", null);
+    raster.setHistogramBins(IntStream.range(0, 512).toArray());
+    ProductContent content = new ProductContent();
+    content.setName("product");
+    content.setRasters(new Raster[]{raster});
+    TestDefinition testDef = new TestDefinition("a", content);
+    testDef.setGptCall("Op");
+    Path testDefFile = testsDir.resolve("test-a.json");
+    JsonHelper.writeTestDefinition(testDef, testDefFile, false);
+    String previousJson = Files.readString(testDefFile);
+    // the sidecar can't replace a non-empty directory
+    Files.createDirectories(testsDir.resolve("test-a.bin"));
+    Files.createFile(testsDir.resolve("test-a.bin/file"));
+
+    assertThrows(IOException.class, () -> JsonHelper.writeTestDefinition(testDef, testDefFile, true));
+    assertEquals(previousJson, Files.readString(testDefFile));
+    try (Stream<Path> files = Files.list(testsDir)) {
+      assertEquals(List.of("test-a.bin", "test-a.json"), files.map(p -> p.getFileName().toString()).sorted().toList());
+    }
+  }
+
+  @Test
+  void loadExpectation_missingSidecar() throws IOException {
+    try (FileSystem fs = Jimfs.newFileSystem(Configuration.unix())) {
+      Path testDefFile = fs.getPath("/test-a.json");
+      Files.writeString(testDefFile, "{\"testName\": \"a\", \"gptCall\": \"Op\", "
+          + "\"expectation\": {\"rasters\": [{\"name\": \"band\", \"histogramBins\": {\"$bin\": 0}}]}}");
+      TestDefinition testDef = JsonHelper.readTestDefinition(testDefFile);
+      assertThrows(IOException.class, () -> JsonHelper.loadExpectation(testDef));
+    }
+  }
+
+  private static String createDefinition(String name) {
+    return "{\"testName\": \"" + name + "\", \"tags\": [\"tag" + name.toUpperCase() + "\"], "
+        + "\"expectation\": {\"name\": \"product_" + name + "\", \"rasters\": [{\"name\": \"band\"}]}, "
+        + "\"gptCall\": \"Op -Pvalue=" + name + "\"}";
+  }
 }
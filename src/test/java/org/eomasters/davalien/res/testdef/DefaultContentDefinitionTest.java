@@ -0,0 +1,149 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien.res.testdef;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.esa.snap.core.datamodel.Band;
+import org.esa.snap.core.datamodel.CrsGeoCoding;
+import org.esa.snap.core.datamodel.MetadataAttribute;
+import org.esa.snap.core.datamodel.MetadataElement;
+import org.esa.snap.core.datamodel.PixelPos;
+import org.esa.snap.core.datamodel.Product;
+import org.esa.snap.core.datamodel.ProductData;
+import org.geotools.referencing.crs.DefaultGeographicCRS;
+import org.junit.jupiter.api.Test;
+
+class DefaultContentDefinitionTest {
+
+  @Test
+  void testGeoGrid_minimumStep() throws Exception {
+    GeoGrid geoGrid = createGeoGrid(1000, 500);
+    assertEquals(64, geoGrid.getStep());
+    assertEquals(16 * 8, geoGrid.getLats().length);
+    assertEquals(16 * 8, geoGrid.getLons().length);
+    // the grid points are the pixel centres
+    assertEquals(50.0, geoGrid.getLats()[0], 1.0e-10);
+    assertEquals(10.0 + 64 * 0.001, geoGrid.getLons()[1], 1.0e-10);
+    assertEquals(50.0 - 64 * 0.001, geoGrid.getLats()[16], 1.0e-10);
+    assertEquals(1.0e-8, geoGrid.getFwdEps());
+    assertNotNull(geoGrid.getInvEps());
+  }
+
+  @Test
+  void testGeoGrid_stepOfLargeRaster() throws Exception {
+    // at most 64 grid points in the larger direction, step is ceil(8192 / 64)
+    GeoGrid geoGrid = createGeoGrid(8192, 100);
+    assertEquals(128, geoGrid.getStep());
+    assertEquals(64 * 1, geoGrid.getLats().length);
+
+    geoGrid = createGeoGrid(100, 8200);
+    assertEquals(129, geoGrid.getStep());
+    assertEquals(64, geoGrid.getLats().length);
+  }
+
+  @Test
+  void testGeoGrid_withoutGeoCoding() {
+    Product product = new Product("test", "type", 100, 100);
+    assertNull(new DefaultContentDefinition(product).getGeoGridForNode(product));
+  }
+
+  @Test
+  void testCreatePixels_rasterNotMultipleOfTileSize() {
+    Product product = new Product("test", "type", 100, 75);
+    product.setPreferredTileSize(64, 64);
+    float[] data = new float[100 * 75];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = i % 100 + (i / 100) * 1000;
+    }
+    // the seed depends on the name, several rasters cover all tiles including those at the border
+    for (int n = 0; n < 20; n++) {
+      Band band = product.addBand("band_" + n, ProductData.TYPE_FLOAT32);
+      band.setRasterData(ProductData.createInstance(data));
+      Pixel[] pixels = DefaultContentDefinition.createPixels(band);
+      assertEquals(3, pixels.length);
+      for (Pixel pixel : pixels) {
+        PixelPos pos = pixel.getPosition();
+        assertTrue(pos.x > 0 && pos.x < 100 && pos.y > 0 && pos.y < 75, band.getName() + ": " + pos);
+        assertEquals((int) pos.x + (int) pos.y * 1000, pixel.getValue(), band.getName());
+      }
+    }
+  }
+
+  @Test
+  void testMetadataTree_optIn() {
+    Product product = createProductWithMetadata();
+    DefaultContentDefinition contentDefinition = new DefaultContentDefinition(product);
+    assertNull(contentDefinition.getMetadataTree());
+
+    contentDefinition.setMetadataTreePath("");
+    MetadataTree tree = contentDefinition.getMetadataTree();
+    assertNotNull(tree);
+    assertNull(tree.getPath());
+    assertEquals("metadata", tree.getRoot().getName());
+    assertEquals(List.of("Global_Attributes"), getNames(tree.getRoot().getElements()));
+    // the history changes with every processing
+    assertEquals(Set.of("title"), tree.getRoot().getElements()[0].getAttributeHashes().keySet());
+  }
+
+  @Test
+  void testMetadataTree_withPath() {
+    DefaultContentDefinition contentDefinition = new DefaultContentDefinition(createProductWithMetadata());
+    contentDefinition.setMetadataTreePath("Global_Attributes");
+    MetadataTree tree = contentDefinition.getMetadataTree();
+    assertEquals("Global_Attributes", tree.getPath());
+    assertEquals("Global_Attributes", tree.getRoot().getName());
+
+    contentDefinition.setMetadataTreePath("Unknown");
+    assertNull(contentDefinition.getMetadataTree());
+  }
+
+  private static Product createProductWithMetadata() {
+    Product product = new Product("test", "type", 100, 100);
+    MetadataElement globalAttributes = new MetadataElement("Global_Attributes");
+    globalAttributes.addAttribute(new MetadataAttribute("title", ProductData.createInstance("Test"), true));
+    globalAttributes.addAttribute(new MetadataAttribute("history", ProductData.createInstance("2026-10-17"), true));
+    product.getMetadataRoot().addElement(globalAttributes);
+    product.getMetadataRoot().addElement(new MetadataElement("Processing_Graph"));
+    return product;
+  }
+
+  private static List<String> getNames(MetadataNode[] nodes) {
+    return Arrays.stream(nodes).map(MetadataNode::getName).collect(Collectors.toList());
+  }
+
+  private static GeoGrid createGeoGrid(int width, int height) throws Exception {
+    Product product = new Product("test", "type", width, height);
+    product.setSceneGeoCoding(
+        new CrsGeoCoding(DefaultGeographicCRS.WGS84, width, height, 10.0, 50.0, 0.001, 0.001));
+    return new DefaultContentDefinition(product).getGeoGridForNode(product);
+  }
+}
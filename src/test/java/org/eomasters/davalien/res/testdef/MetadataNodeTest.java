@@ -0,0 +1,104 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien.res.testdef;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.List;
+import org.esa.snap.core.datamodel.MetadataAttribute;
+import org.esa.snap.core.datamodel.MetadataElement;
+import org.esa.snap.core.datamodel.ProductData;
+import org.junit.jupiter.api.Test;
+
+class MetadataNodeTest {
+
+  @Test
+  void testCreate() {
+    MetadataNode node = MetadataNode.create(createTree("S2", "graph1"), List.of());
+    assertEquals("metadata", node.getName());
+    assertEquals(1, node.getNumAttributes());
+    assertEquals(2, node.getElements().length);
+    assertEquals(16, node.getHash().length());
+    assertEquals(node, MetadataNode.create(createTree("S2", "graph1"), List.of()));
+  }
+
+  @Test
+  void testCreate_changedAttribute() {
+    MetadataNode expected = MetadataNode.create(createTree("S2", "graph1"), List.of());
+    MetadataNode actual = MetadataNode.create(createTree("S3", "graph1"), List.of());
+    assertNotEquals(expected.getHash(), actual.getHash());
+    assertEquals(expected.getAttributesHash(), actual.getAttributesHash());
+    assertNotEquals(expected.getElements()[0].getHash(), actual.getElements()[0].getHash());
+    assertEquals(expected.getElements()[1].getHash(), actual.getElements()[1].getHash());
+  }
+
+  @Test
+  void testCreate_excludedElement() {
+    List<String> excludes = List.of("Processing_Graph");
+    MetadataNode expected = MetadataNode.create(createTree("S2", "graph1"), excludes);
+    MetadataNode actual = MetadataNode.create(createTree("S2", "graph2"), excludes);
+    assertEquals(expected.getHash(), actual.getHash());
+    assertEquals(1, actual.getElements().length);
+  }
+
+  @Test
+  void testCreate_attributeHashes() {
+    MetadataNode expected = MetadataNode.create(createTree("S2", "graph1"), List.of());
+    MetadataNode actual = MetadataNode.create(createTree("S3", "graph1"), List.of());
+    MetadataNode expHeader = expected.getElements()[0];
+    MetadataNode actHeader = actual.getElements()[0];
+    assertEquals(List.of("mission"), List.copyOf(expHeader.getAttributeHashes().keySet()));
+    assertNotEquals(expHeader.getAttributeHashes().get("mission"), actHeader.getAttributeHashes().get("mission"));
+  }
+
+  @Test
+  void testCreate_excludedAttribute() {
+    List<String> excludes = List.of("history");
+    MetadataElement expTree = createTree("S2", "graph1");
+    expTree.addAttribute(createAttribute("history", "processed 2026-01-01"));
+    MetadataElement actTree = createTree("S2", "graph1");
+    actTree.addAttribute(createAttribute("history", "processed 2026-02-01"));
+    MetadataNode expected = MetadataNode.create(expTree, excludes);
+    MetadataNode actual = MetadataNode.create(actTree, excludes);
+    assertEquals(expected.getHash(), actual.getHash());
+    assertEquals(1, actual.getNumAttributes());
+  }
+
+  private static MetadataElement createTree(String mission, String graph) {
+    MetadataElement root = new MetadataElement("metadata");
+    root.addAttribute(createAttribute("version", "1.0"));
+    MetadataElement header = new MetadataElement("Header");
+    header.addAttribute(createAttribute("mission", mission));
+    root.addElement(header);
+    MetadataElement processingGraph = new MetadataElement("Processing_Graph");
+    processingGraph.addAttribute(createAttribute("node", graph));
+    root.addElement(processingGraph);
+    return root;
+  }
+
+  private static MetadataAttribute createAttribute(String name, String value) {
+    return new MetadataAttribute(name, ProductData.createInstance(value), true);
+  }
+}
@@ -25,12 +25,19 @@ package org.eomasters.davalien.res.testdef;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.bc.ceres.glevel.MultiLevelImage;
 import java.awt.Dimension;
+import java.io.IOException;
 import java.text.ParseException;
+import java.util.Arrays;
 import java.util.Random;
 import org.eomasters.davalien.DavalienException;
 import org.eomasters.davalien.res.testdef.Coding.Sample;
+import org.eomasters.davalien.utils.TileHasher;
 import org.esa.snap.core.datamodel.FlagCoding;
 import org.esa.snap.core.datamodel.GeoPos;
 import org.esa.snap.core.datamodel.IndexCoding;
@@ -40,6 +47,7 @@ import org.esa.snap.core.datamodel.PixelPos;
 import org.esa.snap.core.datamodel.Product;
 import org.esa.snap.core.datamodel.ProductData;
 import org.esa.snap.core.datamodel.ProductData.UTC;
+import org.esa.snap.core.datamodel.RasterDataNode;
 import org.esa.snap.core.datamodel.TiePointGrid;
 import org.esa.snap.rcp.util.TestProducts;
 import org.junit.jupiter.api.BeforeAll;
@@ -52,6 +60,8 @@ class ProductContentFactoryTest {
   @BeforeAll
   static void beforeAll() throws ParseException {
     testProduct = TestProducts.createProduct1();
+    // the sampled pixel positions depend on the tiling, so it must not depend on the default tile size of SNAP
+    testProduct.setPreferredTileSize(512, 512);
     TiePointGrid[] grids = testProduct.getTiePointGrids();
     int seed = 987;
     for (TiePointGrid grid : grids) {
@@ -77,7 +87,7 @@ class ProductContentFactoryTest {
   }
 
   @Test
-  public void testCreation() throws DavalienException, ParseException {
+  public void testCreation() throws DavalienException, ParseException, IOException {
     ProductContent pc = ProductContentFactory.create(testProduct);
     assertEquals("Test_Product_1", pc.getName());
     assertEquals("Test_Type_1", pc.getProductType());
@@ -103,9 +113,9 @@ class ProductContentFactoryTest {
     gridA.setNoDataValueUsed(false);
     gridA.setValidPixelExpression(null);
     gridA.setSize(new Dimension(2048, 1024));
-    gridA.setPixels(new Pixel[]{new Pixel(new PixelPos(1497.5, 300.5), -0.7569640792371501),
-        new Pixel(new PixelPos(1846.5, 4.5), -0.4758454715870357),
-        new Pixel(new PixelPos(1017.5, 875.5), 0.35383669314433064)});
+    gridA.setPixels(checkPixels(pc, "Grid_A", new Pixel[]{new Pixel(new PixelPos(1135.5, 966.5), -0.7498056888580322),
+        new Pixel(new PixelPos(1363.5, 915.5), 1.343904733657837),
+        new Pixel(new PixelPos(1499.5, 682.5), -0.5187885165214539)}));
     gridA.setMinimum(-3.850964069366455);
     gridA.setMaximum(5.2165021896362305);
     gridA.setHistogramBins(
@@ -134,6 +144,7 @@ class ProductContentFactoryTest {
             54, 51, 49, 59, 45, 55, 45, 45, 55, 43, 55, 43, 48, 50, 45, 47, 50, 41, 51, 42, 43, 49, 39, 51, 39, 44, 44,
             42, 38, 42, 43, 44, 39, 40, 43, 34, 43, 37, 39, 39, 38, 37, 38, 37, 35, 42, 30, 39, 36, 32, 40, 28, 32, 28,
             24, 27, 19, 20, 19, 15, 11, 15, 6, 7, 5, 3, 2, 3, 2, 3, 2, 2, 2, 2, 2, 1, 1, 3, 0, 1, 2, 0, 1, 1, 0, 1});
+    gridA.setTileHashes(checkTileHashes(pc, "Grid_A"));
     Raster gridB = new Raster("Grid_B", null);
     gridB.setDataType(DataType.FLOAT32);
     gridB.setRasterType(RasterType.TIE_POINT);
@@ -141,9 +152,9 @@ class ProductContentFactoryTest {
     gridB.setNoDataValueUsed(false);
     gridB.setValidPixelExpression(null);
     gridB.setSize(new Dimension(2048, 1024));
-    gridB.setPixels(new Pixel[]{new Pixel(new PixelPos(1497.5, 300.5), -2.091343596108345),
-        new Pixel(new PixelPos(1846.5, 4.5), 0.2556064154314299),
-        new Pixel(new PixelPos(1017.5, 875.5), 0.3860352358879027)});
+    gridB.setPixels(checkPixels(pc, "Grid_B", new Pixel[]{new Pixel(new PixelPos(1222.5, 864.5), -0.3746439218521118),
+        new Pixel(new PixelPos(1143.5, 775.5), 1.2016894817352295),
+        new Pixel(new PixelPos(1387.5, 960.5), -0.6511690020561218)}));
     gridB.setMinimum(-4.946466445922852);
     gridB.setMaximum(8.427169799804688);
     gridB.setHistogramBins(
@@ -171,6 +182,7 @@ class ProductContentFactoryTest {
             17, 22, 20, 19, 22, 14, 24, 12, 23, 13, 21, 12, 21, 13, 19, 13, 17, 18, 12, 20, 10, 18, 9, 16, 11, 15, 10,
             15, 11, 13, 11, 11, 12, 10, 12, 9, 12, 8, 11, 6, 11, 7, 9, 8, 8, 7, 8, 7, 7, 7, 5, 7, 5, 6, 5, 6, 3, 5, 4,
             4, 3, 4, 3, 3, 3, 2, 2, 2, 2, 1, 1, 1, 1});
+    gridB.setTileHashes(checkTileHashes(pc, "Grid_B"));
     Raster bandA = new Raster("Band_A", null);
     bandA.setDataType(DataType.FLOAT32);
     bandA.setRasterType(RasterType.VIRTUAL);
@@ -178,9 +190,9 @@ class ProductContentFactoryTest {
     bandA.setNoDataValueUsed(false);
     bandA.setValidPixelExpression(null);
     bandA.setSize(new Dimension(2048, 1024));
-    bandA.setPixels(new Pixel[]{new Pixel(new PixelPos(1497.5, 300.5), 0.9872199892997742),
-        new Pixel(new PixelPos(1846.5, 4.5), -0.621017336845398),
-        new Pixel(new PixelPos(1017.5, 875.5), -0.015127663500607014)});
+    bandA.setPixels(checkPixels(pc, "Band_A", new Pixel[]{new Pixel(new PixelPos(144.5, 167.5), 0.8674546480178833),
+        new Pixel(new PixelPos(117.5, 207.5), 0.6733621954917908),
+        new Pixel(new PixelPos(38.5, 278.5), 0.6720448732376099)}));
     bandA.setMinimum(-1.0);
     bandA.setMaximum(1.0);
     bandA.setHistogramBins(
@@ -213,6 +225,7 @@ class ProductContentFactoryTest {
             4446, 4430, 4466, 4488, 4516, 4578, 4750, 4518, 4892, 4844, 4760, 4920, 5110, 4910, 5150, 5314, 5156, 5326,
             5562, 5532, 5614, 5748, 5772, 6092, 6030, 6200, 6350, 6468, 6654, 6910, 6906, 7338, 7474, 7862, 7952, 8480,
             8678, 9244, 9814, 10170, 11212, 11956, 13200, 15118, 17968, 23158, 56082});
+    bandA.setTileHashes(checkTileHashes(pc, "Band_A"));
     Raster maskA = new Raster("Mask_A", "I am Mask A");
     maskA.setDataType(DataType.UINT8);
     maskA.setRasterType(RasterType.MASK);
@@ -220,9 +233,9 @@ class ProductContentFactoryTest {
     maskA.setNoDataValueUsed(false);
     maskA.setValidPixelExpression(null);
     maskA.setSize(new Dimension(2048, 1024));
-    maskA.setPixels(new Pixel[]{new Pixel(new PixelPos(1497.5, 300.5), 255),
-        new Pixel(new PixelPos(1846.5, 4.5), 0),
-        new Pixel(new PixelPos(1017.5, 875.5), 0)});
+    maskA.setPixels(checkPixels(pc, "Mask_A", new Pixel[]{new Pixel(new PixelPos(1718.5, 46.5), 255),
+        new Pixel(new PixelPos(1812.5, 145.5), 255),
+        new Pixel(new PixelPos(1869.5, 29.5), 0)}));
     maskA.setMinimum(0.0);
     maskA.setMaximum(255.0);
     maskA.setHistogramBins(
@@ -241,6 +254,7 @@ class ProductContentFactoryTest {
             0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
             0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
             0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 675648, 0});
+    maskA.setTileHashes(checkTileHashes(pc, "Mask_A"));
 
     assertArrayEquals(new Raster[]{gridA, gridB, bandA, maskA}, pc.getRasters());
     assertArrayEquals(new Vector[]{new Vector("pins", "", 0),
@@ -248,6 +262,54 @@ class ProductContentFactoryTest {
 
   }
 
+  @Test
+  public void testApproximateStatisticsWithoutTileHashes() throws DavalienException {
+    ProductContent pc = ProductContentFactory.create(testProduct, new StatisticsSettings(StatisticsMode.APPROXIMATE));
+    for (Raster raster : pc.getRasters()) {
+      assertNull(raster.getTileHashes(), raster.getName());
+    }
+  }
+
+  // the values of the hashes are checked by the TileHasherTest, here the tile grid must cover the raster
+  private static TileHashes checkTileHashes(ProductContent pc, String rasterName) {
+    Raster generated = Arrays.stream(pc.getRasters()).filter(r -> r.getName().equals(rasterName)).findFirst()
+                             .orElseThrow();
+    RasterDataNode raster = testProduct.getRasterDataNode(rasterName);
+    TileHashes tileHashes = generated.getTileHashes();
+    assertNotNull(tileHashes);
+    assertEquals(raster.getSourceImage().getTileWidth(), tileHashes.getTileWidth());
+    assertEquals(raster.getSourceImage().getTileHeight(), tileHashes.getTileHeight());
+    int numTiles = TileHasher.getNumTiles(raster.getRasterWidth(), tileHashes.getTileWidth())
+        * TileHasher.getNumTiles(raster.getRasterHeight(), tileHashes.getTileHeight());
+    assertEquals(numTiles, tileHashes.getHashes().length);
+    for (String hash : tileHashes.getHashes()) {
+      assertTrue(hash.matches("[0-9a-f]{8}"), hash);
+    }
+    return tileHashes;
+  }
+
+  // the sampled pixels must lie in one tile of the source image and their values must match the raster
+  private static Pixel[] checkPixels(ProductContent pc, String rasterName, Pixel[] expected) throws IOException {
+    Raster generated = Arrays.stream(pc.getRasters()).filter(r -> r.getName().equals(rasterName)).findFirst()
+                             .orElseThrow();
+    RasterDataNode raster = testProduct.getRasterDataNode(rasterName);
+    MultiLevelImage sourceImage = raster.getSourceImage();
+    Pixel[] pixels = generated.getPixels();
+    assertEquals(expected.length, pixels.length);
+    PixelPos first = pixels[0].getPosition();
+    for (int i = 0; i < pixels.length; i++) {
+      PixelPos pos = pixels[i].getPosition();
+      assertEquals(expected[i].getPosition(), pos, rasterName);
+      // the values are read from the float image, the tie-point grids would be interpolated in double precision
+      assertEquals(expected[i].getValue(), pixels[i].getValue(), 1.0e-6, rasterName);
+      assertEquals(sourceImage.XToTileX((int) first.x), sourceImage.XToTileX((int) pos.x));
+      assertEquals(sourceImage.YToTileY((int) first.y), sourceImage.YToTileY((int) pos.y));
+      double[] value = raster.readPixels((int) pos.x, (int) pos.y, 1, 1, new double[1]);
+      assertEquals(value[0], pixels[i].getValue(), 1.0e-6);
+    }
+    return pixels;
+  }
+
   private static float[] createRandomPoints(int n, Random random) {
     float[] pnts = new float[n];
     for (int i = 0; i < pnts.length; i++) {
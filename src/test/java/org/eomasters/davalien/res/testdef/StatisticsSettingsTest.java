@@ -0,0 +1,78 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien.res.testdef;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.eomasters.davalien.res.JsonHelper;
+import org.junit.jupiter.api.Test;
+
+class StatisticsSettingsTest {
+
+  @Test
+  void defaults() {
+    StatisticsSettings settings = new StatisticsSettings(null);
+    assertEquals(StatisticsMode.ACCURATE, settings.getMode());
+    assertNull(settings.getLevel());
+    assertEquals(1.0e-8, settings.getMinMaxEps());
+    assertEquals(0, settings.getHistogramEps());
+  }
+
+  @Test
+  void jsonConversion() {
+    String json = "{\"mode\": \"APPROXIMATE\", \"level\": 2, \"minMaxEps\": 0.01, \"histogramEps\": 0.05}";
+    StatisticsSettings settings = (StatisticsSettings) JsonHelper.fromJson(json, StatisticsSettings.class);
+    assertEquals(StatisticsMode.APPROXIMATE, settings.getMode());
+    assertEquals(2, settings.getLevel());
+    assertEquals(0.01, settings.getMinMaxEps());
+    assertEquals(0.05, settings.getHistogramEps());
+  }
+
+  @Test
+  void withLevel() {
+    StatisticsSettings settings = new StatisticsSettings(StatisticsMode.APPROXIMATE);
+    settings.setMinMaxEps(0.01);
+    settings.setHistogramEps(0.05);
+    StatisticsSettings resolved = settings.withLevel(3);
+    assertEquals(3, resolved.getLevel());
+    assertEquals(StatisticsMode.APPROXIMATE, resolved.getMode());
+    assertEquals(0.01, resolved.getMinMaxEps());
+    assertEquals(0.05, resolved.getHistogramEps());
+    assertNull(settings.getLevel());
+
+    String json = JsonHelper.toJson(resolved);
+    assertEquals(resolved, JsonHelper.fromJson(json, StatisticsSettings.class));
+  }
+
+  @Test
+  void histogramDistance() {
+    assertEquals(0, StatisticsSettings.histogramDistance(new int[]{1, 2, 3}, new int[]{1, 2, 3}));
+    // equal distribution with a different number of pixels
+    assertEquals(0, StatisticsSettings.histogramDistance(new int[]{1, 2, 3}, new int[]{4, 8, 12}), 1.0e-12);
+    assertEquals(0.5, StatisticsSettings.histogramDistance(new int[]{2, 2}, new int[]{3, 1}), 1.0e-12);
+    assertEquals(2, StatisticsSettings.histogramDistance(new int[]{1, 0}, new int[]{0, 1}), 1.0e-12);
+    assertEquals(Double.POSITIVE_INFINITY, StatisticsSettings.histogramDistance(new int[]{1}, new int[]{1, 1}));
+  }
+}
@@ -0,0 +1,78 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class ConcurrencyUtilsTest {
+
+  @Test
+  void testComputeAll_keepsIndexOrder() {
+    List<Integer> results = ConcurrencyUtils.computeAll(100, i -> {
+      sleep((100 - i) % 7);
+      return i * 2;
+    });
+    assertEquals(IntStream.range(0, 100).mapToObj(i -> i * 2).collect(Collectors.toList()), results);
+  }
+
+  @Test
+  void testComputeAll_runsOnPool() {
+    ConcurrentHashMap<String, Boolean> threadNames = new ConcurrentHashMap<>();
+    ConcurrencyUtils.computeAll(8, i -> threadNames.put(Thread.currentThread().getName(), Boolean.TRUE));
+    assertTrue(threadNames.keySet().stream().allMatch(name -> name.startsWith("davalien-validation-pool-")));
+  }
+
+  @Test
+  void testComputeAll_nested() {
+    List<Integer> results = ConcurrencyUtils.computeAll(4,
+        i -> ConcurrencyUtils.computeAll(4, j -> i * 4 + j).stream().mapToInt(Integer::intValue).sum());
+    assertEquals(List.of(6, 22, 38, 54), results);
+  }
+
+  @Test
+  void testComputeAll_rethrowsError() {
+    assertThrows(AssertionError.class, () -> ConcurrencyUtils.computeAll(10, i -> {
+      if (i == 5) {
+        throw new AssertionError("failed");
+      }
+      return i;
+    }));
+  }
+
+  private static void sleep(int millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
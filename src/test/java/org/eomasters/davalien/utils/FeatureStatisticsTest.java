@@ -0,0 +1,126 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import org.geotools.feature.DefaultFeatureCollection;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+class FeatureStatisticsTest {
+
+  private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+
+  @Test
+  void testCompute() {
+    SimpleFeatureType type = createType();
+    DefaultFeatureCollection collection = new DefaultFeatureCollection("test", type);
+    collection.add(createFeature(type, "f1", point(10, 20), 1.5, 3, "a"));
+    collection.add(createFeature(type, "f2", point(-5, 40), -2.5, 7, "b"));
+    collection.add(createFeature(type, "f3", GEOMETRY_FACTORY.createLineString(
+        new Coordinate[]{new Coordinate(0, 0), new Coordinate(30, 10)}), 4.0, 5, "c"));
+
+    FeatureStatistics statistics = FeatureStatistics.compute(collection.features());
+
+    assertEquals(3, statistics.getCount());
+    assertArrayEquals(new double[]{-5, 0, 30, 40}, statistics.getBounds());
+    assertEquals(Map.of("Point", 2L, "LineString", 1L), statistics.getGeometryTypes());
+    // the string attribute is not numeric
+    assertEquals(2, statistics.getAttributes().size());
+    FeatureStatistics.Attribute value = statistics.getAttributes().get("value");
+    assertEquals(-2.5, value.getMin());
+    assertEquals(4.0, value.getMax());
+    assertEquals(3.0, value.getSum());
+    FeatureStatistics.Attribute count = statistics.getAttributes().get("count");
+    assertEquals(3, count.getMin());
+    assertEquals(7, count.getMax());
+    assertEquals(15, count.getSum());
+  }
+
+  @Test
+  void testCompute_missingValues() {
+    SimpleFeatureType type = createType();
+    DefaultFeatureCollection collection = new DefaultFeatureCollection("test", type);
+    collection.add(createFeature(type, "f1", point(1, 1), Double.NaN, null, "a"));
+    collection.add(createFeature(type, "f2", point(2, 2), 6.0, null, "b"));
+
+    FeatureStatistics statistics = FeatureStatistics.compute(collection.features());
+
+    FeatureStatistics.Attribute value = statistics.getAttributes().get("value");
+    assertEquals(6.0, value.getMin());
+    assertEquals(6.0, value.getMax());
+    assertEquals(6.0, value.getSum());
+    FeatureStatistics.Attribute count = statistics.getAttributes().get("count");
+    assertTrue(Double.isNaN(count.getMin()));
+    assertTrue(Double.isNaN(count.getMax()));
+    assertEquals(0, count.getSum());
+  }
+
+  @Test
+  void testCompute_empty() {
+    DefaultFeatureCollection collection = new DefaultFeatureCollection("test", createType());
+
+    FeatureStatistics statistics = FeatureStatistics.compute(collection.features());
+
+    assertEquals(0, statistics.getCount());
+    assertNull(statistics.getBounds());
+    assertTrue(statistics.getAttributes().isEmpty());
+    assertTrue(statistics.getGeometryTypes().isEmpty());
+  }
+
+  private static SimpleFeatureType createType() {
+    SimpleFeatureTypeBuilder builder = new SimpleFeatureTypeBuilder();
+    builder.setName("test");
+    builder.add("geometry", Geometry.class);
+    builder.add("value", Double.class);
+    builder.add("count", Integer.class);
+    builder.add("label", String.class);
+    return builder.buildFeatureType();
+  }
+
+  private static SimpleFeature createFeature(SimpleFeatureType type, String id, Geometry geometry,
+      Double value, Integer count, String label) {
+    SimpleFeatureBuilder builder = new SimpleFeatureBuilder(type);
+    builder.add(geometry);
+    builder.add(value);
+    builder.add(count);
+    builder.add(label);
+    return builder.buildFeature(id);
+  }
+
+  private static Geometry point(double x, double y) {
+    return GEOMETRY_FACTORY.createPoint(new Coordinate(x, y));
+  }
+}
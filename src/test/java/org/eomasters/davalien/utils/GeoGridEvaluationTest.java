@@ -0,0 +1,105 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.esa.snap.core.datamodel.CrsGeoCoding;
+import org.esa.snap.core.datamodel.GeoCoding;
+import org.geotools.referencing.crs.DefaultGeographicCRS;
+import org.junit.jupiter.api.Test;
+
+class GeoGridEvaluationTest {
+
+  private static final int WIDTH = 300;
+  private static final int HEIGHT = 200;
+  private static final int STEP = 64;
+  private static final double PIXEL_SIZE = 0.001;
+
+  @Test
+  void testGetNumPoints() {
+    assertEquals(5, GeoGridEvaluation.getNumPoints(300, 64));
+    assertEquals(4, GeoGridEvaluation.getNumPoints(256, 64));
+    assertEquals(1, GeoGridEvaluation.getNumPoints(1, 64));
+  }
+
+  @Test
+  void testComputeGeoPositions() throws Exception {
+    double[][] geoPositions = GeoGridEvaluation.computeGeoPositions(createGeoCoding(10.0), WIDTH, HEIGHT, STEP);
+    assertEquals(5 * 4, geoPositions[0].length);
+    assertEquals(5 * 4, geoPositions[1].length);
+    // the grid points are the pixel centres, index 7 is the third point in the second row
+    assertEquals(50.0 - 64 * PIXEL_SIZE, geoPositions[0][7], 1.0e-10);
+    assertEquals(10.0 + 128 * PIXEL_SIZE, geoPositions[1][7], 1.0e-10);
+  }
+
+  @Test
+  void testEvaluateSameGeoCoding() throws Exception {
+    GeoCoding geoCoding = createGeoCoding(10.0);
+    double[][] geoPositions = GeoGridEvaluation.computeGeoPositions(geoCoding, WIDTH, HEIGHT, STEP);
+
+    GeoGridEvaluation evaluation = GeoGridEvaluation.evaluate(geoCoding, WIDTH, STEP, geoPositions[0],
+        geoPositions[1], true);
+
+    assertEquals(20, evaluation.getNumPoints());
+    assertEquals(0, evaluation.getMaxFwdError());
+    assertEquals(0, evaluation.getMeanFwdError());
+    assertEquals(0, evaluation.getMaxInvError(), 1.0e-8);
+  }
+
+  @Test
+  void testEvaluateShiftedGeoCoding() throws Exception {
+    double[][] geoPositions = GeoGridEvaluation.computeGeoPositions(createGeoCoding(10.0), WIDTH, HEIGHT, STEP);
+
+    // shifted by 10 pixels to the east
+    GeoGridEvaluation evaluation = GeoGridEvaluation.evaluate(createGeoCoding(10.01), WIDTH, STEP, geoPositions[0],
+        geoPositions[1], true);
+
+    assertEquals(20, evaluation.getNumPoints());
+    assertEquals(0.01, evaluation.getMaxFwdError(), 1.0e-10);
+    assertEquals(0.01, evaluation.getMeanFwdError(), 1.0e-10);
+    assertEquals(10, evaluation.getMaxInvError(), 1.0e-6);
+  }
+
+  @Test
+  void testEvaluateInvalidExpectedPosition() throws Exception {
+    GeoCoding geoCoding = createGeoCoding(10.0);
+    double[][] geoPositions = GeoGridEvaluation.computeGeoPositions(geoCoding, WIDTH, HEIGHT, STEP);
+    geoPositions[0][12] = Double.NaN;
+    geoPositions[1][12] = Double.NaN;
+
+    GeoGridEvaluation evaluation = GeoGridEvaluation.evaluate(geoCoding, WIDTH, STEP, geoPositions[0],
+        geoPositions[1], false);
+
+    assertEquals(Double.POSITIVE_INFINITY, evaluation.getMaxFwdError());
+    assertEquals(12, evaluation.getMaxFwdIndex());
+    // infinite errors are not part of the mean
+    assertEquals(0, evaluation.getMeanFwdError());
+    assertEquals(-1, evaluation.getMaxInvIndex());
+  }
+
+  private static GeoCoding createGeoCoding(double easting) throws Exception {
+    return new CrsGeoCoding(DefaultGeographicCRS.WGS84, WIDTH, HEIGHT, easting, 50.0, PIXEL_SIZE, PIXEL_SIZE);
+  }
+}
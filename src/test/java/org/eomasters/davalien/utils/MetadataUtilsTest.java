@@ -0,0 +1,84 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+import java.util.Map;
+import org.eomasters.davalien.utils.MetadataUtils.MetadataWrapper;
+import org.esa.snap.core.datamodel.MetadataAttribute;
+import org.esa.snap.core.datamodel.MetadataElement;
+import org.esa.snap.core.datamodel.ProductData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MetadataUtilsTest {
+
+  private MetadataElement root;
+
+  @BeforeEach
+  void setUp() {
+    root = new MetadataElement("metadata");
+    MetadataElement orbits = new MetadataElement("Orbit_List");
+    for (int i = 0; i < 3; i++) {
+      MetadataElement orbit = new MetadataElement("Orbit");
+      orbit.addAttribute(createAttribute("number", "orbit" + i));
+      orbits.addElement(orbit);
+    }
+    root.addElement(orbits);
+    MetadataElement header = new MetadataElement("Header");
+    header.addAttribute(createAttribute("mission", "S2"));
+    header.addAttribute(createAttribute("mode", "IW"));
+    root.addElement(header);
+  }
+
+  @Test
+  void testGetElement() {
+    MetadataWrapper wrapper = MetadataUtils.wrap(root);
+    assertEquals("S2", wrapper.getElement("Header/mission").getData().getElemString());
+    assertEquals("orbit2", wrapper.getElement("Orbit_List/Orbit[2]/number").getData().getElemString());
+    assertEquals("orbit0", wrapper.getElement("Orbit_List/Orbit/number").getData().getElemString());
+    assertSame(wrapper.getElement("Header/mission"), wrapper.getElement("Header[1]/mission"));
+    assertNull(wrapper.getElement("Orbit_List/Orbit[3]/number"));
+    assertNull(wrapper.getElement("Header/unknown"));
+  }
+
+  @Test
+  void testFindAttributes() {
+    MetadataWrapper wrapper = MetadataUtils.wrap(root);
+    Map<String, MetadataAttribute> orbits = wrapper.findAttributes("Orbit_List/Orbit[*]/number");
+    assertEquals(List.of("Orbit_List/Orbit[0]/number", "Orbit_List/Orbit[1]/number", "Orbit_List/Orbit[2]/number"),
+        List.copyOf(orbits.keySet()));
+    assertEquals(List.of("Header/mission", "Header/mode"), List.copyOf(wrapper.findAttributes("*/m*").keySet()));
+    assertEquals(List.of("Header/mode"), List.copyOf(wrapper.findAttributes("Head?r/mod?").keySet()));
+    assertEquals(0, wrapper.findAttributes("Orbit_List/*/unknown*").size());
+  }
+
+  private static MetadataAttribute createAttribute(String name, String value) {
+    return new MetadataAttribute(name, ProductData.createInstance(value), true);
+  }
+}
@@ -0,0 +1,85 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import com.bc.ceres.core.ProgressMonitor;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.esa.snap.core.datamodel.Band;
+import org.esa.snap.core.datamodel.Product;
+import org.esa.snap.core.datamodel.ProductData;
+import org.esa.snap.core.datamodel.RasterDataNode;
+import org.esa.snap.core.datamodel.Stx;
+import org.esa.snap.core.datamodel.StxFactory;
+import org.junit.jupiter.api.Test;
+
+class MultiBandStatisticsTest {
+
+  private static final int WIDTH = 300;
+  private static final int HEIGHT = 200;
+  private static final float NO_DATA = -999f;
+
+  @Test
+  void testComputeEqualsStx() {
+    Product product = new Product("test", "type", WIDTH, HEIGHT);
+    // several tiles, so the statistics of several chunks are combined
+    product.setPreferredTileSize(64, 64);
+    Random random = new Random(42);
+    float[] data = new float[WIDTH * HEIGHT];
+    int[] flags = new int[WIDTH * HEIGHT];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = i % 17 == 0 ? NO_DATA : (float) (random.nextGaussian() * 20 + 100);
+      flags[i] = random.nextInt(4);
+    }
+    Band flagBand = product.addBand("flags", ProductData.TYPE_INT32);
+    flagBand.setRasterData(ProductData.createInstance(flags));
+    Band dataBand = product.addBand("data", ProductData.TYPE_FLOAT32);
+    dataBand.setRasterData(ProductData.createInstance(data));
+    dataBand.setNoDataValue(NO_DATA);
+    dataBand.setNoDataValueUsed(true);
+    dataBand.setValidPixelExpression("flags != 3");
+
+    Map<RasterDataNode, BandStatistics> result = MultiBandStatistics.compute(List.of(dataBand, flagBand));
+
+    assertEqualsStx(dataBand, result.get(dataBand));
+    assertEqualsStx(flagBand, result.get(flagBand));
+  }
+
+  private static void assertEqualsStx(RasterDataNode raster, BandStatistics statistics) {
+    assertNotNull(statistics, raster.getName());
+    Stx stx = new StxFactory().create(raster, ProgressMonitor.NULL);
+    assertEquals(stx.getMinimum(), statistics.getMinimum(), raster.getName());
+    assertEquals(stx.getMaximum(), statistics.getMaximum(), raster.getName());
+    assertEquals(stx.getMean(), statistics.getMean(), Math.abs(stx.getMean()) * 1.0e-10, raster.getName());
+    assertEquals(stx.getStandardDeviation(), statistics.getStandardDeviation(), stx.getStandardDeviation() * 1.0e-8,
+        raster.getName());
+    assertEquals(stx.getSampleCount(), statistics.getValidCount(), raster.getName());
+    assertArrayEquals(stx.getHistogram().getBins(0), statistics.getHistogramBins(), raster.getName());
+  }
+}
@@ -0,0 +1,172 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.awt.Rectangle;
+import org.esa.snap.core.datamodel.Band;
+import org.esa.snap.core.datamodel.Product;
+import org.esa.snap.core.datamodel.ProductData;
+import org.junit.jupiter.api.Test;
+
+class RasterComparisonTest {
+
+  private static final int WIDTH = 300;
+  private static final int HEIGHT = 200;
+
+  @Test
+  void testIdenticalRasters() {
+    Product product = createProduct(WIDTH, HEIGHT);
+    Band actual = addBand(product, "actual", createData(WIDTH, HEIGHT));
+    Band reference = addBand(product, "reference", createData(WIDTH, HEIGHT));
+
+    RasterComparison comparison = RasterComparison.compare(actual, reference, 0);
+
+    assertEquals(WIDTH * HEIGHT, comparison.getComparedCount());
+    assertEquals(0, comparison.getDifferingCount());
+    assertEquals(0, comparison.getMaxAbsError());
+    assertEquals(0, comparison.getRmse());
+    assertNull(comparison.getDifferenceBounds());
+  }
+
+  @Test
+  void testSingleDifferingPixel() {
+    Product product = createProduct(WIDTH, HEIGHT);
+    float[] actData = createData(WIDTH, HEIGHT);
+    actData[130 * WIDTH + 70] += 0.5f;
+    // within eps, not counted as difference
+    actData[10 * WIDTH + 5] += 0.0625f;
+    Band actual = addBand(product, "actual", actData);
+    Band reference = addBand(product, "reference", createData(WIDTH, HEIGHT));
+
+    RasterComparison comparison = RasterComparison.compare(actual, reference, 0.1);
+
+    assertEquals(WIDTH * HEIGHT, comparison.getComparedCount());
+    assertEquals(1, comparison.getDifferingCount());
+    assertEquals(new Rectangle(70, 130, 1, 1), comparison.getDifferenceBounds());
+    assertEquals(0.5, comparison.getMaxAbsError());
+  }
+
+  @Test
+  void testNaN() {
+    Product product = createProduct(WIDTH, HEIGHT);
+    float[] actData = createData(WIDTH, HEIGHT);
+    float[] refData = createData(WIDTH, HEIGHT);
+    actData[20 * WIDTH + 30] = Float.NaN;
+    refData[20 * WIDTH + 30] = Float.NaN;
+    Band actual = addBand(product, "actual", actData.clone());
+    Band reference = addBand(product, "reference", refData);
+
+    RasterComparison comparison = RasterComparison.compare(actual, reference, 0);
+    assertEquals(0, comparison.getDifferingCount());
+    assertEquals(0, comparison.getMaxAbsError());
+
+    actData[150 * WIDTH + 250] = Float.NaN;
+    Band actualWithNaN = addBand(product, "actualWithNaN", actData);
+    comparison = RasterComparison.compare(actualWithNaN, reference, 0);
+    assertEquals(1, comparison.getDifferingCount());
+    assertEquals(new Rectangle(250, 150, 1, 1), comparison.getDifferenceBounds());
+    assertEquals(0, comparison.getMaxAbsError());
+  }
+
+  @Test
+  void testValidMaskMismatch() {
+    Product product = createProduct(WIDTH, HEIGHT);
+    float[] actData = createData(WIDTH, HEIGHT);
+    float[] refData = createData(WIDTH, HEIGHT);
+    // invalid in both, not compared
+    actData[5 * WIDTH + 5] = -1;
+    refData[5 * WIDTH + 5] = -1;
+    // invalid only in the actual raster
+    actData[199 * WIDTH + 299] = -1;
+    Band actual = addBand(product, "actual", actData);
+    actual.setNoDataValue(-1);
+    actual.setNoDataValueUsed(true);
+    Band reference = addBand(product, "reference", refData);
+    reference.setNoDataValue(-1);
+    reference.setNoDataValueUsed(true);
+
+    RasterComparison comparison = RasterComparison.compare(actual, reference, 0);
+
+    assertEquals(WIDTH * HEIGHT - 1, comparison.getComparedCount());
+    assertEquals(1, comparison.getDifferingCount());
+    assertEquals(new Rectangle(299, 199, 1, 1), comparison.getDifferenceBounds());
+    assertEquals(0, comparison.getMaxAbsError());
+  }
+
+  @Test
+  void testRasterNotMultipleOfTileSize() {
+    Product product = createProduct(100, 75);
+    float[] actData = createData(100, 75);
+    actData[20 * 100 + 10] += 1;
+    actData[74 * 100 + 99] -= 2;
+    Band actual = addBand(product, "actual", actData);
+    Band reference = addBand(product, "reference", createData(100, 75));
+
+    RasterComparison comparison = RasterComparison.compare(actual, reference, 0);
+
+    assertEquals(100 * 75, comparison.getComparedCount());
+    assertEquals(2, comparison.getDifferingCount());
+    assertEquals(new Rectangle(10, 20, 90, 55), comparison.getDifferenceBounds());
+    assertEquals(2, comparison.getMaxAbsError());
+  }
+
+  @Test
+  void testRmse() {
+    Product product = createProduct(4, 2);
+    Band actual = addBand(product, "actual", new float[]{1, 2, 3, 4, 5, 6, 7, 8});
+    Band reference = addBand(product, "reference", new float[]{1, 3, 3, 4, 5, 6, 4, 8});
+
+    RasterComparison comparison = RasterComparison.compare(actual, reference, 0);
+
+    // sqrt((1^2 + 3^2) / 8)
+    assertEquals(1.118033988749895, comparison.getRmse(), 1.0e-12);
+    assertEquals(3, comparison.getMaxAbsError());
+    assertEquals(2, comparison.getDifferingCount());
+    assertEquals(new Rectangle(1, 0, 2, 2), comparison.getDifferenceBounds());
+  }
+
+  private static Product createProduct(int width, int height) {
+    Product product = new Product("test", "type", width, height);
+    // several tiles, so the comparison is distributed over several threads
+    product.setPreferredTileSize(64, 64);
+    return product;
+  }
+
+  private static float[] createData(int width, int height) {
+    float[] data = new float[width * height];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = i % 100;
+    }
+    return data;
+  }
+
+  private static Band addBand(Product product, String name, float[] data) {
+    Band band = product.addBand(name, ProductData.TYPE_FLOAT32);
+    band.setRasterData(ProductData.createInstance(data));
+    return band;
+  }
+}
@@ -0,0 +1,72 @@
+/*-
+ * ========================LICENSE_START=================================
+ * EOMasters GPT Test Environment - This projects provides a test environment for operators you have developed.
+ * -> https://www.eomasters.org/
+ * ======================================================================
+ * Copyright (C) 2023 - 2026 Marco Peters
+ * ======================================================================
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * -> http://www.gnu.org/licenses/gpl-3.0.html
+ * =========================LICENSE_END==================================
+ */
+
+package org.eomasters.davalien.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import org.esa.snap.core.datamodel.Band;
+import org.esa.snap.core.datamodel.Product;
+import org.esa.snap.core.datamodel.ProductData;
+import org.junit.jupiter.api.Test;
+
+class TileHasherTest {
+
+  private static final int WIDTH = 100;
+  private static final int HEIGHT = 75;
+
+  @Test
+  void testComputeHashesInt() {
+    int[] data = new int[WIDTH * HEIGHT];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = i * 7 - 1000;
+    }
+    Product product = new Product("test", "type", WIDTH, HEIGHT);
+    Band band = product.addBand("int", ProductData.TYPE_INT32);
+    band.setRasterData(ProductData.createInstance(data));
+
+    // CRC32C of the big-endian samples, the tiles at the right and bottom border are clipped
+    assertEquals(List.of("27f562f3", "e9076ee4", "abdb2435", "4c6d47f8"), TileHasher.computeHashes(band, 64, 64));
+  }
+
+  @Test
+  void testComputeHashesFloat() {
+    float[] data = new float[WIDTH * HEIGHT];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = i * 0.25f;
+    }
+    Product product = new Product("test", "type", WIDTH, HEIGHT);
+    Band band = product.addBand("float", ProductData.TYPE_FLOAT32);
+    band.setRasterData(ProductData.createInstance(data));
+
+    assertEquals(List.of("afe84e98", "6ca6fc1d", "107a8a54", "9cec361a"), TileHasher.computeHashes(band, 64, 64));
+  }
+
+  @Test
+  void testGetNumTiles() {
+    assertEquals(2, TileHasher.getNumTiles(100, 64));
+    assertEquals(2, TileHasher.getNumTiles(128, 64));
+    assertEquals(3, TileHasher.getNumTiles(129, 64));
+  }
+}